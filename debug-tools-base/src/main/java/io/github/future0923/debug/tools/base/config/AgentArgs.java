@@ -101,6 +101,26 @@ public class AgentArgs {
      */
     private Integer sqlRetentionDays;
 
+    /**
+     * 慢SQL阈值(ms)，只打印和保存耗时不小于该值的SQL
+     */
+    private Integer sqlSlowThreshold;
+
+    /**
+     * SQL打印采样率，取值 0~1，如 0.1 表示打印10%的SQL
+     */
+    private String sqlSampleRate;
+
+    /**
+     * 追踪时同一方法中相同指纹的SQL执行次数达到该值时标记为N+1查询，默认3
+     */
+    private Integer sqlRepeatedThreshold;
+
+    /**
+     * 是否统计连接池获取连接的耗时 true|false，开启打印或追踪SQL时才生效
+     */
+    private String connectionPoolMetrics;
+
     /**
      * 将agent上的string参数转为AgentArgs对象
      *
@@ -196,6 +216,18 @@ public class AgentArgs {
                 if (DebugToolsStringUtils.isBlank(httpPort)) {
                     httpPort = properties.getProperty("httpPort");
                 }
+                if (DebugToolsStringUtils.isBlank(sqlSampleRate)) {
+                    sqlSampleRate = properties.getProperty("sqlSampleRate");
+                }
+                if (DebugToolsStringUtils.isBlank(connectionPoolMetrics)) {
+                    connectionPoolMetrics = properties.getProperty("connectionPoolMetrics");
+                }
+                if (sqlSlowThreshold == null && DebugToolsStringUtils.isNotBlank(properties.getProperty("sqlSlowThreshold"))) {
+                    sqlSlowThreshold = Integer.valueOf(properties.getProperty("sqlSlowThreshold").trim());
+                }
+                if (sqlRepeatedThreshold == null && DebugToolsStringUtils.isNotBlank(properties.getProperty("sqlRepeatedThreshold"))) {
+                    sqlRepeatedThreshold = Integer.valueOf(properties.getProperty("sqlRepeatedThreshold").trim());
+                }
             }
         } catch (Exception e) {
             logger.error("Error while loading external properties file " + propertiesFilePath, e);
@@ -16,8 +16,11 @@
  */
 package io.github.future0923.debug.tools.base.hutool.sql;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +29,28 @@ import java.util.regex.Pattern;
  */
 public class SqlCompressor {
 
+    /**
+     * 只包含占位符的列表，如 IN 列表、VALUES 中的一行。单个占位符只在 IN、VALUES 之后按列表处理，{@code x=(?)} 中的括号保持原样
+     */
+    private static final Pattern PLACEHOLDER_LIST_PATTERN = Pattern.compile("(?<=\\bin|\\bvalues)\\(\\?(?:,\\?)*\\)|\\(\\?(?:,\\?)+\\)");
+
+    /**
+     * 重复的占位符行，如批量插入的多行 VALUES
+     */
+    private static final Pattern PLACEHOLDER_ROWS_PATTERN = Pattern.compile("\\(\\?\\+\\)(?:,\\(\\?\\+?\\))+");
+
+    /**
+     * 运算符，前后的空白都会移除，{@code a - 1} 和 {@code a-1} 的指纹相同
+     */
+    private static final String OPERATORS = "=<>!+-*/%|&^~";
+
+    /**
+     * 后面的 +、- 是数字的符号而不是运算符的关键字，如 {@code BETWEEN -1 AND -2}
+     */
+    private static final Set<String> SIGN_KEYWORDS = new HashSet<>(Arrays.asList(
+            "select", "where", "and", "or", "not", "between", "in", "values", "set", "like", "is",
+            "when", "then", "else", "case", "limit", "offset", "by", "having", "on", "return"));
+
     /**
      * 将格式化的 SQL 压缩为单行，保留字符串字面量，移除注释与多余空白
      *
@@ -92,4 +117,185 @@ public class SqlCompressor {
         return input.replaceAll("[\\s\\u00A0]+", " ");
     }
 
+    /**
+     * 生成 SQL 指纹，结构相同、只有字面量不同的 SQL 指纹相同：
+     * <ul>
+     *     <li>移除注释，空白压缩为单个空格，运算符、逗号和括号两侧不保留空白，关键字和标识符转为小写</li>
+     *     <li>字符串和数字字面量替换为 {@code ?}，包括负数、科学计数法、十六进制和 {@code X'..'} 等带前缀的字符串</li>
+     *     <li>只包含占位符的列表合并为 {@code (?+)}，多行 VALUES 合并为一行</li>
+     * </ul>
+     *
+     * @param sql SQL 语句
+     * @return 指纹
+     */
+    public static String fingerprint(String sql) {
+        if (sql == null || sql.isEmpty()) {
+            return sql;
+        }
+        int length = sql.length();
+        StringBuilder result = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                // 行注释
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                // 块注释
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (Character.isWhitespace(c) || c == '\u00A0') {
+                appendSpace(result);
+                i++;
+            } else if (c == '\'') {
+                i = skipString(sql, i);
+                result.append('?');
+            } else if ((c == 'x' || c == 'X' || c == 'b' || c == 'B' || c == 'n' || c == 'N')
+                    && i + 1 < length && sql.charAt(i + 1) == '\'' && !isIdentifierEnd(result)) {
+                // X'0F'、B'01'、N'文本'
+                i = skipString(sql, i + 1);
+                result.append('?');
+            } else if (c == '"' || c == '`') {
+                // 引号标识符保持原样
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? length : end + 1;
+                result.append(sql, i, end);
+                i = end;
+            } else if ((Character.isDigit(c) || c == '.' && isDigitAt(sql, i + 1)) && !isIdentifierEnd(result)) {
+                // 数字字面量，包含小数、科学计数法和十六进制
+                i = skipNumber(sql, i);
+                result.append('?');
+            } else if ((c == '-' || c == '+') && (isDigitAt(sql, i + 1) || sql.startsWith(".", i + 1) && isDigitAt(sql, i + 2)) && isSignPosition(result)) {
+                // 带符号的数字，-1 和 1 的指纹相同
+                i = skipNumber(sql, i + 1);
+                result.append('?');
+            } else if (Character.isLetter(c) || c == '_' || c == '$') {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) {
+                    result.append(Character.toLowerCase(sql.charAt(i++)));
+                }
+            } else if (c == '*' && (isSignPosition(result) || result.length() > 0 && result.charAt(result.length() - 1) == '.')) {
+                // select *、t.*、count(*) 中的通配符
+                result.append(c);
+                i++;
+            } else {
+                boolean operator = OPERATORS.indexOf(c) >= 0;
+                if (operator || c == ',' || c == '(' || c == ')') {
+                    trimSpace(result);
+                }
+                result.append(c);
+                i++;
+                if (operator || c == '(') {
+                    while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                        i++;
+                    }
+                }
+            }
+        }
+        trimSpace(result);
+        if (result.length() > 0 && result.charAt(result.length() - 1) == ';') {
+            result.setLength(result.length() - 1);
+        }
+        String fingerprint = PLACEHOLDER_LIST_PATTERN.matcher(result).replaceAll("(?+)");
+        return PLACEHOLDER_ROWS_PATTERN.matcher(fingerprint).replaceAll("(?+)");
+    }
+
+    /**
+     * 跳过字符串字面量，'' 和 \' 为转义
+     *
+     * @param start 开始的引号位置
+     * @return 结束引号之后的位置
+     */
+    private static int skipString(String sql, int start) {
+        int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            char s = sql.charAt(i++);
+            if (s == '\\') {
+                i++;
+            } else if (s == '\'') {
+                if (i < length && sql.charAt(i) == '\'') {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return Math.min(i, length);
+    }
+
+    /**
+     * 跳过数字字面量，十进制数的指数可以带符号，如 1e-5、2.5E+3
+     *
+     * @return 数字之后的位置
+     */
+    private static int skipNumber(String sql, int start) {
+        int length = sql.length();
+        boolean hex = start + 1 < length && sql.charAt(start) == '0' && (sql.charAt(start + 1) == 'x' || sql.charAt(start + 1) == 'X');
+        int i = start;
+        while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            char n = sql.charAt(i++);
+            if (!hex && (n == 'e' || n == 'E') && i + 1 < length && (sql.charAt(i) == '+' || sql.charAt(i) == '-') && isDigitAt(sql, i + 1)) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigitAt(String sql, int index) {
+        return index < sql.length() && Character.isDigit(sql.charAt(index));
+    }
+
+    /**
+     * +、- 是否是数字的符号：位于开头、运算符和括号之后或 {@link #SIGN_KEYWORDS} 之后
+     */
+    private static boolean isSignPosition(StringBuilder result) {
+        int end = result.length();
+        while (end > 0 && result.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end == 0) {
+            return true;
+        }
+        char last = result.charAt(end - 1);
+        if ("(,=<>+-*/%|&^~!".indexOf(last) >= 0) {
+            return true;
+        }
+        if (!Character.isLetterOrDigit(last) && last != '_' && last != '$') {
+            return false;
+        }
+        int start = end;
+        while (start > 0 && (Character.isLetterOrDigit(result.charAt(start - 1)) || result.charAt(start - 1) == '_' || result.charAt(start - 1) == '$')) {
+            start--;
+        }
+        return SIGN_KEYWORDS.contains(result.substring(start, end));
+    }
+
+    private static void appendSpace(StringBuilder result) {
+        if (result.length() > 0) {
+            char last = result.charAt(result.length() - 1);
+            if (last != ' ' && last != '(' && last != ',' && (last == '*' || OPERATORS.indexOf(last) < 0)) {
+                result.append(' ');
+            }
+        }
+    }
+
+    private static void trimSpace(StringBuilder result) {
+        int length = result.length();
+        if (length > 0 && result.charAt(length - 1) == ' ') {
+            result.setLength(length - 1);
+        }
+    }
+
+    /**
+     * 前一个字符是否属于标识符，如 t1、col_2 中的数字不是字面量
+     */
+    private static boolean isIdentifierEnd(StringBuilder result) {
+        if (result.length() == 0) {
+            return false;
+        }
+        char last = result.charAt(result.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个连接池的获取连接耗时和状态采样，清空时由 {@link ConnectionPoolStatistics} 整体替换
+ *
+ * @author future0923
+ */
+@Getter
+public class ConnectionPoolMetrics {
+
+    /**
+     * 采样间隔
+     */
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+
+    /**
+     * 最多保留的采样数，按采样间隔约为最近5分钟
+     */
+    private static final int MAX_SAMPLE_COUNT = 300;
+
+    /**
+     * 连接池类型，如 HikariCP
+     */
+    private final String poolType;
+
+    /**
+     * 连接池名称
+     */
+    private final String poolName;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalMicros = new LongAdder();
+
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    /**
+     * 获取连接耗时分布(μs)
+     */
+    private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+    private final AtomicLong nextSampleTime = new AtomicLong();
+
+    /**
+     * 环形缓冲区，写满后覆盖最早的采样
+     */
+    private final ConnectionPoolSample[] samples = new ConnectionPoolSample[MAX_SAMPLE_COUNT];
+
+    private int sampleIndex;
+
+    private int sampleCount;
+
+    public ConnectionPoolMetrics(String poolType, String poolName) {
+        this.poolType = poolType;
+        this.poolName = poolName;
+    }
+
+    /**
+     * 记录一次获取连接
+     *
+     * @param micros 耗时(μs)
+     */
+    public void record(long micros) {
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        histogram.record(micros);
+    }
+
+    /**
+     * 距离上次采样是否已经超过采样间隔，多个线程同时调用时只有一个返回true
+     */
+    public boolean tryStartSample(long now) {
+        long next = nextSampleTime.get();
+        return now >= next && nextSampleTime.compareAndSet(next, now + SAMPLE_INTERVAL_MILLIS);
+    }
+
+    public synchronized void addSample(ConnectionPoolSample sample) {
+        samples[sampleIndex] = sample;
+        sampleIndex = (sampleIndex + 1) % MAX_SAMPLE_COUNT;
+        if (sampleCount < MAX_SAMPLE_COUNT) {
+            sampleCount++;
+        }
+    }
+
+    /**
+     * 按时间正序获取采样
+     */
+    public synchronized List<ConnectionPoolSample> getSampleList() {
+        List<ConnectionPoolSample> sampleList = new ArrayList<>(sampleCount);
+        int start = (sampleIndex - sampleCount + MAX_SAMPLE_COUNT) % MAX_SAMPLE_COUNT;
+        for (int i = 0; i < sampleCount; i++) {
+            sampleList.add(samples[(start + i) % MAX_SAMPLE_COUNT]);
+        }
+        return sampleList;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import lombok.Getter;
+
+/**
+ * 连接池状态采样
+ *
+ * @author future0923
+ */
+@Getter
+public class ConnectionPoolSample {
+
+    /**
+     * 采样时间
+     */
+    private final long time;
+
+    /**
+     * 使用中的连接数
+     */
+    private final int active;
+
+    /**
+     * 空闲的连接数
+     */
+    private final int idle;
+
+    /**
+     * 等待获取连接的线程数
+     */
+    private final int waiting;
+
+    public ConnectionPoolSample(long time, int active, int idle, int waiting) {
+        this.time = time;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import io.github.future0923.debug.tools.base.hutool.core.map.WeakConcurrentMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 连接池获取连接统计，按数据源对象记录，数据源被回收后自动移除。
+ * <p>
+ * 清空时整体换下当前这一代统计，等待正在写入旧统计的线程结束后返回，不会丢失取快照和清空之间的记录
+ *
+ * @author future0923
+ */
+public class ConnectionPoolStatistics {
+
+    private static final AtomicReference<Generation> GENERATION = new AtomicReference<>(new Generation());
+
+    /**
+     * 记录一次获取连接，每个采样间隔读取一次连接池状态
+     *
+     * @param dataSource 数据源
+     * @param creator    数据源没有统计时创建
+     * @param micros     获取连接耗时(μs)
+     * @param sampler    读取连接池状态，参数为数据源和采样时间，连接池未初始化时返回null
+     * @return 统计
+     */
+    public static ConnectionPoolMetrics record(Object dataSource, Function<Object, ConnectionPoolMetrics> creator, long micros, BiFunction<Object, Long, ConnectionPoolSample> sampler) {
+        Generation generation = acquire();
+        try {
+            ConnectionPoolMetrics metrics = generation.metricsMap.get(dataSource);
+            if (metrics == null) {
+                metrics = generation.metricsMap.computeIfAbsent(dataSource, creator);
+            }
+            metrics.record(micros);
+            long now = System.currentTimeMillis();
+            if (metrics.tryStartSample(now)) {
+                ConnectionPoolSample sample = sampler.apply(dataSource, now);
+                if (sample != null) {
+                    metrics.addSample(sample);
+                }
+            }
+            return metrics;
+        } finally {
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 获取全部连接池的统计
+     *
+     * @param reset 是否同时清空，为 true 时换下当前这一代统计，等正在写入的线程结束后返回换下的统计
+     * @return 统计
+     */
+    public static List<ConnectionPoolMetrics> snapshot(boolean reset) {
+        Generation generation;
+        if (reset) {
+            generation = GENERATION.getAndSet(new Generation());
+            while (generation.writers.get() > 0) {
+                Thread.yield();
+            }
+        } else {
+            generation = GENERATION.get();
+        }
+        return new ArrayList<>(generation.metricsMap.values());
+    }
+
+    /**
+     * 获取当前这一代统计并登记为写入中，调用方写完后需要减少 {@link Generation#writers}。
+     * <p>
+     * 登记后再次确认没有被换下，换下的统计不会再有新的写入
+     */
+    private static Generation acquire() {
+        while (true) {
+            Generation generation = GENERATION.get();
+            generation.writers.incrementAndGet();
+            if (GENERATION.get() == generation) {
+                return generation;
+            }
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 一代统计，清空时整体替换
+     */
+    private static class Generation {
+
+        private final WeakConcurrentMap<Object, ConnectionPoolMetrics> metricsMap = new WeakConcurrentMap<>();
+
+        /**
+         * 正在写入的线程数
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+    }
+}
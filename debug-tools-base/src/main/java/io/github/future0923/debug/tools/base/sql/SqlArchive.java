@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * SQL归档格式和查询。
+ * <p>
+ * 每个分段由数据文件和索引文件组成：
+ * <ul>
+ *     <li>写入中的分段：{@code yyyy-MM-dd.sql}，纯文本</li>
+ *     <li>已关闭的分段：{@code yyyy-MM-dd-NNN.sql.gz}，按块压缩，每块是一个独立的gzip成员，可以从块的起始位置单独解压</li>
+ *     <li>索引：数据文件名加 {@code .idx}，文件头之后是定长记录（时间、耗时、指纹哈希、块位置、块内偏移、长度）</li>
+ * </ul>
+ * 查询时只扫描索引，命中的记录才读取数据文件
+ *
+ * @author future0923
+ */
+public class SqlArchive {
+
+    public static final String SEGMENT_SUFFIX = ".sql";
+
+    public static final String GZIP_SUFFIX = ".gz";
+
+    public static final String INDEX_SUFFIX = ".idx";
+
+    /**
+     * 索引文件头魔数
+     */
+    public static final int INDEX_MAGIC = 0x44545349;
+
+    /**
+     * 索引文件头长度：魔数 + 标志位
+     */
+    public static final int INDEX_HEADER_BYTES = 8;
+
+    /**
+     * 标志位：数据文件已按块压缩
+     */
+    public static final int FLAG_COMPRESSED = 1;
+
+    /**
+     * 索引记录长度
+     */
+    public static final int INDEX_RECORD_BYTES = 40;
+
+    /**
+     * 计算SQL指纹的64位哈希(FNV-1a)，指纹为null时返回0
+     */
+    public static long fingerprintHash(String fingerprint) {
+        if (fingerprint == null) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < fingerprint.length(); i++) {
+            hash ^= fingerprint.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 写入索引文件头
+     */
+    public static void putIndexHeader(ByteBuffer buffer, boolean compressed) {
+        buffer.putInt(INDEX_MAGIC);
+        buffer.putInt(compressed ? FLAG_COMPRESSED : 0);
+    }
+
+    /**
+     * 写入一条索引记录
+     *
+     * @param blockOffset 压缩块在数据文件中的位置，未压缩时为0
+     * @param offset      记录在块中的偏移，未压缩时为在数据文件中的位置
+     * @param length      记录长度
+     */
+    public static void putIndexRecord(ByteBuffer buffer, long time, long consume, long fingerprintHash, long blockOffset, int offset, int length) {
+        buffer.putLong(time);
+        buffer.putLong(consume);
+        buffer.putLong(fingerprintHash);
+        buffer.putLong(blockOffset);
+        buffer.putInt(offset);
+        buffer.putInt(length);
+    }
+
+    /**
+     * 查询归档目录中的SQL记录，按分段时间正序
+     *
+     * @param dir         归档目录
+     * @param startTime   开始时间(包含)，小于等于0时不限制
+     * @param endTime     结束时间(不包含)，小于等于0时不限制
+     * @param minConsume  最小耗时(ms)，用于筛选慢SQL
+     * @param fingerprint SQL指纹，为null时不限制
+     * @param limit       最多返回条数，小于等于0时不限制
+     * @return 记录
+     * @throws IOException 读取异常
+     */
+    public static List<SqlArchiveRecord> query(Path dir, long startTime, long endTime, long minConsume, String fingerprint, int limit) throws IOException {
+        List<SqlArchiveRecord> recordList = new ArrayList<>();
+        query(dir, startTime, endTime, minConsume, fingerprint, record -> {
+            recordList.add(record);
+            return limit <= 0 || recordList.size() < limit;
+        });
+        return recordList;
+    }
+
+    /**
+     * 查询归档目录中的SQL记录，按分段时间正序逐条交给消费者，不在内存中保留结果
+     *
+     * @param dir         归档目录
+     * @param startTime   开始时间(包含)，小于等于0时不限制
+     * @param endTime     结束时间(不包含)，小于等于0时不限制
+     * @param minConsume  最小耗时(ms)，用于筛选慢SQL
+     * @param fingerprint SQL指纹，为null时不限制
+     * @param consumer    返回false时停止查询
+     * @throws IOException 读取异常
+     */
+    public static void query(Path dir, long startTime, long endTime, long minConsume, String fingerprint, Predicate<SqlArchiveRecord> consumer) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Long hash = fingerprint == null ? null : fingerprintHash(fingerprint);
+        for (Path index : listIndexFiles(dir)) {
+            if (!mayContain(index, startTime, endTime)) {
+                continue;
+            }
+            boolean next;
+            try {
+                next = querySegment(index, startTime, endTime, minConsume, hash, consumer);
+            } catch (EOFException ignored) {
+                // 写入中的分段可能只写了半条索引
+                next = true;
+            }
+            if (!next) {
+                return;
+            }
+        }
+    }
+
+    private static List<Path> listIndexFiles(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            List<Path> indexList = stream.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX + INDEX_SUFFIX))
+                    .collect(Collectors.toList());
+            // 同一天中写入中的分段 yyyy-MM-dd.sql 排在已关闭的分段 yyyy-MM-dd-NNN.sql 之后
+            indexList.sort((a, b) -> segmentSortKey(a).compareTo(segmentSortKey(b)));
+            return indexList;
+        }
+    }
+
+    private static String segmentSortKey(Path index) {
+        String name = index.getFileName().toString();
+        String segment = name.substring(0, name.length() - SEGMENT_SUFFIX.length() - INDEX_SUFFIX.length());
+        return segment.length() == 10 ? segment + "-~" : segment;
+    }
+
+    /**
+     * 按文件名中的日期粗略判断分段是否在时间范围内
+     */
+    private static boolean mayContain(Path index, long startTime, long endTime) {
+        String name = index.getFileName().toString();
+        if (name.length() < 10) {
+            return true;
+        }
+        try {
+            long dayStart = LocalDate.parse(name.substring(0, 10)).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long dayEnd = dayStart + 24L * 60 * 60 * 1000;
+            return (startTime <= 0 || dayEnd > startTime) && (endTime <= 0 || dayStart < endTime);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * @return 消费者要求停止时返回false
+     */
+    private static boolean querySegment(Path index, long startTime, long endTime, long minConsume, Long hash, Predicate<SqlArchiveRecord> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index), 64 * 1024))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return true;
+            }
+            boolean compressed = (in.readInt() & FLAG_COMPRESSED) != 0;
+            String indexName = index.getFileName().toString();
+            Path data = index.resolveSibling(indexName.substring(0, indexName.length() - INDEX_SUFFIX.length()) + (compressed ? GZIP_SUFFIX : ""));
+            if (!Files.exists(data)) {
+                return true;
+            }
+            try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+                BlockReader blockReader = new BlockReader(channel);
+                while (true) {
+                    long time;
+                    try {
+                        time = in.readLong();
+                    } catch (EOFException e) {
+                        return true;
+                    }
+                    long consume = in.readLong();
+                    long fingerprintHash = in.readLong();
+                    long blockOffset = in.readLong();
+                    int offset = in.readInt();
+                    int length = in.readInt();
+                    if ((startTime > 0 && time < startTime) || (endTime > 0 && time >= endTime)
+                            || consume < minConsume || (hash != null && fingerprintHash != hash)) {
+                        continue;
+                    }
+                    SqlArchiveRecord record = new SqlArchiveRecord();
+                    record.setTime(time);
+                    record.setConsume(consume);
+                    record.setFingerprintHash(fingerprintHash);
+                    record.setText(compressed ? blockReader.read(blockOffset, offset, length) : readPlain(channel, offset, length));
+                    if (!consumer.test(record)) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    private static String readPlain(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解压并缓存最近读取的一个块，连续命中同一块的记录只解压一次
+     */
+    private static class BlockReader {
+
+        /**
+         * gzip成员头的固定部分长度
+         */
+        private static final int GZIP_HEADER_BYTES = 10;
+
+        private static final int GZIP_FLAG_HCRC = 2;
+
+        private static final int GZIP_FLAG_EXTRA = 4;
+
+        private static final int GZIP_FLAG_NAME = 8;
+
+        private static final int GZIP_FLAG_COMMENT = 16;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer input = ByteBuffer.allocate(8192);
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream(64 * 1024);
+
+        private long blockOffset = -1;
+
+        private byte[] block = new byte[0];
+
+        private BlockReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private String read(long blockOffset, int offset, int length) throws IOException {
+            if (this.blockOffset != blockOffset) {
+                block = inflate(skipHeader(blockOffset));
+                this.blockOffset = blockOffset;
+            }
+            int end = Math.min(block.length, offset + length);
+            return offset >= end ? "" : new String(block, offset, end - offset, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 跳过gzip成员头，返回压缩数据的起始位置
+         */
+        private long skipHeader(long position) throws IOException {
+            ByteBuffer header = readBytes(position, GZIP_HEADER_BYTES);
+            if ((header.get(0) & 0xff) != 0x1f || (header.get(1) & 0xff) != 0x8b || header.get(2) != 8) {
+                throw new IOException("Not in GZIP format at " + position);
+            }
+            int flags = header.get(3) & 0xff;
+            position += GZIP_HEADER_BYTES;
+            if ((flags & GZIP_FLAG_EXTRA) != 0) {
+                ByteBuffer extraLength = readBytes(position, 2);
+                position += 2 + ((extraLength.get(0) & 0xff) | (extraLength.get(1) & 0xff) << 8);
+            }
+            if ((flags & GZIP_FLAG_NAME) != 0) {
+                position = skipZeroTerminated(position);
+            }
+            if ((flags & GZIP_FLAG_COMMENT) != 0) {
+                position = skipZeroTerminated(position);
+            }
+            if ((flags & GZIP_FLAG_HCRC) != 0) {
+                position += 2;
+            }
+            return position;
+        }
+
+        private long skipZeroTerminated(long position) throws IOException {
+            while (true) {
+                ByteBuffer b = readBytes(position++, 1);
+                if (b.get(0) == 0) {
+                    return position;
+                }
+            }
+        }
+
+        private ByteBuffer readBytes(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return buffer;
+        }
+
+        /**
+         * 只解压一个gzip成员，解压结束即停止，不读取后面的成员
+         */
+        private byte[] inflate(long position) throws IOException {
+            Inflater inflater = new Inflater(true);
+            output.reset();
+            byte[] buffer = new byte[8192];
+            try {
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        ((Buffer) input).clear();
+                        int n = channel.read(input, position);
+                        if (n <= 0) {
+                            break;
+                        }
+                        position += n;
+                        inflater.setInput(input.array(), 0, n);
+                    }
+                    int n = inflater.inflate(buffer);
+                    if (n == 0 && inflater.needsDictionary()) {
+                        break;
+                    }
+                    output.write(buffer, 0, n);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            return output.toByteArray();
+        }
+    }
+}
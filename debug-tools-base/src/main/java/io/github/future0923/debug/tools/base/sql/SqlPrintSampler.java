@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SQL打印过滤配置，在生成SQL之前判断是否需要打印日志和写入文件。
+ * <p>
+ * 配置由agent参数初始化，运行时可以通过socket请求修改
+ *
+ * @author future0923
+ */
+public class SqlPrintSampler {
+
+    /**
+     * 慢SQL阈值(ms)，耗时小于该值的SQL不打印，0表示全部打印
+     */
+    private static volatile long slowThresholdMillis = 0;
+
+    /**
+     * 采样率，取值 0~1，1表示全部打印
+     */
+    private static volatile double sampleRate = 1;
+
+    public static long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    public static double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 设置慢SQL阈值，为null时不修改
+     */
+    public static void setSlowThresholdMillis(Long threshold) {
+        if (threshold != null) {
+            slowThresholdMillis = Math.max(threshold, 0);
+        }
+    }
+
+    /**
+     * 设置采样率，为null时不修改，超出范围时取边界值
+     */
+    public static void setSampleRate(Double rate) {
+        if (rate != null && !rate.isNaN()) {
+            sampleRate = Math.min(Math.max(rate, 0), 1);
+        }
+    }
+
+    /**
+     * 设置采样率，无法解析时不修改
+     *
+     * @param rate 如 0.1
+     */
+    public static void setSampleRate(String rate) {
+        if (rate == null || rate.trim().isEmpty()) {
+            return;
+        }
+        try {
+            setSampleRate(Double.valueOf(rate.trim()));
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    /**
+     * 本次执行的SQL是否需要打印，先判断慢SQL阈值再采样
+     *
+     * @param consume 耗时(ms)
+     * @return 需要打印返回true
+     */
+    public static boolean shouldPrint(long consume) {
+        if (consume < slowThresholdMillis) {
+            return false;
+        }
+        double rate = sampleRate;
+        if (rate >= 1) {
+            return true;
+        }
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SQL执行统计，按SQL指纹聚合次数、耗时、行数和耗时分布。
+ * <p>
+ * 指纹数量达到上限后，新的指纹统一计入 {@link #OTHER_FINGERPRINT}，不做淘汰。
+ * 清空时整体换下当前这一代统计，等待正在写入旧统计的线程结束后返回，不会丢失取快照和清空之间的记录
+ *
+ * @author future0923
+ */
+public class SqlStatistics {
+
+    /**
+     * 超出上限的指纹
+     */
+    public static final String OTHER_FINGERPRINT = "<other>";
+
+    /**
+     * 最多统计的指纹数量
+     */
+    private static final int MAX_FINGERPRINT_COUNT = 1000;
+
+    /**
+     * SQL示例最大长度
+     */
+    private static final int SAMPLE_SQL_MAX_LENGTH = 2000;
+
+    private static final AtomicReference<Generation> GENERATION = new AtomicReference<>(new Generation());
+
+    /**
+     * 记录一次SQL执行
+     *
+     * @param dbType  数据库类型
+     * @param sql     执行的SQL
+     * @param consume 耗时(ms)
+     * @param rows    行数，小于0表示未知
+     * @return SQL指纹
+     */
+    public static String record(String dbType, String sql, long consume, long rows) {
+        return record(dbType, SqlCompressor.fingerprint(sql), sql, consume, rows);
+    }
+
+    /**
+     * 使用已经计算好的指纹记录一次SQL执行
+     *
+     * @param dbType      数据库类型
+     * @param fingerprint SQL指纹
+     * @param sampleSql   SQL示例，首次出现该指纹时保存
+     * @param consume     耗时(ms)
+     * @param rows        行数，小于0表示未知
+     * @return SQL指纹
+     */
+    public static String record(String dbType, String fingerprint, String sampleSql, long consume, long rows) {
+        if (fingerprint == null) {
+            return null;
+        }
+        Generation generation = acquire();
+        try {
+            Map<String, SqlStatisticsItem> itemMap = generation.itemMap;
+            SqlStatisticsItem item = itemMap.get(fingerprint);
+            if (item == null) {
+                if (itemMap.size() >= MAX_FINGERPRINT_COUNT) {
+                    item = itemMap.computeIfAbsent(OTHER_FINGERPRINT, k -> new SqlStatisticsItem(OTHER_FINGERPRINT, dbType, null));
+                } else {
+                    String sample = sampleSql != null && sampleSql.length() > SAMPLE_SQL_MAX_LENGTH ? sampleSql.substring(0, SAMPLE_SQL_MAX_LENGTH) : sampleSql;
+                    item = itemMap.computeIfAbsent(fingerprint, k -> new SqlStatisticsItem(fingerprint, dbType, sample));
+                }
+            }
+            item.record(consume, rows);
+        } finally {
+            generation.writers.decrementAndGet();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 记录查询SQL读取结果集的行数，执行次数和耗时在执行时已经记录
+     *
+     * @param fingerprint SQL指纹
+     * @param rows        读取的行数
+     */
+    public static void recordRows(String fingerprint, long rows) {
+        if (fingerprint == null) {
+            return;
+        }
+        Generation generation = acquire();
+        try {
+            SqlStatisticsItem item = generation.itemMap.get(fingerprint);
+            if (item == null) {
+                item = generation.itemMap.get(OTHER_FINGERPRINT);
+            }
+            if (item != null) {
+                item.recordRows(rows);
+            }
+        } finally {
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 获取统计快照，按总耗时倒序
+     *
+     * @param limit 最多返回条数，小于等于0时返回全部
+     * @param reset 是否同时清空，为 true 时换下当前这一代统计，等正在写入的线程结束后返回换下的统计
+     * @return 统计项
+     */
+    public static List<SqlStatisticsItem> snapshot(int limit, boolean reset) {
+        Generation generation;
+        if (reset) {
+            generation = GENERATION.getAndSet(new Generation());
+            while (generation.writers.get() > 0) {
+                Thread.yield();
+            }
+        } else {
+            generation = GENERATION.get();
+        }
+        List<SqlStatisticsItem> itemList = new ArrayList<>(generation.itemMap.values());
+        itemList.sort(Comparator.comparingLong((SqlStatisticsItem item) -> item.getTotalMillis().sum()).reversed());
+        if (limit > 0 && itemList.size() > limit) {
+            return new ArrayList<>(itemList.subList(0, limit));
+        }
+        return itemList;
+    }
+
+    /**
+     * 获取当前这一代统计并登记为写入中，调用方写完后需要减少 {@link Generation#writers}。
+     * <p>
+     * 登记后再次确认没有被换下，换下的统计不会再有新的写入
+     */
+    private static Generation acquire() {
+        while (true) {
+            Generation generation = GENERATION.get();
+            generation.writers.incrementAndGet();
+            if (GENERATION.get() == generation) {
+                return generation;
+            }
+            generation.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 一代统计，清空时整体替换
+     */
+    private static class Generation {
+
+        private final Map<String, SqlStatisticsItem> itemMap = new ConcurrentHashMap<>();
+
+        /**
+         * 正在写入的线程数
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+    }
+}
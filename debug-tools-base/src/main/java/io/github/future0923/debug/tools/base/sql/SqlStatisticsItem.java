@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.sql;
+
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个SQL指纹的执行统计
+ *
+ * @author future0923
+ */
+@Getter
+public class SqlStatisticsItem {
+
+    /**
+     * SQL指纹
+     */
+    private final String fingerprint;
+
+    /**
+     * 数据库类型
+     */
+    private final String dbType;
+
+    /**
+     * 首次执行的SQL示例
+     */
+    private final String sampleSql;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalMillis = new LongAdder();
+
+    private final LongAccumulator maxMillis = new LongAccumulator(Long::max, 0);
+
+    /**
+     * 影响或返回的行数，驱动未返回行数时不累加
+     */
+    private final LongAdder rows = new LongAdder();
+
+    private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+    public SqlStatisticsItem(String fingerprint, String dbType, String sampleSql) {
+        this.fingerprint = fingerprint;
+        this.dbType = dbType;
+        this.sampleSql = sampleSql;
+    }
+
+    /**
+     * 记录一次执行
+     *
+     * @param consume 耗时(ms)
+     * @param rows    行数，小于0表示未知
+     */
+    public void record(long consume, long rows) {
+        count.increment();
+        totalMillis.add(consume);
+        maxMillis.accumulate(consume);
+        histogram.record(consume);
+        recordRows(rows);
+    }
+
+    /**
+     * 累加行数
+     *
+     * @param rows 行数，小于0表示未知
+     */
+    public void recordRows(long rows) {
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数线性直方图（HDR风格），每个2的幂区间再线性划分为 {@link #SUB_BUCKET_COUNT} 个桶，相对误差不超过 1/8。
+ * <p>
+ * 桶数量固定，记录时只做位运算和一次原子自增，不分配内存
+ * <p>
+ * 开始只有一个桶数组，记录时出现竞争才按线程分成多个桶数组（不超过CPU核数），避免多线程同时自增同一个桶，读取时把各个桶数组相加
+ *
+ * @author future0923
+ */
+public class LogLinearHistogram {
+
+    /**
+     * 每个2的幂区间的线性桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /**
+     * 覆盖 0 ~ Long.MAX_VALUE
+     */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    /**
+     * 最多的桶数组数量，不超过CPU核数的2的幂
+     */
+    private static final int MAX_STRIPES = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 64)));
+
+    /**
+     * 桶数组，长度为2的幂，只会增加
+     */
+    private volatile AtomicLongArray[] stripes = {new AtomicLongArray(BUCKET_COUNT)};
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值，小于0按0处理
+     */
+    public void record(long value) {
+        int index = bucketIndex(Math.max(value, 0));
+        AtomicLongArray[] stripes = this.stripes;
+        AtomicLongArray stripe = stripes[stripeIndex(stripes.length)];
+        long count = stripe.get(index);
+        if (!stripe.compareAndSet(index, count, count + 1)) {
+            stripe.incrementAndGet(index);
+            if (stripes.length < MAX_STRIPES) {
+                grow(stripes);
+            }
+        }
+    }
+
+    /**
+     * 获取百分位值，返回所在桶的上界
+     *
+     * @param percentile 百分位，如 0.99
+     * @param total      总记录数
+     * @return 百分位值
+     */
+    public long getValueAtPercentile(double percentile, long total) {
+        return getValueAtPercentile(snapshot(false), percentile, total);
+    }
+
+    /**
+     * 获取各个桶的计数
+     *
+     * @param reset 是否同时清空，每个桶使用 getAndSet 取值并清零，取值期间新增的记录不会丢失
+     * @return 下标为桶位置的计数数组
+     */
+    public long[] snapshot(boolean reset) {
+        long[] counts = new long[BUCKET_COUNT];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += reset ? stripe.getAndSet(i, 0) : stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 从 {@link #snapshot(boolean)} 的结果中获取百分位值，返回所在桶的上界
+     *
+     * @param counts     桶计数
+     * @param percentile 百分位，如 0.99
+     * @param total      总记录数
+     * @return 百分位值
+     */
+    public static long getValueAtPercentile(long[] counts, double percentile, long total) {
+        if (total <= 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= target) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+
+    /**
+     * 清空
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * 桶数组数量翻倍，已有的桶数组保留，其它线程同时扩容时只有一个生效
+     */
+    private synchronized void grow(AtomicLongArray[] current) {
+        if (stripes != current) {
+            return;
+        }
+        AtomicLongArray[] grown = new AtomicLongArray[current.length << 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = current.length; i < grown.length; i++) {
+            grown[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+        stripes = grown;
+    }
+
+    /**
+     * 按线程选择桶数组
+     */
+    private static int stripeIndex(int length) {
+        if (length == 1) {
+            return 0;
+        }
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (length - 1);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & SUB_BUCKET_MASK;
+        return (shift + 1) * SUB_BUCKET_COUNT + sub;
+    }
+
+    /**
+     * 桶的上界
+     *
+     * @param index 桶位置
+     * @return 桶内的最大值
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long sub = index & SUB_BUCKET_MASK;
+        long lower = (SUB_BUCKET_COUNT + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
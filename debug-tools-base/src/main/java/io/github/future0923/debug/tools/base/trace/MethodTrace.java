@@ -52,6 +52,16 @@ public class MethodTrace {
      */
     private static final ThreadLocal<Boolean> traceSqlStatus = ThreadLocal.withInitial(() -> false);
 
+    /**
+     * 跨线程任务追踪状态
+     */
+    private static final ThreadLocal<Boolean> traceAsyncStatus = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * 入参、返回值、异常捕获配置，为null时不捕获
+     */
+    private static final ThreadLocal<MethodTraceCaptureOptions> captureOptions = new ThreadLocal<>();
+
     /**
      * 追踪方法是否正在重新定义class
      */
@@ -78,6 +88,32 @@ public class MethodTrace {
         enter(MethodTraceType.SQL, null, null, null, null, sql);
     }
 
+    /**
+     * SQL入栈，出栈时按指纹记录到调用方法上，用于发现N+1查询
+     *
+     * @param sql         SQL
+     * @param fingerprint SQL指纹
+     */
+    public static void enterSql(String sql, String fingerprint) {
+        enterSql(sql, fingerprint, null);
+    }
+
+    /**
+     * SQL入栈，出栈时按指纹记录到调用方法上，用于发现N+1查询
+     *
+     * @param sql               SQL
+     * @param fingerprint       SQL指纹
+     * @param acquireWaitMicros 从连接池获取连接的耗时(μs)，没有时为null
+     */
+    public static void enterSql(String sql, String fingerprint, Long acquireWaitMicros) {
+        enter(MethodTraceType.SQL, null, null, null, null, sql);
+        MethodTreeNode node = stack.get().peek();
+        if (node != null) {
+            node.setSqlFingerprint(fingerprint);
+            node.setAcquireWaitMicros(acquireWaitMicros);
+        }
+    }
+
     /**
      * 入栈
      */
@@ -99,6 +135,110 @@ public class MethodTrace {
         stack.get().push(node);
     }
 
+    /**
+     * 记录当前方法的入参，未开启捕获时不处理
+     *
+     * @param args 入参
+     */
+    public static void captureArgs(Object[] args) {
+        MethodTraceCaptureOptions options = captureOptions.get();
+        if (options == null || !options.isCaptureParams() || args == null || args.length == 0) {
+            return;
+        }
+        MethodTreeNode node = stack.get().peek();
+        if (node == null) {
+            return;
+        }
+        List<String> argList = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            argList.add(options.snapshot(arg));
+        }
+        node.setArgs(argList);
+    }
+
+    /**
+     * 方法出栈，并记录返回值和异常
+     *
+     * @param returnValue 返回值
+     * @param throwable   抛出的异常，正常返回时为null
+     */
+    public static void exit(Object returnValue, Throwable throwable) {
+        MethodTraceCaptureOptions options = captureOptions.get();
+        if (options != null) {
+            MethodTreeNode node = stack.get().peek();
+            if (node != null) {
+                if (throwable != null) {
+                    if (options.isCaptureThrowable()) {
+                        node.setThrowableClassName(throwable.getClass().getName());
+                        node.setThrowableMessage(options.snapshot(throwable.getMessage()));
+                    }
+                } else if (options.isCaptureParams()) {
+                    node.setReturnValue(options.snapshot(returnValue));
+                }
+            }
+        }
+        exit();
+    }
+
+    /**
+     * 捕获当前线程的追踪上下文，用于任务提交到其他线程执行时延续追踪
+     *
+     * @return 当前没有正在追踪的方法或本次追踪未开启跨线程追踪时返回null
+     */
+    public static MethodTraceContext capture() {
+        if (!traceAsyncStatus.get()) {
+            return null;
+        }
+        MethodTreeNode parent = stack.get().peek();
+        if (parent == null) {
+            return null;
+        }
+        return new MethodTraceContext(parent, traceSqlStatus.get(), traceAsyncStatus.get(), captureOptions.get());
+    }
+
+    /**
+     * 在执行任务的线程中恢复追踪上下文，创建挂载在提交线程节点下的异步节点
+     *
+     * @param context    提交任务时捕获的上下文
+     * @param threadName 执行任务的线程名
+     * @return 执行线程原来的上下文，用于 {@link #exitAsync(MethodTraceContext, MethodTraceContext)} 还原
+     */
+    public static MethodTraceContext enterAsync(MethodTraceContext context, String threadName) {
+        MethodTreeNode node = new MethodTreeNode();
+        node.setStart(System.currentTimeMillis());
+        node.setTraceType(MethodTraceType.ASYNC);
+        node.setThreadName(threadName);
+        context.getParent().addAsyncChild(node);
+        stack.get().push(node);
+        MethodTraceContext orgContext = new MethodTraceContext(null, traceSqlStatus.get(), traceAsyncStatus.get(), captureOptions.get());
+        traceSqlStatus.set(context.getTraceSqlStatus());
+        traceAsyncStatus.set(context.getTraceAsyncStatus());
+        captureOptions.set(context.getCaptureOptions());
+        return orgContext;
+    }
+
+    /**
+     * 异步节点出栈，节点已经挂载在提交线程的树上，不加入当前线程的结果列表。
+     * 出栈后子树不再修改，提交线程转换树结构时才会读取
+     *
+     * @param context    提交任务时捕获的上下文
+     * @param orgContext 执行线程原来的上下文
+     */
+    public static void exitAsync(MethodTraceContext context, MethodTraceContext orgContext) {
+        Deque<MethodTreeNode> deque = stack.get();
+        MethodTreeNode node = deque.pop();
+        context.getParent().finishAsyncChild(node, System.currentTimeMillis());
+        traceSqlStatus.set(orgContext.getTraceSqlStatus());
+        traceAsyncStatus.set(orgContext.getTraceAsyncStatus());
+        captureOptions.set(orgContext.getCaptureOptions());
+        if (deque.isEmpty()) {
+            stack.remove();
+            traceSqlStatus.remove();
+            traceAsyncStatus.remove();
+            captureOptions.remove();
+        }
+    }
+
     /**
      * 出栈
      */
@@ -118,6 +258,9 @@ public class MethodTrace {
     public static void exit(long duration) {
         MethodTreeNode node = stack.get().pop();
         node.setDuration(duration);
+        if (node.getSqlFingerprint() != null) {
+            addSqlToCaller(node);
+        }
         // 如果是顶层方法，构建 MethodTree 树结构并加入结果列表
         if (stack.get().isEmpty()) {
             MethodTreeNode tree = node.toTree();
@@ -125,6 +268,45 @@ public class MethodTrace {
         }
     }
 
+    /**
+     * SQL出栈
+     *
+     * @param duration 执行耗时
+     * @return SQL节点，用于查询SQL读取完结果集后通过 {@link #finishSqlFetch(MethodTreeNode, long, long)} 补充读取信息
+     */
+    public static MethodTreeNode exitSql(long duration) {
+        MethodTreeNode node = stack.get().peek();
+        exit(duration);
+        return node;
+    }
+
+    /**
+     * 记录查询SQL读取结果集的行数和耗时，耗时计入SQL节点。方法已经执行完转换成树结构后不再生效
+     *
+     * @param node          {@link #exitSql(long)} 返回的节点
+     * @param fetchRows     读取的行数
+     * @param fetchDuration 读取结果集的耗时
+     */
+    public static void finishSqlFetch(MethodTreeNode node, long fetchRows, long fetchDuration) {
+        node.setFetchRows(fetchRows);
+        node.setFetchDuration(fetchDuration);
+        if (node.getDuration() != null) {
+            node.setDuration(node.getDuration() + fetchDuration);
+        }
+    }
+
+    /**
+     * 将SQL记录到调用的方法上，跳过MyBatis节点，循环调用Mapper产生的SQL会记录到同一个方法上
+     */
+    private static void addSqlToCaller(MethodTreeNode sqlNode) {
+        for (MethodTreeNode node : stack.get()) {
+            if (node.getTraceType() != MethodTraceType.MYBATIS && node.getTraceType() != MethodTraceType.SQL) {
+                node.addSql(sqlNode);
+                return;
+            }
+        }
+    }
+
     /**
      * 获取完整结果
      */
@@ -141,6 +323,8 @@ public class MethodTrace {
         stack.remove();
         resultList.remove();
         traceSqlStatus.remove();
+        traceAsyncStatus.remove();
+        captureOptions.remove();
     }
 
     /**
@@ -150,6 +334,20 @@ public class MethodTrace {
         traceSqlStatus.set(BooleanUtil.isTrue(sql));
     }
 
+    /**
+     * 设置当前执行的跨线程任务追踪状态
+     */
+    public static void setTraceAsyncStatus(Boolean async) {
+        traceAsyncStatus.set(BooleanUtil.isTrue(async));
+    }
+
+    /**
+     * 设置当前执行的入参、返回值、异常捕获配置
+     */
+    public static void setCaptureOptions(MethodTraceCaptureOptions options) {
+        captureOptions.set(options);
+    }
+
     /**
      * 获取当前执行的追踪SQL状态
      */
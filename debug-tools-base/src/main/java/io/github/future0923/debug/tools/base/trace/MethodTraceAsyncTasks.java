@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+import io.github.future0923.debug.tools.base.hutool.core.map.WeakConcurrentMap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 跨线程任务的追踪上下文。
+ * <p>
+ * 提交任务时按任务对象记录提交线程的上下文，执行线程在任务执行前后恢复和还原，提交到队列中的任务对象不做替换，
+ * 所以 {@code submit} 返回的 {@code Future}、{@code shutdownNow}、{@code remove} 和拒绝策略拿到的都是原任务
+ *
+ * @author future0923
+ */
+public class MethodTraceAsyncTasks {
+
+    /**
+     * 已提交未执行的任务，任务被丢弃后自动移除
+     */
+    private static final WeakConcurrentMap<Object, MethodTraceContext> TASK_CONTEXT_MAP = new WeakConcurrentMap<>();
+
+    /**
+     * 当前线程正在执行的任务，ForkJoin在等待时会在当前线程执行其他任务，所以是栈
+     */
+    private static final ThreadLocal<Deque<RunningTask>> RUNNING_TASKS = new ThreadLocal<>();
+
+    /**
+     * 所有线程中正在执行的已恢复上下文的任务数
+     */
+    private static final AtomicInteger RUNNING_COUNT = new AtomicInteger();
+
+    /**
+     * 正在执行的任务全部结束时回调
+     */
+    private static volatile Runnable idleListener;
+
+    /**
+     * 提交任务时记录当前线程的追踪上下文，当前线程没有正在追踪的方法时不处理
+     *
+     * @param task 任务
+     */
+    public static void capture(Object task) {
+        if (task == null) {
+            return;
+        }
+        MethodTraceContext context = MethodTrace.capture();
+        if (context != null) {
+            TASK_CONTEXT_MAP.put(task, context);
+        }
+    }
+
+    /**
+     * 提交到ForkJoinPool的任务，{@link ForkJoinTask} 直接入队所以按任务记录上下文，
+     * 其余任务会被ForkJoinPool再包装一层，原任务不会暴露出去，直接包装为 {@link MethodTraceRunnable}
+     *
+     * @param task 任务
+     * @return 提交的任务
+     */
+    public static Object wrapForkJoin(Object task) {
+        if (task instanceof ForkJoinTask) {
+            capture(task);
+            return task;
+        }
+        if (task instanceof Runnable) {
+            return MethodTraceRunnable.wrap((Runnable) task);
+        }
+        return task;
+    }
+
+    /**
+     * 任务执行前恢复提交线程的追踪上下文
+     *
+     * @param task 任务
+     */
+    public static void beforeExecute(Object task) {
+        if (task == null) {
+            return;
+        }
+        MethodTraceContext context = TASK_CONTEXT_MAP.remove(task);
+        if (context == null) {
+            return;
+        }
+        MethodTraceContext orgContext = MethodTrace.enterAsync(context, Thread.currentThread().getName());
+        Deque<RunningTask> deque = RUNNING_TASKS.get();
+        if (deque == null) {
+            deque = new ArrayDeque<>();
+            RUNNING_TASKS.set(deque);
+        }
+        deque.push(new RunningTask(task, context, orgContext));
+        RUNNING_COUNT.incrementAndGet();
+    }
+
+    /**
+     * 任务执行后还原执行线程的追踪上下文。
+     * <p>
+     * 栈顶不是该任务时说明内层任务没有执行到这里（如线程池子类的 afterExecute 没有调用父类方法），一并出栈
+     *
+     * @param task 任务
+     */
+    public static void afterExecute(Object task) {
+        Deque<RunningTask> deque = RUNNING_TASKS.get();
+        if (deque == null || task == null) {
+            return;
+        }
+        boolean found = false;
+        for (Iterator<RunningTask> iterator = deque.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().task == task) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            return;
+        }
+        RunningTask runningTask;
+        do {
+            runningTask = deque.pop();
+            MethodTrace.exitAsync(runningTask.context, runningTask.orgContext);
+            if (RUNNING_COUNT.decrementAndGet() == 0) {
+                Runnable listener = idleListener;
+                if (listener != null) {
+                    listener.run();
+                }
+            }
+        } while (runningTask.task != task);
+        if (deque.isEmpty()) {
+            RUNNING_TASKS.remove();
+        }
+    }
+
+    /**
+     * 正在执行的已恢复上下文的任务数
+     */
+    public static int getRunningCount() {
+        return RUNNING_COUNT.get();
+    }
+
+    /**
+     * 设置正在执行的任务全部结束时的回调，回调在执行任务的线程中调用
+     */
+    public static void setIdleListener(Runnable listener) {
+        idleListener = listener;
+    }
+
+    /**
+     * 清空已提交未执行任务的上下文
+     */
+    public static void clear() {
+        TASK_CONTEXT_MAP.clear();
+    }
+
+    private static class RunningTask {
+
+        private final Object task;
+
+        private final MethodTraceContext context;
+
+        private final MethodTraceContext orgContext;
+
+        private RunningTask(Object task, MethodTraceContext context, MethodTraceContext orgContext) {
+            this.task = task;
+            this.context = context;
+            this.orgContext = orgContext;
+        }
+    }
+}
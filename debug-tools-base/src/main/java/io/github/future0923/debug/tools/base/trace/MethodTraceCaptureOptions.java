@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+import lombok.Getter;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 追踪时捕获入参、返回值、异常的配置。
+ * <p>
+ * 捕获的值转为有长度上限的字符串保存在节点中，同一次追踪（包括跨线程的任务）共享一个字节预算，
+ * 预算用完后不再捕获，避免大对象撑爆内存。
+ * <p>
+ * JDK的集合、Map和数组逐个元素转换，达到长度上限后停止，不会先生成完整的字符串再截断；
+ * 非JDK的集合可能是延迟加载的代理，遍历会触发加载，只记录类型
+ *
+ * @author future0923
+ */
+public class MethodTraceCaptureOptions {
+
+    /**
+     * 超出预算后的占位
+     */
+    private static final String BUDGET_EXCEEDED = "<budget exceeded>";
+
+    /**
+     * 截断后的后缀
+     */
+    private static final String TRUNCATED_SUFFIX = "...";
+
+    /**
+     * 集合、数组嵌套转换的最大深度
+     */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * 是否捕获异常
+     */
+    @Getter
+    private final boolean captureThrowable;
+
+    /**
+     * 是否捕获入参和返回值
+     */
+    @Getter
+    private final boolean captureParams;
+
+    /**
+     * 单个值的最大字符数
+     */
+    private final int maxValueLength;
+
+    /**
+     * 本次追踪剩余的字节预算
+     */
+    private final AtomicLong remainingBytes;
+
+    public MethodTraceCaptureOptions(boolean captureThrowable, boolean captureParams, int maxValueLength, long budgetBytes) {
+        this.captureThrowable = captureThrowable;
+        this.captureParams = captureParams;
+        this.maxValueLength = Math.max(maxValueLength, 0);
+        this.remainingBytes = new AtomicLong(budgetBytes);
+    }
+
+    /**
+     * 将值转为有长度上限的字符串，并扣减预算
+     *
+     * @param value 值
+     * @return 字符串快照
+     */
+    public String snapshot(Object value) {
+        if (remainingBytes.get() <= 0) {
+            return BUDGET_EXCEEDED;
+        }
+        String str;
+        try {
+            StringBuilder sb = new StringBuilder();
+            str = append(sb, value, 0) ? sb.toString() : sb.append(TRUNCATED_SUFFIX).toString();
+        } catch (Throwable e) {
+            str = "<" + value.getClass().getName() + " toString error: " + e.getClass().getName() + ">";
+        }
+        // 按UTF-16计算占用
+        if (remainingBytes.addAndGet(-2L * str.length()) < 0) {
+            return BUDGET_EXCEEDED;
+        }
+        return str;
+    }
+
+    /**
+     * 追加值
+     *
+     * @return 达到长度上限时返回false，调用方不再继续追加
+     */
+    private boolean append(StringBuilder sb, Object value, int depth) {
+        if (value instanceof CharSequence) {
+            return appendText(sb, (CharSequence) value);
+        }
+        if (value == null) {
+            return appendText(sb, "null");
+        }
+        Class<?> clazz = value.getClass();
+        if (clazz.isArray()) {
+            if (depth >= MAX_DEPTH) {
+                return appendText(sb, clazz.getComponentType().getName() + "[" + Array.getLength(value) + "]");
+            }
+            return appendArray(sb, value, depth);
+        }
+        if (value instanceof Collection || value instanceof Map) {
+            if (clazz.getClassLoader() != null || depth >= MAX_DEPTH) {
+                return appendText(sb, clazz.getName() + "@" + Integer.toHexString(System.identityHashCode(value)));
+            }
+            if (value instanceof Map) {
+                return appendMap(sb, (Map<?, ?>) value, depth);
+            }
+            return appendCollection(sb, (Collection<?>) value, depth);
+        }
+        return appendText(sb, value.toString());
+    }
+
+    private boolean appendArray(StringBuilder sb, Object array, int depth) {
+        if (!appendText(sb, "[")) {
+            return false;
+        }
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (i > 0 && !appendText(sb, ", ")) {
+                return false;
+            }
+            if (!append(sb, Array.get(array, i), depth + 1)) {
+                return false;
+            }
+        }
+        return appendText(sb, "]");
+    }
+
+    private boolean appendCollection(StringBuilder sb, Collection<?> collection, int depth) {
+        if (!appendText(sb, "[")) {
+            return false;
+        }
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            if (!append(sb, element == collection ? "(this Collection)" : element, depth + 1)) {
+                return false;
+            }
+            if (iterator.hasNext() && !appendText(sb, ", ")) {
+                return false;
+            }
+        }
+        return appendText(sb, "]");
+    }
+
+    private boolean appendMap(StringBuilder sb, Map<?, ?> map, int depth) {
+        if (!appendText(sb, "{")) {
+            return false;
+        }
+        Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<?, ?> entry = iterator.next();
+            if (!append(sb, entry.getKey() == map ? "(this Map)" : entry.getKey(), depth + 1) || !appendText(sb, "=")) {
+                return false;
+            }
+            if (!append(sb, entry.getValue() == map ? "(this Map)" : entry.getValue(), depth + 1)) {
+                return false;
+            }
+            if (iterator.hasNext() && !appendText(sb, ", ")) {
+                return false;
+            }
+        }
+        return appendText(sb, "}");
+    }
+
+    /**
+     * 追加文本，超出长度上限时截断，不拆开代理对
+     *
+     * @return 达到长度上限时返回false
+     */
+    private boolean appendText(StringBuilder sb, CharSequence text) {
+        int remaining = maxValueLength - sb.length();
+        if (text.length() <= remaining) {
+            sb.append(text);
+            return true;
+        }
+        int end = remaining;
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        sb.append(text, 0, end);
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+import lombok.Getter;
+
+/**
+ * 跨线程传递的追踪上下文
+ *
+ * @author future0923
+ */
+@Getter
+public class MethodTraceContext {
+
+    /**
+     * 提交任务时正在执行的方法节点，保存执行线程原来的上下文时为null
+     */
+    private final MethodTreeNode parent;
+
+    /**
+     * 提交任务时的SQL追踪状态
+     */
+    private final Boolean traceSqlStatus;
+
+    /**
+     * 提交任务时的跨线程任务追踪状态
+     */
+    private final Boolean traceAsyncStatus;
+
+    /**
+     * 提交任务时的捕获配置，与提交线程共享字节预算
+     */
+    private final MethodTraceCaptureOptions captureOptions;
+
+    public MethodTraceContext(MethodTreeNode parent, Boolean traceSqlStatus, Boolean traceAsyncStatus, MethodTraceCaptureOptions captureOptions) {
+        this.parent = parent;
+        this.traceSqlStatus = traceSqlStatus;
+        this.traceAsyncStatus = traceAsyncStatus;
+        this.captureOptions = captureOptions;
+    }
+}
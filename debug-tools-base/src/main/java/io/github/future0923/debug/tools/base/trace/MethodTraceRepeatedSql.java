@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+import lombok.Data;
+
+/**
+ * 同一方法中重复执行的SQL（N+1查询）
+ *
+ * @author future0923
+ */
+@Data
+public class MethodTraceRepeatedSql {
+
+    /**
+     * SQL指纹
+     */
+    private String fingerprint;
+
+    /**
+     * 第一次执行的SQL
+     */
+    private String sql;
+
+    /**
+     * 执行次数
+     */
+    private int count;
+
+    /**
+     * 累计耗时
+     */
+    private long duration;
+}
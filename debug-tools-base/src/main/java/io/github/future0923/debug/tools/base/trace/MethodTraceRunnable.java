@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.base.trace;
+
+/**
+ * 携带追踪上下文的任务，在执行线程中把任务内的调用挂载到提交线程的追踪树上
+ *
+ * @author future0923
+ */
+public class MethodTraceRunnable implements Runnable {
+
+    private final Runnable delegate;
+
+    private final MethodTraceContext context;
+
+    private MethodTraceRunnable(Runnable delegate, MethodTraceContext context) {
+        this.delegate = delegate;
+        this.context = context;
+    }
+
+    /**
+     * 包装任务，当前线程没有正在追踪的方法时原样返回
+     *
+     * @param runnable 任务
+     * @return 包装后的任务
+     */
+    public static Runnable wrap(Runnable runnable) {
+        if (runnable == null || runnable instanceof MethodTraceRunnable) {
+            return runnable;
+        }
+        MethodTraceContext context = MethodTrace.capture();
+        if (context == null) {
+            return runnable;
+        }
+        return new MethodTraceRunnable(runnable, context);
+    }
+
+    @Override
+    public void run() {
+        MethodTraceContext orgContext = MethodTrace.enterAsync(context, Thread.currentThread().getName());
+        try {
+            delegate.run();
+        } finally {
+            MethodTrace.exitAsync(context, orgContext);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -24,4 +24,5 @@ public enum MethodTraceType {
     METHOD,
     MYBATIS,
     SQL,
+    ASYNC,
 }
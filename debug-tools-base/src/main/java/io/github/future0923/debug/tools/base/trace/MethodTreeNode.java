@@ -19,7 +19,10 @@ package io.github.future0923.debug.tools.base.trace;
 import lombok.Data;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 方法树节点
@@ -29,6 +32,16 @@ import java.util.List;
 @Data
 public class MethodTreeNode {
 
+    /**
+     * 默认的N+1查询阈值
+     */
+    public static final int DEFAULT_REPEATED_SQL_THRESHOLD = 3;
+
+    /**
+     * 同一方法中相同指纹的SQL执行次数达到该值时视为N+1查询
+     */
+    private static volatile int repeatedSqlThreshold = DEFAULT_REPEATED_SQL_THRESHOLD;
+
     /**
      * 追踪类型
      */
@@ -59,6 +72,56 @@ public class MethodTreeNode {
      */
     private String sql;
 
+    /**
+     * SQL指纹，用于统计重复执行的SQL
+     */
+    private transient String sqlFingerprint;
+
+    /**
+     * 查询SQL读取结果集的行数
+     */
+    private Long fetchRows;
+
+    /**
+     * 查询SQL读取结果集的耗时
+     */
+    private Long fetchDuration;
+
+    /**
+     * 执行SQL前从连接池获取连接的耗时(μs)
+     */
+    private Long acquireWaitMicros;
+
+    /**
+     * 执行线程名称，只有跨线程的 {@link MethodTraceType#ASYNC} 节点有值
+     */
+    private String threadName;
+
+    /**
+     * 入参快照
+     */
+    private List<String> args;
+
+    /**
+     * 返回值快照
+     */
+    private String returnValue;
+
+    /**
+     * 抛出的异常类名
+     */
+    private String throwableClassName;
+
+    /**
+     * 抛出的异常信息
+     */
+    private String throwableMessage;
+
+    /**
+     * 方法中直接或通过MyBatis执行的重复SQL，按执行次数倒序
+     */
+    private List<MethodTraceRepeatedSql> repeatedSqlList;
+
     /**
      * 耗时
      */
@@ -79,6 +142,74 @@ public class MethodTreeNode {
      */
     private List<MethodTreeNode> children = new ArrayList<>();
 
+    /**
+     * 其他线程挂载的子节点，与 children 分开存放，避免追踪线程写 children 时加锁，转换成树结构时合并。
+     * 执行线程在子树上的修改没有加锁，只有通过 {@link #finishAsyncChild(MethodTreeNode, long)} 结束后才会转换子树
+     */
+    private transient List<MethodTreeNode> asyncChildren;
+
+    /**
+     * SQL执行时增量记录的指纹统计，转换成树结构时只保留达到阈值的
+     */
+    private transient Map<String, MethodTraceRepeatedSql> sqlFingerprintMap;
+
+    public static int getRepeatedSqlThreshold() {
+        return repeatedSqlThreshold;
+    }
+
+    /**
+     * 设置N+1查询阈值，为null时不修改，小于2时取2
+     */
+    public static void setRepeatedSqlThreshold(Integer threshold) {
+        if (threshold != null) {
+            repeatedSqlThreshold = Math.max(threshold, 2);
+        }
+    }
+
+    /**
+     * 记录方法中执行的一条SQL
+     *
+     * @param sqlNode SQL节点
+     */
+    public synchronized void addSql(MethodTreeNode sqlNode) {
+        if (sqlFingerprintMap == null) {
+            sqlFingerprintMap = new HashMap<>();
+        }
+        MethodTraceRepeatedSql repeatedSql = sqlFingerprintMap.get(sqlNode.getSqlFingerprint());
+        if (repeatedSql == null) {
+            repeatedSql = new MethodTraceRepeatedSql();
+            repeatedSql.setFingerprint(sqlNode.getSqlFingerprint());
+            repeatedSql.setSql(sqlNode.getSql());
+            sqlFingerprintMap.put(sqlNode.getSqlFingerprint(), repeatedSql);
+        }
+        repeatedSql.setCount(repeatedSql.getCount() + 1);
+        if (sqlNode.getDuration() != null) {
+            repeatedSql.setDuration(repeatedSql.getDuration() + sqlNode.getDuration());
+        }
+    }
+
+    /**
+     * 添加其他线程的子节点
+     *
+     * @param node 子节点
+     */
+    public synchronized void addAsyncChild(MethodTreeNode node) {
+        if (asyncChildren == null) {
+            asyncChildren = new ArrayList<>();
+        }
+        asyncChildren.add(node);
+    }
+
+    /**
+     * 结束其他线程的子节点，之后子树不再修改，可以在转换成树结构时读取
+     *
+     * @param node 子节点
+     * @param end  结束时间
+     */
+    public synchronized void finishAsyncChild(MethodTreeNode node, long end) {
+        node.setEnd(end);
+    }
+
     /**
      * 转换成树结构
      *
@@ -93,13 +224,53 @@ public class MethodTreeNode {
         tree.setMethodName(methodName);
         tree.setMethodSignature(methodSignature);
         tree.setSql(sql);
-        if (duration == null) {
+        tree.setFetchRows(fetchRows);
+        tree.setFetchDuration(fetchDuration);
+        tree.setAcquireWaitMicros(acquireWaitMicros);
+        tree.setThreadName(threadName);
+        tree.setArgs(args);
+        tree.setReturnValue(returnValue);
+        tree.setThrowableClassName(throwableClassName);
+        tree.setThrowableMessage(throwableMessage);
+        // 其他线程的节点可能还未执行完
+        if (duration == null && end != null) {
             duration = end - start;
         }
         tree.setDuration(duration);
         for (MethodTreeNode child : children) {
             tree.getChildren().add(child.toTree());
         }
+        synchronized (this) {
+            if (asyncChildren != null) {
+                for (MethodTreeNode child : asyncChildren) {
+                    if (child.getEnd() != null) {
+                        tree.getChildren().add(child.toTree());
+                    } else {
+                        // 执行线程还在修改子树，只记录开始时间和线程
+                        MethodTreeNode running = new MethodTreeNode();
+                        running.setStart(child.getStart());
+                        running.setTraceType(child.getTraceType());
+                        running.setThreadName(child.getThreadName());
+                        tree.getChildren().add(running);
+                    }
+                }
+                tree.getChildren().sort(Comparator.comparing(MethodTreeNode::getStart));
+            }
+            if (sqlFingerprintMap != null) {
+                int threshold = repeatedSqlThreshold;
+                for (MethodTraceRepeatedSql repeatedSql : sqlFingerprintMap.values()) {
+                    if (repeatedSql.getCount() >= threshold) {
+                        if (tree.getRepeatedSqlList() == null) {
+                            tree.setRepeatedSqlList(new ArrayList<>());
+                        }
+                        tree.getRepeatedSqlList().add(repeatedSql);
+                    }
+                }
+                if (tree.getRepeatedSqlList() != null) {
+                    tree.getRepeatedSqlList().sort(Comparator.comparingInt(MethodTraceRepeatedSql::getCount).reversed());
+                }
+            }
+        }
         return tree;
     }
 }
@@ -44,6 +44,31 @@ public class TraceMethodDTO {
      */
     private Boolean traceSQL = false;
 
+    /**
+     * 追踪提交到线程池中的任务
+     */
+    private Boolean traceAsync = false;
+
+    /**
+     * 捕获方法抛出的异常
+     */
+    private Boolean traceThrowable = false;
+
+    /**
+     * 捕获方法入参和返回值
+     */
+    private Boolean traceParams = false;
+
+    /**
+     * 捕获的单个入参或返回值最大长度
+     */
+    private Integer traceParamsMaxLength = 256;
+
+    /**
+     * 单次追踪捕获入参、返回值、异常信息的总字节预算
+     */
+    private Long traceCaptureBudgetBytes = 4L * 1024 * 1024;
+
     /**
      * 跳过getter和setter开头方法
      */
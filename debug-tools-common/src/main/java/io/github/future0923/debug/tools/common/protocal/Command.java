@@ -85,4 +85,14 @@ public interface Command {
      * 资源HotDeploy请求
      */
     Byte RESOURCE_HOT_DEPLOY_REQUEST = 14;
+
+    /**
+     * 修改方法指标请求
+     */
+    Byte CHANGE_TRACE_METRICS_REQUEST = 15;
+
+    /**
+     * 修改SQL打印配置请求
+     */
+    Byte CHANGE_SQL_PRINT_CONFIG_REQUEST = 16;
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.common.protocal.http;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author future0923
+ */
+@Data
+public class ConnectionPoolRes {
+
+    private List<Item> itemList;
+
+    @Data
+    public static class Item {
+
+        /**
+         * 连接池类型，如 HikariCP
+         */
+        private String poolType;
+
+        private String poolName;
+
+        /**
+         * 获取连接次数
+         */
+        private Long count;
+
+        private Long totalMicros;
+
+        private Long avgMicros;
+
+        private Long maxMicros;
+
+        private Long p50Micros;
+
+        private Long p90Micros;
+
+        private Long p99Micros;
+
+        /**
+         * 连接池状态采样，按时间正序
+         */
+        private List<Sample> sampleList;
+    }
+
+    @Data
+    public static class Sample {
+
+        private Long time;
+
+        private Integer active;
+
+        private Integer idle;
+
+        private Integer waiting;
+    }
+}
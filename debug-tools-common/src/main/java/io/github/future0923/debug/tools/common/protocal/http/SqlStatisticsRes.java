@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.common.protocal.http;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author future0923
+ */
+@Data
+public class SqlStatisticsRes {
+
+    /**
+     * 按总耗时倒序
+     */
+    private List<Item> itemList;
+
+    @Data
+    public static class Item {
+
+        /**
+         * SQL指纹
+         */
+        private String fingerprint;
+
+        private String dbType;
+
+        private String sampleSql;
+
+        /**
+         * 执行次数
+         */
+        private Long count;
+
+        private Long totalMillis;
+
+        private Long avgMillis;
+
+        private Long maxMillis;
+
+        private Long p50Millis;
+
+        private Long p90Millis;
+
+        private Long p99Millis;
+
+        /**
+         * 影响或返回的行数
+         */
+        private Long rows;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.common.protocal.http;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author future0923
+ */
+@Data
+public class TraceMetricsRes {
+
+    private List<Item> itemList;
+
+    @Data
+    public static class Item {
+
+        private String className;
+
+        private String methodName;
+
+        private String methodDescription;
+
+        /**
+         * 调用次数
+         */
+        private Long count;
+
+        /**
+         * 抛出异常次数
+         */
+        private Long errorCount;
+
+        private Long totalNanos;
+
+        private Long avgNanos;
+
+        private Long maxNanos;
+
+        private Long p50Nanos;
+
+        private Long p90Nanos;
+
+        private Long p99Nanos;
+
+        private Long p999Nanos;
+
+        /**
+         * 耗时分布，只包含有记录的桶，按上界升序
+         */
+        private List<Bucket> bucketList;
+    }
+
+    @Data
+    public static class Bucket {
+
+        /**
+         * 桶内最大耗时
+         */
+        private Long upperNanos;
+
+        private Long count;
+    }
+}
@@ -22,6 +22,8 @@ import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.common.protocal.Command;
 import io.github.future0923.debug.tools.common.protocal.buffer.ByteBuf;
 import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeTraceMethodRequestPacket;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeSqlPrintConfigRequestPacket;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeTraceMetricsRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.ClearRunResultRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.HeartBeatRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.LocalCompilerHotDeployRequestPacket;
@@ -84,6 +86,8 @@ public class PacketCodec {
         this.packetTypeMap.put(Command.REMOTE_COMPILER_HOT_DEPLOY_RESPONSE, HotDeployResponsePacket.class);
         this.packetTypeMap.put(Command.CHANGE_TRACE_METHOD_REQUEST, ChangeTraceMethodRequestPacket.class);
         this.packetTypeMap.put(Command.RESOURCE_HOT_DEPLOY_REQUEST, ResourceHotDeployRequestPacket.class);
+        this.packetTypeMap.put(Command.CHANGE_TRACE_METRICS_REQUEST, ChangeTraceMetricsRequestPacket.class);
+        this.packetTypeMap.put(Command.CHANGE_SQL_PRINT_CONFIG_REQUEST, ChangeSqlPrintConfigRequestPacket.class);
         this.serializerMap.put(Serializer.DEFAULT.getSerializerAlgorithm(), Serializer.DEFAULT);
     }
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.common.protocal.packet.request;
+
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.common.protocal.Command;
+import io.github.future0923.debug.tools.common.protocal.packet.Packet;
+import io.github.future0923.debug.tools.common.utils.DebugToolsJsonUtils;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 修改SQL打印配置，为null的配置不修改
+ *
+ * @author future0923
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ChangeSqlPrintConfigRequestPacket extends Packet {
+
+    private static final Logger logger = Logger.getLogger(ChangeSqlPrintConfigRequestPacket.class);
+
+    /**
+     * 慢SQL阈值(ms)
+     */
+    private Long slowThreshold;
+
+    /**
+     * 采样率，取值 0~1
+     */
+    private Double sampleRate;
+
+    /**
+     * 追踪时N+1查询的阈值
+     */
+    private Integer repeatedThreshold;
+
+    public ChangeSqlPrintConfigRequestPacket() {
+    }
+
+    public ChangeSqlPrintConfigRequestPacket(Long slowThreshold, Double sampleRate) {
+        this.slowThreshold = slowThreshold;
+        this.sampleRate = sampleRate;
+    }
+
+    public ChangeSqlPrintConfigRequestPacket(Long slowThreshold, Double sampleRate, Integer repeatedThreshold) {
+        this.slowThreshold = slowThreshold;
+        this.sampleRate = sampleRate;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    public Byte getCommand() {
+        return Command.CHANGE_SQL_PRINT_CONFIG_REQUEST;
+    }
+
+    @Override
+    public byte[] binarySerialize() {
+        return DebugToolsJsonUtils.toJsonStr(this).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void binaryDeserialization(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        String jsonString = new String(bytes, StandardCharsets.UTF_8);
+        if (!DebugToolsJsonUtils.isTypeJSON(jsonString)) {
+            logger.warning("The data ChangeSqlPrintConfigRequestPacket received is not JSON, {}", jsonString);
+            return;
+        }
+        ChangeSqlPrintConfigRequestPacket packet = DebugToolsJsonUtils.toBean(jsonString, ChangeSqlPrintConfigRequestPacket.class);
+        this.setSlowThreshold(packet.getSlowThreshold());
+        this.setSampleRate(packet.getSampleRate());
+        this.setRepeatedThreshold(packet.getRepeatedThreshold());
+    }
+}
@@ -21,12 +21,12 @@ import io.github.future0923.debug.tools.hotswap.core.annotation.FileEvent;
 import io.github.future0923.debug.tools.hotswap.core.annotation.OnClassFileEvent;
 import io.github.future0923.debug.tools.hotswap.core.annotation.OnResourceFileEvent;
 import io.github.future0923.debug.tools.hotswap.core.command.MergeableCommand;
+import io.github.future0923.debug.tools.hotswap.core.util.ClassFileHashTable;
 import io.github.future0923.debug.tools.hotswap.core.util.IOUtils;
 import io.github.future0923.debug.tools.hotswap.core.util.JavassistUtil;
 import io.github.future0923.debug.tools.hotswap.core.watch.WatchFileEvent;
 import javassist.ClassPool;
 import javassist.CtClass;
-import javassist.NotFoundException;
 
 import java.io.File;
 import java.io.IOException;
@@ -51,8 +51,19 @@ public class WatchEventCommand<T extends Annotation> extends MergeableCommand {
     private final WatchFileEvent event;
     private final ClassLoader classLoader;
 
+    /**
+     * class文件内容哈希表，字节码未变化时跳过处理，为null时不检查
+     */
+    private final ClassFileHashTable classFileHashTable;
+
     public static <T extends Annotation> WatchEventCommand<T> createCmdForEvent(PluginAnnotation<T> pluginAnnotation,
                                                                                 WatchFileEvent event, ClassLoader classLoader) {
+        return createCmdForEvent(pluginAnnotation, event, classLoader, null);
+    }
+
+    public static <T extends Annotation> WatchEventCommand<T> createCmdForEvent(PluginAnnotation<T> pluginAnnotation,
+                                                                                WatchFileEvent event, ClassLoader classLoader,
+                                                                                ClassFileHashTable classFileHashTable) {
         WatchEventDTO watchEventDTO = WatchEventDTO.parse(pluginAnnotation.getAnnotation());
         if (!watchEventDTO.accept(event)) {
             return null;
@@ -71,14 +82,16 @@ public class WatchEventCommand<T extends Annotation> extends MergeableCommand {
                 return null;
             }
         }
-        return new WatchEventCommand<>(pluginAnnotation, event, classLoader, watchEventDTO);
+        return new WatchEventCommand<>(pluginAnnotation, event, classLoader, watchEventDTO, classFileHashTable);
     }
 
-    private WatchEventCommand(PluginAnnotation<T> pluginAnnotation, WatchFileEvent event, ClassLoader classLoader, WatchEventDTO watchEventDTO) {
+    private WatchEventCommand(PluginAnnotation<T> pluginAnnotation, WatchFileEvent event, ClassLoader classLoader,
+                              WatchEventDTO watchEventDTO, ClassFileHashTable classFileHashTable) {
         this.pluginAnnotation = pluginAnnotation;
         this.event = event;
         this.classLoader = classLoader;
         this.watchEventDTO = watchEventDTO;
+        this.classFileHashTable = classFileHashTable;
     }
 
     @Override
@@ -95,7 +108,15 @@ public class WatchEventCommand<T extends Annotation> extends MergeableCommand {
         CtClass ctClass = null;
         if (watchEventDTO.isClassFileEvent()) {
             try {
-                ctClass = createCtClass(event.getURI(), classLoader);
+                byte[] bytecode = readClassFile(event.getURI());
+                if (bytecode == null) {
+                    return;
+                }
+                if (classFileHashTable != null && !classFileHashTable.update(event.getURI().getPath(), bytecode)) {
+                    LOGGER.trace("Skipping URI {} because the class file content is unchanged.", event.getURI());
+                    return;
+                }
+                ctClass = JavassistUtil.createCtClass(classLoader, bytecode);
             } catch (Exception e) {
                 LOGGER.error("Unable create CtClass for URI '{}'.", e, event.getURI());
                 return;
@@ -151,12 +172,12 @@ public class WatchEventCommand<T extends Annotation> extends MergeableCommand {
     }
 
     /**
-     * 通过字节码创建javassist的CtClass
+     * 读取class文件字节码，文件不存在时返回null
      */
-    private CtClass createCtClass(URI uri, ClassLoader classLoader) throws NotFoundException, IOException {
+    private byte[] readClassFile(URI uri) throws IOException {
         File file = new File(uri);
         if (file.exists()) {
-            return JavassistUtil.createCtClass(classLoader, IOUtils.toByteArray(uri));
+            return IOUtils.toByteArray(uri);
         }
         return null;
     }
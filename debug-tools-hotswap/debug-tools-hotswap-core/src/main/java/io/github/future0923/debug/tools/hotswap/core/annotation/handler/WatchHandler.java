@@ -20,6 +20,7 @@ import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.hotswap.core.annotation.OnClassFileEvent;
 import io.github.future0923.debug.tools.hotswap.core.annotation.OnResourceFileEvent;
 import io.github.future0923.debug.tools.hotswap.core.config.PluginManager;
+import io.github.future0923.debug.tools.hotswap.core.util.ClassFileHashTable;
 
 import java.io.File;
 import java.io.IOException;
@@ -82,6 +83,8 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
         if (path.endsWith("/")) {
             path = path.substring(0, path.length() - 2);
         }
+        // 同一个插件方法监听的class文件共用一个内容哈希表
+        ClassFileHashTable classFileHashTable = watchEventDTO.isClassFileEvent() ? new ClassFileHashTable() : null;
         // classpath resources 已经包括了extraClasspath
         // 当为OnClassFileEvent注解是，path为null，classLoader.getResources("")返回的为启动应用的 **/target/classes
         Enumeration<URL> en = classLoader.getResources(path);
@@ -96,7 +99,7 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
                     continue;
                 }
                 LOGGER.debug("Registering resource listener on classpath URI {}", uri);
-                registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, uri);
+                registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, uri, classFileHashTable);
             } catch (URISyntaxException e) {
                 LOGGER.error("Unable convert root resource path URL to URI", e);
             }
@@ -109,7 +112,7 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
                     Path pathInWatchResource = watchResourcePath.resolve(path);
                     if (pathInWatchResource.toFile().exists()) {
                         LOGGER.debug("Registering resource listener on watchResources URI {}", pathInWatchResource.toUri());
-                        registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, pathInWatchResource.toUri());
+                        registerResourceListener(pluginAnnotation, watchEventDTO, classLoader, pathInWatchResource.toUri(), null);
                     }
                 } catch (URISyntaxException e) {
                     LOGGER.error("Unable convert watch resource path URL {} to URI", e, url);
@@ -126,9 +129,10 @@ public class WatchHandler<T extends Annotation> implements PluginHandler<T> {
     private void registerResourceListener(final PluginAnnotation<T> pluginAnnotation,
                                           final WatchEventDTO watchEventDTO,
                                           final ClassLoader classLoader,
-                                          URI uri) throws IOException {
+                                          URI uri,
+                                          ClassFileHashTable classFileHashTable) throws IOException {
         pluginManager.getWatcher().addEventListener(classLoader, uri, event -> {
-            WatchEventCommand<T> command = WatchEventCommand.createCmdForEvent(pluginAnnotation, event, classLoader);
+            WatchEventCommand<T> command = WatchEventCommand.createCmdForEvent(pluginAnnotation, event, classLoader, classFileHashTable);
             if (command != null) {
                 pluginManager.getScheduler().scheduleCommand(command, watchEventDTO.getTimeout());
                 LOGGER.trace("Resource changed {}", event);
@@ -77,4 +77,34 @@ public interface Scheduler {
      * 停止调度器
      */
     void stop();
+
+    /**
+     * 等待执行的命令数
+     */
+    int getScheduledCount();
+
+    /**
+     * 正在运行的命令数
+     */
+    int getRunningCount();
+
+    /**
+     * 已到期但还在线程池队列中等待线程的命令数
+     */
+    int getExecutorQueueSize();
+
+    /**
+     * 已执行完成的命令数
+     */
+    long getExecutedCount();
+
+    /**
+     * 命令平均执行耗时（毫秒）
+     */
+    long getAvgExecuteMillis();
+
+    /**
+     * 命令最大执行耗时（毫秒）
+     */
+    long getMaxExecuteMillis();
 }
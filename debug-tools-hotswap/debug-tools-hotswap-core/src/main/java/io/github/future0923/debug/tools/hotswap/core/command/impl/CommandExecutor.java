@@ -20,32 +20,36 @@ import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.hotswap.core.command.Command;
 
 /**
- * 命令的执行器，创建线程执行
+ * 命令的执行器，提交到调度器的线程池中执行
  */
-public class CommandExecutor extends Thread {
+public class CommandExecutor implements Runnable {
     private static final Logger LOGGER = Logger.getLogger(CommandExecutor.class);
 
     final Command command;
 
     public CommandExecutor(Command command) {
         this.command = command;
-        setDaemon(true);
     }
 
     @Override
     public void run() {
+        long start = System.nanoTime();
         try {
             LOGGER.trace("Executing command {}", command);
             command.executeCommand();
+        } catch (Throwable e) {
+            LOGGER.error("Failed to execute command {}", e, command);
         } finally {
-            finished();
+            finished(System.nanoTime() - start);
         }
     }
 
     /**
      * 执行完成后的处理（一定会调用）
+     *
+     * @param executeNanos 执行耗时（纳秒）
      */
-    public void finished() {
+    public void finished(long executeNanos) {
     }
 
 }
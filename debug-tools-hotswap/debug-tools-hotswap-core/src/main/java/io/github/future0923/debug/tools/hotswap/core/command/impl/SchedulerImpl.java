@@ -16,6 +16,7 @@
  */
 package io.github.future0923.debug.tools.hotswap.core.command.impl;
 
+import io.github.future0923.debug.tools.base.hutool.core.thread.ThreadUtil;
 import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.hotswap.core.annotation.handler.WatchEventCommand;
 import io.github.future0923.debug.tools.hotswap.core.command.Command;
@@ -25,13 +26,19 @@ import lombok.Getter;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 调度器默认实现，只调度，命令通过创建{@link CommandExecutor}执行
+ * 调度器默认实现，调度线程阻塞在{@link DelayQueue}上，在最早的命令到期时才被唤醒，
+ * 到期的命令提交到有界的命名线程池中通过{@link CommandExecutor}执行
  */
 public class SchedulerImpl implements Scheduler {
 
@@ -43,24 +50,60 @@ public class SchedulerImpl implements Scheduler {
     int DEFAULT_SCHEDULING_TIMEOUT = 500;
 
     /**
-     * 投递进来的命令（无序）
+     * 执行命令的最大线程数
+     */
+    private static final int MAX_EXECUTOR_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 投递进来的命令（无序），value为命令当前有效的调度信息
      */
     final Map<Command, DuplicateScheduleConfig> scheduledCommands = new ConcurrentHashMap<>();
 
+    /**
+     * 按到期时间排序的调度信息，命令被重新投递时旧的调度信息不会从队列中删除，出队时与{@link #scheduledCommands}比对后丢弃
+     */
+    final DelayQueue<DuplicateScheduleConfig> delayQueue = new DelayQueue<>();
+
     /**
      * 正在运行的命令
      */
     final Set<Command> runningCommands = Collections.synchronizedSet(new HashSet<Command>());
 
     /**
-     * 运行命令的调度线程，创建{@link CommandExecutor}最终执行命令
+     * 执行命令的线程池
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 已执行完成的命令数
+     */
+    private final AtomicLong executedCount = new AtomicLong();
+
+    /**
+     * 命令执行总耗时（纳秒）
+     */
+    private final AtomicLong totalExecuteNanos = new AtomicLong();
+
+    /**
+     * 命令最大执行耗时（纳秒）
+     */
+    private final AtomicLong maxExecuteNanos = new AtomicLong();
+
+    /**
+     * 从队列中取出到期命令的调度线程
      */
     Thread runner;
 
     /**
      * 是否停止运行
      */
-    boolean stopped;
+    volatile boolean stopped;
+
+    public SchedulerImpl() {
+        executor = new ThreadPoolExecutor(MAX_EXECUTOR_THREADS, MAX_EXECUTOR_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), ThreadUtil.newNamedThreadFactory("DebugTools-HotswapCommand-", true));
+        executor.allowCoreThreadTimeOut(true);
+    }
 
     @Override
     public void scheduleCommand(Command command) {
@@ -76,90 +119,104 @@ public class SchedulerImpl implements Scheduler {
     public void scheduleCommand(Command command, int timeout, DuplicateSheduleBehaviour behaviour) {
         synchronized (scheduledCommands) {
             Command targetCommand = command;
-            if (scheduledCommands.containsKey(command) && (command instanceof MergeableCommand)) {
-                // 任务中有这个命令并且是可以合并的
-                for (Command scheduledCommand : scheduledCommands.keySet()) {
-                    // 如果他们的equals相等就合并
-                    if (command.equals(scheduledCommand)) {
-                        targetCommand = ((MergeableCommand) scheduledCommand).merge(command);
-                        break;
-                    }
+            if (command instanceof MergeableCommand) {
+                // 任务中有equals相等的命令就合并，调度信息中保存了已投递的命令实例，直接按key取出
+                DuplicateScheduleConfig scheduledConfig = scheduledCommands.get(command);
+                if (scheduledConfig != null) {
+                    targetCommand = ((MergeableCommand) scheduledConfig.getCommand()).merge(command);
                 }
             }
 
-            // map可能已经包含equals命令，put将替换它并重置计时器
-            scheduledCommands.put(targetCommand, new DuplicateScheduleConfig(System.currentTimeMillis() + timeout, behaviour));
+            // map可能已经包含equals命令，put将替换它并重置计时器，旧的调度信息出队时会被丢弃
+            DuplicateScheduleConfig config = new DuplicateScheduleConfig(targetCommand, System.currentTimeMillis() + timeout, behaviour);
+            scheduledCommands.remove(targetCommand);
+            scheduledCommands.put(targetCommand, config);
+            delayQueue.offer(config);
             LOGGER.trace("{} scheduled for execution in {}ms", targetCommand, timeout);
         }
     }
 
     /**
-     * 运行当前未运行且运行时间{@link DuplicateScheduleConfig#time}
+     * 处理到期的调度信息
      */
-    private boolean processCommands() {
-        long currentTime = System.currentTimeMillis();
+    private void processCommand(DuplicateScheduleConfig config) {
         synchronized (scheduledCommands) {
-            for (Iterator<Map.Entry<Command, DuplicateScheduleConfig>> it = scheduledCommands.entrySet().iterator(); it.hasNext(); ) {
-                Map.Entry<Command, DuplicateScheduleConfig> entry = it.next();
-                DuplicateScheduleConfig config = entry.getValue();
-                Command command = entry.getKey();
-                // 如果时间到了
-                if (config.getTime() < currentTime) {
-                    // 如果当前正在运行
-                    if (runningCommands.contains(command)) {
-                        if (config.getBehaviour().equals(DuplicateSheduleBehaviour.SKIP)) {
-                            LOGGER.debug("Skipping duplicate running command {}", command);
-                            it.remove();
-                        } else if (config.getBehaviour().equals(DuplicateSheduleBehaviour.RUN_DUPLICATE)) {
-                            executeCommand(command);
-                            it.remove();
-                        }
-                        // 不投递则为等待下次调度
-                    } else {
-                        executeCommand(command);
-                        it.remove();
-                    }
+            Command command = config.getCommand();
+            if (scheduledCommands.get(command) != config) {
+                // 命令已被重新投递或已执行
+                return;
+            }
+            // 如果当前正在运行
+            if (runningCommands.contains(command)) {
+                if (config.getBehaviour().equals(DuplicateSheduleBehaviour.SKIP)) {
+                    LOGGER.debug("Skipping duplicate running command {}", command);
+                    scheduledCommands.remove(command);
+                } else if (config.getBehaviour().equals(DuplicateSheduleBehaviour.RUN_DUPLICATE)) {
+                    scheduledCommands.remove(command);
+                    executeCommand(command);
+                } else {
+                    // 等待正在运行的命令结束后重新入队
+                    config.waiting = true;
                 }
+            } else {
+                scheduledCommands.remove(command);
+                executeCommand(command);
             }
         }
-
-        return true;
     }
 
     /**
-     * 创建{@link CommandExecutor}执行命令
+     * 提交{@link CommandExecutor}到线程池执行命令
      */
     private void executeCommand(Command command) {
         if (command instanceof WatchEventCommand) {
             LOGGER.trace("Executing {}", command);
         } else {
-            LOGGER.debug("Executing {}", command);
+            LOGGER.debug("Executing {}, scheduled: {}, running: {}, queued: {}", command,
+                    getScheduledCount(), getRunningCount(), getExecutorQueueSize());
         }
         //添加到正在运行的集合
         runningCommands.add(command);
-        new CommandExecutor(command) {
+        executor.execute(new CommandExecutor(command) {
             @Override
-            public void finished() {
-                runningCommands.remove(command);
+            public void finished(long executeNanos) {
+                recordExecuteTime(executeNanos);
+                synchronized (scheduledCommands) {
+                    runningCommands.remove(command);
+                    DuplicateScheduleConfig waitingConfig = scheduledCommands.get(command);
+                    if (waitingConfig != null && waitingConfig.waiting) {
+                        waitingConfig.waiting = false;
+                        delayQueue.offer(waitingConfig);
+                    }
+                }
+            }
+        });
+    }
+
+    private void recordExecuteTime(long executeNanos) {
+        executedCount.incrementAndGet();
+        totalExecuteNanos.addAndGet(executeNanos);
+        long max;
+        while (executeNanos > (max = maxExecuteNanos.get())) {
+            if (maxExecuteNanos.compareAndSet(max, executeNanos)) {
+                break;
             }
-        }.start();
+        }
     }
 
     @Override
     public void run() {
         runner = new Thread(() -> {
-            for (; ; ) {
-                if (stopped || !processCommands()) {
-                    break;
-                }
+            while (!stopped) {
                 try {
-                    Thread.sleep(100);
+                    processCommand(delayQueue.take());
                 } catch (InterruptedException e) {
                     break;
+                } catch (Throwable e) {
+                    LOGGER.error("Failed to schedule command", e);
                 }
             }
-
-        });
+        }, "DebugTools-HotswapScheduler");
         runner.setDaemon(true);
         runner.start();
     }
@@ -167,10 +224,52 @@ public class SchedulerImpl implements Scheduler {
     @Override
     public void stop() {
         stopped = true;
+        if (runner != null) {
+            runner.interrupt();
+        }
+        executor.shutdown();
+        LOGGER.debug("Scheduler stopped, executed {} commands, avg {}ms, max {}ms",
+                getExecutedCount(), getAvgExecuteMillis(), getMaxExecuteMillis());
+    }
+
+    @Override
+    public int getScheduledCount() {
+        return scheduledCommands.size();
+    }
+
+    @Override
+    public int getRunningCount() {
+        return runningCommands.size();
+    }
+
+    @Override
+    public int getExecutorQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    @Override
+    public long getAvgExecuteMillis() {
+        long count = executedCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalExecuteNanos.get() / count);
+    }
+
+    @Override
+    public long getMaxExecuteMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxExecuteNanos.get());
     }
 
     @Getter
-    private static class DuplicateScheduleConfig {
+    private static class DuplicateScheduleConfig implements Delayed {
+
+        /**
+         * 要执行的命令
+         */
+        private final Command command;
 
         /**
          * 什么时间运行
@@ -182,9 +281,25 @@ public class SchedulerImpl implements Scheduler {
          */
         DuplicateSheduleBehaviour behaviour;
 
-        private DuplicateScheduleConfig(long time, DuplicateSheduleBehaviour behaviour) {
+        /**
+         * {@link DuplicateSheduleBehaviour#WAIT_AND_RUN_AFTER}时正在等待相同命令运行结束
+         */
+        boolean waiting;
+
+        private DuplicateScheduleConfig(Command command, long time, DuplicateSheduleBehaviour behaviour) {
+            this.command = command;
             this.time = time;
             this.behaviour = behaviour;
         }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(time, ((DuplicateScheduleConfig) o).time);
+        }
     }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.config;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.hotswap.core.util.signature.ClassChangesAnalyzer;
+import lombok.Getter;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量重定义类，一个类失败不影响其它类的重载
+ * <ol>
+ *     <li>不支持增强重定义（DCEVM）时，先通过{@link ClassChangesAnalyzer}找出签名变化的类</li>
+ *     <li>签名未变化的类在一次{@link Instrumentation#redefineClasses}调用中重定义</li>
+ *     <li>批量调用失败的类和签名变化的类按父类在前的顺序逐个重试</li>
+ * </ol>
+ *
+ * @author future0923
+ */
+public class ClassRedefiner {
+
+    private static final Logger logger = Logger.getLogger(ClassRedefiner.class);
+
+    private final Instrumentation instrumentation;
+
+    /**
+     * instrumentation的redefineClasses锁
+     */
+    private final Object hotswapLock;
+
+    /**
+     * 是否支持增强重定义（新增、删除方法和字段等）
+     */
+    @Getter
+    private final boolean enhancedRedefinition;
+
+    public ClassRedefiner(Instrumentation instrumentation, Object hotswapLock) {
+        this.instrumentation = instrumentation;
+        this.hotswapLock = hotswapLock;
+        this.enhancedRedefinition = detectEnhancedRedefinition();
+    }
+
+    /**
+     * 重定义类
+     *
+     * @param reloadMap 要重载的字节码
+     * @return 每个类的重定义结果
+     */
+    public RedefineResult redefine(Map<Class<?>, byte[]> reloadMap) {
+        long start = System.nanoTime();
+        RedefineResult result = new RedefineResult();
+        List<ClassDefinition> batch = new ArrayList<>(reloadMap.size());
+        List<ClassDefinition> individual = new ArrayList<>();
+        for (Map.Entry<Class<?>, byte[]> entry : reloadMap.entrySet()) {
+            ClassDefinition definition = new ClassDefinition(entry.getKey(), entry.getValue());
+            if (enhancedRedefinition || !isSignatureChanged(entry.getKey(), entry.getValue())) {
+                batch.add(definition);
+            } else {
+                individual.add(definition);
+            }
+        }
+        if (!batch.isEmpty()) {
+            long batchStart = System.nanoTime();
+            try {
+                synchronized (hotswapLock) {
+                    instrumentation.redefineClasses(batch.toArray(new ClassDefinition[0]));
+                }
+                long nanos = (System.nanoTime() - batchStart) / batch.size();
+                for (ClassDefinition definition : batch) {
+                    result.add(new ClassOutcome(definition.getDefinitionClass(), true, false, nanos, null));
+                }
+            } catch (Throwable e) {
+                logger.debug("Fail to redefine {} classes in batch, retry individually, msg is {}", batch.size(), e);
+                individual.addAll(batch);
+            }
+        }
+        if (!individual.isEmpty()) {
+            individual.sort(Comparator.comparingInt(definition -> getHierarchyDepth(definition.getDefinitionClass())));
+            for (ClassDefinition definition : individual) {
+                result.add(redefineIndividually(definition));
+            }
+        }
+        result.totalNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private ClassOutcome redefineIndividually(ClassDefinition definition) {
+        long start = System.nanoTime();
+        try {
+            synchronized (hotswapLock) {
+                instrumentation.redefineClasses(definition);
+            }
+            return new ClassOutcome(definition.getDefinitionClass(), true, true, System.nanoTime() - start, null);
+        } catch (Throwable e) {
+            return new ClassOutcome(definition.getDefinitionClass(), false, true, System.nanoTime() - start, e);
+        }
+    }
+
+    private boolean isSignatureChanged(Class<?> clazz, byte[] bytecode) {
+        try {
+            return ClassChangesAnalyzer.isReloadNeeded(clazz, bytecode, clazz.getClassLoader());
+        } catch (Throwable e) {
+            logger.debug("Unable to analyze class {} before redefinition, msg is {}", clazz.getName(), e);
+            return true;
+        }
+    }
+
+    /**
+     * 父类链的深度，逐个重定义时父类在前
+     */
+    private static int getHierarchyDepth(Class<?> clazz) {
+        int depth = 0;
+        for (Class<?> superclass = clazz.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * JBR 11+ 通过 {@code -XX:+AllowEnhancedClassRedefinition} 开启，DCEVM 8 的虚拟机版本中包含dcevm
+     */
+    private static boolean detectEnhancedRedefinition() {
+        String vmVersion = System.getProperty("java.vm.version", "");
+        if (vmVersion.toLowerCase().contains("dcevm")) {
+            return true;
+        }
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return bean != null && Boolean.parseBoolean(bean.getVMOption("AllowEnhancedClassRedefinition").getValue());
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一次重定义的结果
+     */
+    @Getter
+    public static class RedefineResult {
+
+        private final List<ClassOutcome> outcomes = new ArrayList<>();
+
+        private final List<ClassOutcome> failures = new ArrayList<>();
+
+        private long totalNanos;
+
+        private void add(ClassOutcome outcome) {
+            outcomes.add(outcome);
+            if (!outcome.isSuccess()) {
+                failures.add(outcome);
+            }
+        }
+
+        public boolean hasFailure() {
+            return !failures.isEmpty();
+        }
+
+        public List<String> getClassNames(boolean success) {
+            List<String> classNames = new ArrayList<>();
+            for (ClassOutcome outcome : outcomes) {
+                if (outcome.isSuccess() == success) {
+                    classNames.add(outcome.getClassName());
+                }
+            }
+            return classNames;
+        }
+    }
+
+    /**
+     * 单个类的重定义结果
+     */
+    @Getter
+    public static class ClassOutcome {
+
+        private final String className;
+
+        private final boolean success;
+
+        /**
+         * 是否是单独重定义的
+         */
+        private final boolean individual;
+
+        /**
+         * 耗时，批量重定义时为平均耗时
+         */
+        private final long nanos;
+
+        private final Throwable error;
+
+        private ClassOutcome(Class<?> clazz, boolean success, boolean individual, long nanos, Throwable error) {
+            this.className = clazz.getName();
+            this.success = success;
+            this.individual = individual;
+            this.nanos = nanos;
+            this.error = error;
+        }
+    }
+}
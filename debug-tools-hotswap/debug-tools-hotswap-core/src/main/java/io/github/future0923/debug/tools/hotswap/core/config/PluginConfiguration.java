@@ -29,9 +29,9 @@ import io.github.future0923.debug.tools.hotswap.core.plugin.watchResources.Watch
 import io.github.future0923.debug.tools.hotswap.core.util.classloader.HotswapAgentClassLoaderExt;
 import io.github.future0923.debug.tools.hotswap.core.util.classloader.URLClassLoaderPathHelper;
 import io.github.future0923.debug.tools.hotswap.core.util.spring.util.StringUtils;
-import lombok.Getter;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -79,10 +79,9 @@ public class PluginConfiguration {
     PluginConfiguration parent;
 
     /**
-     * 配置所在的类加载器
+     * 配置所在的类加载器，使用弱引用，避免{@link io.github.future0923.debug.tools.hotswap.core.util.classloader.ClassLoaderRegistry}中的配置阻止类加载器被回收
      */
-    @Getter
-    final ClassLoader classLoader;
+    final WeakReference<ClassLoader> classLoaderReference;
 
     /**
      * 配置文件URL
@@ -105,7 +104,7 @@ public class PluginConfiguration {
 
     public PluginConfiguration(PluginConfiguration parent, ClassLoader classLoader, boolean init) {
         this.parent = parent;
-        this.classLoader = classLoader;
+        this.classLoaderReference = new WeakReference<>(classLoader);
         // 载入配置文件
         loadConfigurationFile();
         if (init) {
@@ -113,6 +112,13 @@ public class PluginConfiguration {
         }
     }
 
+    /**
+     * 配置所在的类加载器
+     */
+    public ClassLoader getClassLoader() {
+        return classLoaderReference.get();
+    }
+
     /**
      * 载入配置文件
      * 有外部使用外部配置文件
@@ -130,6 +136,7 @@ public class PluginConfiguration {
         }
 
         if (parent == null) {
+            ClassLoader classLoader = getClassLoader();
             configurationURL = classLoader == null ? ClassLoader.getSystemResource(PLUGIN_CONFIGURATION) : classLoader.getResource(PLUGIN_CONFIGURATION);
             try {
                 if (configurationURL != null) {
@@ -145,6 +152,7 @@ public class PluginConfiguration {
             // 在父类加载器中找
             try {
                 Enumeration<URL> urls = null;
+                ClassLoader classLoader = getClassLoader();
                 if (classLoader != null) {
                     urls = classLoader.getResources(PLUGIN_CONFIGURATION);
                 }
@@ -233,7 +241,15 @@ public class PluginConfiguration {
 
     private void initExtraClassPath() {
         URL[] extraClassPath = getExtraClasspath();
-        if (extraClassPath.length > 0 && !checkExcluded()) {
+        if (extraClassPath.length == 0) {
+            return;
+        }
+        ClassLoader classLoader = getClassLoader();
+        if (classLoader == null) {
+            LOGGER.debug("ClassLoader of plugin configuration is bootstrap or has been garbage collected, skip extraClasspath {}", Arrays.toString(extraClassPath));
+            return;
+        }
+        if (!checkExcluded(classLoader)) {
             if (classLoader instanceof HotswapAgentClassLoaderExt) {
                 ((HotswapAgentClassLoaderExt) classLoader).$$ha$setExtraClassPath(extraClassPath);
             } else if (URLClassLoaderPathHelper.isApplicable(classLoader)) {
@@ -268,7 +284,7 @@ public class PluginConfiguration {
         }
     }
 
-    private boolean checkExcluded() {
+    private boolean checkExcluded(ClassLoader classLoader) {
         if (PluginManager.getInstance().getHotswapTransformer().getIncludedClassLoaderPatterns() != null) {
             for (Pattern pattern : PluginManager.getInstance().getHotswapTransformer().getIncludedClassLoaderPatterns()) {
                 if (pattern.matcher(classLoader.getClass().getName()).matches()) {
@@ -24,6 +24,7 @@ import io.github.future0923.debug.tools.hotswap.core.command.Scheduler;
 import io.github.future0923.debug.tools.hotswap.core.command.impl.SchedulerImpl;
 import io.github.future0923.debug.tools.hotswap.core.util.HotswapTransformer;
 import io.github.future0923.debug.tools.hotswap.core.util.classloader.ClassLoaderDefineClassPatcher;
+import io.github.future0923.debug.tools.hotswap.core.util.classloader.ClassLoaderRegistry;
 import io.github.future0923.debug.tools.hotswap.core.util.classloader.URLClassLoaderPathHelper;
 import io.github.future0923.debug.tools.hotswap.core.watch.Watcher;
 import io.github.future0923.debug.tools.hotswap.core.watch.WatcherFactory;
@@ -34,9 +35,8 @@ import java.io.IOException;
 import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
 import java.security.ProtectionDomain;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -54,11 +54,6 @@ public class PluginManager {
 
     ClassLoaderDefineClassPatcher classLoaderPatcher = new ClassLoaderDefineClassPatcher();
 
-    /**
-     * ClassLoader中的插件配置信息
-     */
-    private final Map<ClassLoader, PluginConfiguration> classLoaderConfigurations = new HashMap<>();
-
     /**
      * ClassLoader初始化监听者
      */
@@ -72,6 +67,11 @@ public class PluginManager {
      */
     private final Object hotswapLock = new Object();
 
+    /**
+     * 批量重定义类
+     */
+    private ClassRedefiner classRedefiner;
+
     /**
      * 单例
      */
@@ -141,6 +141,7 @@ public class PluginManager {
      */
     public void init(Instrumentation instrumentation) {
         this.instrumentation = instrumentation;
+        this.classRedefiner = new ClassRedefiner(instrumentation, hotswapLock);
 
         if (watcher == null) {
             try {
@@ -160,7 +161,7 @@ public class PluginManager {
 
         PluginConfiguration configuration = new PluginConfiguration(classLoader);
 
-        classLoaderConfigurations.put(classLoader, configuration);
+        ClassLoaderRegistry.setPluginConfiguration(classLoader, configuration);
 
         // 扫描插件
         pluginRegistry.scanPlugins(getClass().getClassLoader(), PLUGIN_PACKAGE);
@@ -197,7 +198,7 @@ public class PluginManager {
      */
     public void initClassLoader(ClassLoader classLoader, ProtectionDomain protectionDomain) {
         // 存在说明ClassLoader中已经初始化过了，直接退出
-        if (classLoaderConfigurations.containsKey(classLoader)) {
+        if (ClassLoaderRegistry.getPluginConfiguration(classLoader) != null) {
             return;
         }
         // system/bootstrap 类加载器不初始化
@@ -208,7 +209,7 @@ public class PluginManager {
         }
         synchronized (this) {
             // 如果已经初始化过了
-            if (classLoaderConfigurations.containsKey(classLoader)) {
+            if (ClassLoaderRegistry.getPluginConfiguration(classLoader) != null) {
                 return;
             }
             // 从AgentClassLoader复制插件到初始化ClassLoader中
@@ -219,7 +220,7 @@ public class PluginManager {
 
             // 创建这个ClassLoader中的插件配置
             PluginConfiguration pluginConfiguration = new PluginConfiguration(getPluginConfiguration(getClass().getClassLoader()), classLoader, false);
-            classLoaderConfigurations.put(classLoader, pluginConfiguration);
+            ClassLoaderRegistry.setPluginConfiguration(classLoader, pluginConfiguration);
             pluginConfiguration.init();
         }
 
@@ -234,23 +235,23 @@ public class PluginManager {
      */
     public void closeClassLoader(ClassLoader classLoader) {
         pluginRegistry.closeClassLoader(classLoader);
-        classLoaderConfigurations.remove(classLoader);
+        ClassLoaderRegistry.setPluginConfiguration(classLoader, null);
         hotswapTransformer.closeClassLoader(classLoader);
     }
 
 
+    /**
+     * 获取类加载器的插件配置，自身没有时向父加载器查找
+     */
     public PluginConfiguration getPluginConfiguration(ClassLoader classLoader) {
-        ClassLoader loader = classLoader;
-        while (loader != null && !classLoaderConfigurations.containsKey(loader)) {
-            loader = loader.getParent();
-        }
-        return classLoaderConfigurations.get(loader);
+        return ClassLoaderRegistry.resolvePluginConfiguration(classLoader);
     }
 
     /**
      * 通过传入的字节码进行热重载，
      *
      * <p>此方法对集合进行操作，以允许同时对多个类进行相互依赖的更改
+     * <p>部分类重定义失败时其余类仍然生效，失败的类会抛出{@link IllegalStateException}
      *
      * @param reloadMap 要重载的字节码
      * @see Instrumentation#redefineClasses(ClassDefinition...)
@@ -261,24 +262,22 @@ public class PluginManager {
         }
 
         synchronized (reloadMap) {
-            ClassDefinition[] definitions = new ClassDefinition[reloadMap.size()];
-            String[] classNames = new String[reloadMap.size()];
-            int i = 0;
-            for (Map.Entry<Class<?>, byte[]> entry : reloadMap.entrySet()) {
-                classNames[i] = entry.getKey().getName();
-                definitions[i++] = new ClassDefinition(entry.getKey(), entry.getValue());
+            if (reloadMap.isEmpty()) {
+                return;
             }
-            try {
-                logger.debug("Reloading classes {} (autoHotswap)", Arrays.toString(classNames));
-                synchronized (hotswapLock) {
-                    instrumentation.redefineClasses(definitions);
+            logger.debug("Reloading classes {} (autoHotswap)", reloadMap.keySet());
+            ClassRedefiner.RedefineResult result = classRedefiner.redefine(reloadMap);
+            reloadMap.clear();
+            List<String> reloaded = result.getClassNames(true);
+            if (!reloaded.isEmpty()) {
+                logger.reload("reloaded classes {} in {}ms (autoHotswap)", reloaded, result.getTotalNanos() / 1000000);
+            }
+            if (result.hasFailure()) {
+                for (ClassRedefiner.ClassOutcome failure : result.getFailures()) {
+                    logger.warning("Fail to reload class {} (autoHotswap), msg is {}", failure.getClassName(), failure.getError());
                 }
-                logger.reload("reloaded classes {} (autoHotswap)", Arrays.toString(classNames));
-            } catch (Exception e) {
-                logger.debug("... Fail to reload classes {} (autoHotswap), msg is {}", Arrays.toString(classNames), e);
-                throw new IllegalStateException("Unable to redefine classes", e);
+                throw new IllegalStateException("Unable to redefine classes " + result.getClassNames(false), result.getFailures().get(0).getError());
             }
-            reloadMap.clear();
         }
     }
 
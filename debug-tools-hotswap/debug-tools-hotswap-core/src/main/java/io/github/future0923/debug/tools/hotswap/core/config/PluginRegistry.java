@@ -26,12 +26,21 @@ import io.github.future0923.debug.tools.hotswap.core.util.scanner.ClassPathScann
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 插件注册表
@@ -40,6 +49,11 @@ public class PluginRegistry {
 
     private static final Logger LOGGER = Logger.getLogger(PluginRegistry.class);
 
+    /**
+     * 编译时由{@code PluginIndexProcessor}生成的插件索引，每行一个插件类名
+     */
+    public static final String PLUGIN_INDEX = "META-INF/debug-tools/hotswap-plugins";
+
     /**
      * plugin class -> Map (ClassLoader -> Plugin instance)
      */
@@ -78,6 +92,7 @@ public class PluginRegistry {
 
     /**
      * 扫描指定路径下带有{@link Plugin}注解的类，并处理注解功能
+     * <p>有{@link #PLUGIN_INDEX}插件索引的classpath根路径直接读取索引，没有索引的根路径仍然扫描
      *
      * @param classLoader   用哪个classloader解析插件路径
      * @param pluginPackage 要扫描的包（带.全路径）
@@ -87,7 +102,7 @@ public class PluginRegistry {
         ClassLoader agentClassLoader = getClass().getClassLoader();
 
         try {
-            List<String> discoveredPlugins = annotationScanner.scanPlugins(classLoader, pluginPath);
+            List<String> discoveredPlugins = discoverPlugins(classLoader, pluginPackage, pluginPath);
             List<String> discoveredPluginNames = new ArrayList<>();
 
             // 插件的类必须要要AgentClassLoader中加载，否则将无法用在instrumentation进程
@@ -134,6 +149,43 @@ public class PluginRegistry {
         }
     }
 
+    private List<String> discoverPlugins(ClassLoader classLoader, String pluginPackage, String pluginPath) throws IOException {
+        Set<String> indexedRoots = new HashSet<>();
+        Set<String> plugins = loadPluginIndex(classLoader, pluginPackage, indexedRoots);
+        if (!plugins.isEmpty()) {
+            LOGGER.debug("Loaded {} plugins of package {} from index {}", plugins.size(), pluginPackage, PLUGIN_INDEX);
+        }
+        // 未使用PluginIndexProcessor编译的jar或目录没有索引，仍需扫描
+        plugins.addAll(annotationScanner.scanPlugins(classLoader, pluginPath,
+                url -> !indexedRoots.contains(ClassPathScanner.getRoot(url, pluginPath))));
+        return new ArrayList<>(plugins);
+    }
+
+    /**
+     * 读取所有插件索引中指定包下的插件类名
+     *
+     * @param indexedRoots 收集有索引的classpath根路径
+     */
+    private Set<String> loadPluginIndex(ClassLoader classLoader, String pluginPackage, Set<String> indexedRoots) throws IOException {
+        String prefix = pluginPackage + ".";
+        Set<String> plugins = new LinkedHashSet<>();
+        Enumeration<URL> resources = classLoader.getResources(PLUGIN_INDEX);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            indexedRoots.add(ClassPathScanner.getRoot(url, PLUGIN_INDEX));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.startsWith(prefix)) {
+                        plugins.add(line);
+                    }
+                }
+            }
+        }
+        return plugins;
+    }
+
     /**
      * 在指定的ClassLoader中初始化创建插件实例，一个ClassLoader中只有一个插件实例
      *
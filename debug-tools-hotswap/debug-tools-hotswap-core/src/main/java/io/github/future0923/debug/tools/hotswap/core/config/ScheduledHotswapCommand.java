@@ -19,43 +19,50 @@ package io.github.future0923.debug.tools.hotswap.core.config;
 import io.github.future0923.debug.tools.hotswap.core.command.Command;
 import io.github.future0923.debug.tools.hotswap.core.command.MergeableCommand;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 通过调度器延迟执行热重载
+ * <p>
+ * 合并时只追加到重载批次中，执行时才生成一次快照，同一个类以最后一次投递的字节码为准
  */
 public class ScheduledHotswapCommand extends MergeableCommand {
 
     /**
-     * 要热重载的类
+     * 要热重载的类，只追加
      */
-    private final Map<Class<?>, byte[]> reloadMap;
+    private final List<Map.Entry<Class<?>, byte[]>> reloadBatch;
 
     public ScheduledHotswapCommand(Map<Class<?>, byte[]> reloadMap) {
-        this.reloadMap = new HashMap<>();
-        for (Class<?> key: reloadMap.keySet()) {
-            this.reloadMap.put(key, reloadMap.get(key));
+        this.reloadBatch = new ArrayList<>(reloadMap.size());
+        for (Map.Entry<Class<?>, byte[]> entry : reloadMap.entrySet()) {
+            this.reloadBatch.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
         }
     }
 
     public Command merge(Command other) {
         if (other instanceof ScheduledHotswapCommand) {
-            ScheduledHotswapCommand scheduledHotswapCommand = (ScheduledHotswapCommand) other;
-            for (Class<?> key: scheduledHotswapCommand.reloadMap.keySet()) {
-                this.reloadMap.put(key, scheduledHotswapCommand.reloadMap.get(key));
-            }
+            this.reloadBatch.addAll(((ScheduledHotswapCommand) other).reloadBatch);
         }
         return this;
     }
 
     @Override
     public void executeCommand() {
+        Map<Class<?>, byte[]> reloadMap = new LinkedHashMap<>(reloadBatch.size() * 4 / 3 + 1);
+        for (Map.Entry<Class<?>, byte[]> entry : reloadBatch) {
+            reloadMap.put(entry.getKey(), entry.getValue());
+        }
         PluginManager.getInstance().hotswap(reloadMap);
     }
+
     @Override
     public boolean equals(Object o) {
-        if (this == o || getClass() == o.getClass()) return true;
+        if (this == o || (o != null && getClass() == o.getClass())) return true;
         return false;
     }
 
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util;
+
+import io.github.future0923.debug.tools.base.hutool.core.map.WeakConcurrentMap;
+import io.github.future0923.debug.tools.base.hutool.core.util.HashUtil;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * class文件内容哈希表，按文件路径记录上次处理时字节码的64位哈希，编译器重写了相同的字节码时跳过重载。
+ * <p>使用开放寻址的数组保存，不为每个文件创建Entry对象
+ * <p>类从class目录首次加载时通过{@link #recordLoadedClass}记录字节码哈希，文件第一次变化时与加载时的字节码比较，
+ * 启动后第一次全量编译写出相同字节码的类也会跳过。加载时的哈希按类加载器和class目录分开记录，不加锁，
+ * 文件路径在第一次变化时才解析，类加载器被回收后整体移除
+ *
+ * @author future0923
+ */
+public class ClassFileHashTable {
+
+    /**
+     * 内容未变化跳过的次数
+     */
+    private static final LongAdder SKIPPED = new LongAdder();
+
+    /**
+     * 内容变化后处理的次数
+     */
+    private static final LongAdder APPLIED = new LongAdder();
+
+    /**
+     * 从class目录加载的类在加载时的字节码哈希，类加载器 -> class目录URL的路径 -> 目录中加载的类
+     */
+    private static final WeakConcurrentMap<ClassLoader, Map<String, LoadedDirectory>> LOADED_CLASSES = new WeakConcurrentMap<>();
+
+    private String[] paths = new String[64];
+
+    private long[] hashes = new long[64];
+
+    private int size;
+
+    /**
+     * 记录文件的最新内容
+     *
+     * @param path     文件路径
+     * @param bytecode 字节码
+     * @return 内容与上次记录的（首次记录时与类加载时的）相同返回false
+     */
+    public boolean update(String path, byte[] bytecode) {
+        long hash = HashUtil.metroHash64(bytecode);
+        boolean changed;
+        synchronized (this) {
+            changed = put(path, hash);
+        }
+        if (changed) {
+            APPLIED.increment();
+        } else {
+            SKIPPED.increment();
+        }
+        return changed;
+    }
+
+    /**
+     * 记录从class目录加载的类的字节码，jar中的类不会被监听，不记录
+     *
+     * @param classLoader      类加载器，启动类加载器不记录
+     * @param protectionDomain 类的ProtectionDomain
+     * @param className        类名（/分隔）
+     * @param bytecode         加载时的字节码
+     */
+    public static void recordLoadedClass(ClassLoader classLoader, ProtectionDomain protectionDomain, String className, byte[] bytecode) {
+        if (classLoader == null || protectionDomain == null || className == null || bytecode == null) {
+            return;
+        }
+        CodeSource codeSource = protectionDomain.getCodeSource();
+        URL location = codeSource == null ? null : codeSource.getLocation();
+        if (location == null || !"file".equals(location.getProtocol()) || !location.getPath().endsWith("/")) {
+            return;
+        }
+        Map<String, LoadedDirectory> directories = LOADED_CLASSES.get(classLoader);
+        if (directories == null) {
+            directories = LOADED_CLASSES.computeIfAbsent(classLoader, k -> new ConcurrentHashMap<>());
+        }
+        LoadedDirectory directory = directories.get(location.getPath());
+        if (directory == null) {
+            directory = directories.computeIfAbsent(location.getPath(), k -> new LoadedDirectory(location));
+        }
+        directory.hashes.put(className, HashUtil.metroHash64(bytecode));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 所有哈希表累计因内容未变化跳过的重载次数
+     */
+    public static long getSkippedCount() {
+        return SKIPPED.sum();
+    }
+
+    /**
+     * 所有哈希表累计内容变化后处理的重载次数
+     */
+    public static long getAppliedCount() {
+        return APPLIED.sum();
+    }
+
+    /**
+     * 记录哈希
+     *
+     * @return 与上次记录的不同返回true
+     */
+    private boolean put(String path, long hash) {
+        int index = indexOf(path);
+        if (paths[index] != null) {
+            boolean changed = hashes[index] != hash;
+            hashes[index] = hash;
+            return changed;
+        }
+        boolean changed = !isLoadedClass(path, hash);
+        paths[index] = path;
+        hashes[index] = hash;
+        if (++size * 4 > paths.length * 3) {
+            resize();
+        }
+        return changed;
+    }
+
+    /**
+     * 文件是否是某个类加载器加载时的字节码，只在文件第一次变化时调用
+     */
+    private static boolean isLoadedClass(String path, long hash) {
+        if (!path.endsWith(".class")) {
+            return false;
+        }
+        for (Map<String, LoadedDirectory> directories : LOADED_CLASSES.values()) {
+            for (LoadedDirectory directory : directories.values()) {
+                String directoryPath = directory.getPath();
+                if (directoryPath != null && path.startsWith(directoryPath)) {
+                    Long loadedHash = directory.hashes.get(path.substring(directoryPath.length(), path.length() - ".class".length()));
+                    if (loadedHash != null && loadedHash == hash) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int indexOf(String path) {
+        int mask = paths.length - 1;
+        int index = spread(path) & mask;
+        while (paths[index] != null && !paths[index].equals(path)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int spread(String path) {
+        int h = path.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private void resize() {
+        String[] oldPaths = paths;
+        long[] oldHashes = hashes;
+        paths = new String[oldPaths.length << 1];
+        hashes = new long[oldPaths.length << 1];
+        for (int i = 0; i < oldPaths.length; i++) {
+            if (oldPaths[i] != null) {
+                int index = indexOf(oldPaths[i]);
+                paths[index] = oldPaths[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * 类加载器的一个class目录中加载的类
+     */
+    private static class LoadedDirectory {
+
+        private final URL location;
+
+        /**
+         * 类名（/分隔） -> 加载时的字节码哈希
+         */
+        private final Map<String, Long> hashes = new ConcurrentHashMap<>();
+
+        /**
+         * 解码后的目录路径，第一次比较时解析
+         */
+        private volatile String path;
+
+        private volatile boolean invalid;
+
+        private LoadedDirectory(URL location) {
+            this.location = location;
+        }
+
+        /**
+         * @return 无法解析时返回null
+         */
+        private String getPath() {
+            String path = this.path;
+            if (path == null && !invalid) {
+                try {
+                    path = location.toURI().getPath();
+                    this.path = path;
+                } catch (URISyntaxException e) {
+                    invalid = true;
+                }
+            }
+            return path;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import io.github.future0923.debug.tools.hotswap.core.annotation.OnClassLoadEvent
 import io.github.future0923.debug.tools.hotswap.core.annotation.Plugin;
 import io.github.future0923.debug.tools.hotswap.core.annotation.handler.PluginClassFileTransformer;
 import io.github.future0923.debug.tools.hotswap.core.config.PluginManager;
+import io.github.future0923.debug.tools.hotswap.core.util.classloader.ClassLoaderRegistry;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -40,7 +41,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -95,14 +95,19 @@ public class HotswapTransformer implements ClassFileTransformer {
     protected Map<String, RegisteredTransformersRecord> otherTransformers = new LinkedHashMap<>();
 
     /**
-     * Transformer与ClassLoader之间的映射
+     * {@link #redefinitionTransformers}的索引快照，注册信息变化时重建
      */
-    protected Map<ClassFileTransformer, ClassLoader> classLoaderTransformers = new LinkedHashMap<>();
+    private volatile TransformerIndex redefinitionIndex = TransformerIndex.EMPTY;
 
     /**
-     * 类加载是否已经初始化完成
+     * {@link #otherTransformers}的索引快照，注册信息变化时重建
      */
-    protected Map<ClassLoader, Boolean> seenClassLoaders = new WeakHashMap<>();
+    private volatile TransformerIndex otherIndex = TransformerIndex.EMPTY;
+
+    /**
+     * Transformer与ClassLoader之间的映射
+     */
+    protected Map<ClassFileTransformer, ClassLoader> classLoaderTransformers = new LinkedHashMap<>();
 
     /**
      * 应该初始化的类加载器正则集合
@@ -132,49 +137,29 @@ public class HotswapTransformer implements ClassFileTransformer {
         if (skippedClassLoaders.contains(classLoaderClassName)) {
             return null;
         }
+        if (redefiningClass == null) {
+            ClassFileHashTable.recordLoadedClass(classLoader, protectionDomain, className, bytes);
+        }
         // 非插件类文件Transformer的集合
-        List<ClassFileTransformer> toApply = new ArrayList<>();
+        List<ClassFileTransformer> toApply = null;
         // 插件类文件Transformer的集合
-        List<PluginClassFileTransformer> pluginTransformers = new ArrayList<>();
+        List<PluginClassFileTransformer> pluginTransformers = null;
         try {
             // 调用关注非define类型的transformer
-            for (RegisteredTransformersRecord transformerRecord : new ArrayList<>(otherTransformers.values())) {
-                if ((className != null && transformerRecord.pattern.matcher(className).matches()) ||
-                        (redefiningClass != null && transformerRecord.pattern.matcher(redefiningClass.getName()).matches())) {
-                    for (ClassFileTransformer transformer : new ArrayList<ClassFileTransformer>(transformerRecord.transformerList)) {
-                        if (transformer instanceof PluginClassFileTransformer) {
-                            PluginClassFileTransformer pluginClassFileTransformer = (PluginClassFileTransformer) transformer;
-                            if (!pluginClassFileTransformer.isPluginDisabled(classLoader)) {
-                                pluginTransformers.add(pluginClassFileTransformer);
-                            }
-                        } else {
-                            toApply.add(transformer);
-                        }
-                    }
-                }
-            }
+            List<TransformerIndex.Entry> matched = otherIndex.match(className, redefiningClass);
             // 调用关注redefine类型的transformer
-            if (redefiningClass != null && className != null) {
-                for (RegisteredTransformersRecord transformerRecord : new ArrayList<RegisteredTransformersRecord>(redefinitionTransformers.values())) {
-                    if (transformerRecord.pattern.matcher(className).matches()) {
-                        for (ClassFileTransformer transformer : new ArrayList<ClassFileTransformer>(transformerRecord.transformerList)) {
-                            if (transformer instanceof PluginClassFileTransformer) {
-                                PluginClassFileTransformer pluginClassFileTransformer = (PluginClassFileTransformer) transformer;
-                                if (!pluginClassFileTransformer.isPluginDisabled(classLoader)) {
-                                    pluginTransformers.add(pluginClassFileTransformer);
-                                }
-                            } else {
-                                toApply.add(transformer);
-                            }
-                        }
-                    }
-                }
+            List<TransformerIndex.Entry> redefinitionMatched = redefiningClass != null && className != null ? redefinitionIndex.match(className, null) : null;
+            if (matched != null || redefinitionMatched != null) {
+                toApply = new ArrayList<>();
+                pluginTransformers = new ArrayList<>();
+                collectTransformers(matched, classLoader, toApply, pluginTransformers);
+                collectTransformers(redefinitionMatched, classLoader, toApply, pluginTransformers);
             }
         } catch (Throwable t) {
             LOGGER.error("Error transforming class '" + className + "'.", t);
         }
 
-        if (!pluginTransformers.isEmpty()) {
+        if (pluginTransformers != null && !pluginTransformers.isEmpty()) {
             pluginTransformers = reduce(classLoader, pluginTransformers, className);
         }
 
@@ -184,7 +169,7 @@ public class HotswapTransformer implements ClassFileTransformer {
             return null;
         }
 
-        if (toApply.isEmpty() && pluginTransformers.isEmpty()) {
+        if (toApply == null || (toApply.isEmpty() && pluginTransformers.isEmpty())) {
             return null;
         }
 
@@ -209,10 +194,29 @@ public class HotswapTransformer implements ClassFileTransformer {
         return null;
     }
 
+    private static void collectTransformers(List<TransformerIndex.Entry> matched, ClassLoader classLoader,
+                                            List<ClassFileTransformer> toApply, List<PluginClassFileTransformer> pluginTransformers) {
+        if (matched == null) {
+            return;
+        }
+        for (TransformerIndex.Entry entry : matched) {
+            for (ClassFileTransformer transformer : entry.transformers) {
+                if (transformer instanceof PluginClassFileTransformer) {
+                    PluginClassFileTransformer pluginClassFileTransformer = (PluginClassFileTransformer) transformer;
+                    if (!pluginClassFileTransformer.isPluginDisabled(classLoader)) {
+                        pluginTransformers.add(pluginClassFileTransformer);
+                    }
+                } else {
+                    toApply.add(transformer);
+                }
+            }
+        }
+    }
+
     /**
      * 注册 transformer
      */
-    public void registerTransformer(ClassLoader classLoader, String classNameRegexp, HaClassFileTransformer transformer) {
+    public synchronized void registerTransformer(ClassLoader classLoader, String classNameRegexp, HaClassFileTransformer transformer) {
         LOGGER.debug("Registering transformer for class regexp '{}'.", classNameRegexp);
 
         String normalizeRegexp = normalizeTypeRegexp(classNameRegexp);
@@ -233,6 +237,7 @@ public class HotswapTransformer implements ClassFileTransformer {
         if (classLoader != null) {
             classLoaderTransformers.put(transformer, classLoader);
         }
+        rebuildIndex(transformersMap);
     }
 
     private Map<String, RegisteredTransformersRecord> getTransformerMap(HaClassFileTransformer transformer) {
@@ -248,19 +253,23 @@ public class HotswapTransformer implements ClassFileTransformer {
      * @param classNameRegexp regexp to match fully qualified class name.
      * @param transformer     currently registered transformer
      */
-    public void removeTransformer(String classNameRegexp, HaClassFileTransformer transformer) {
+    public synchronized void removeTransformer(String classNameRegexp, HaClassFileTransformer transformer) {
         String normalizeRegexp = normalizeTypeRegexp(classNameRegexp);
         Map<String, RegisteredTransformersRecord> transformersMap = getTransformerMap(transformer);
         RegisteredTransformersRecord transformerRecord = transformersMap.get(normalizeRegexp);
         if (transformerRecord != null) {
             transformerRecord.transformerList.remove(transformer);
+            if (transformerRecord.transformerList.isEmpty()) {
+                transformersMap.remove(normalizeRegexp);
+            }
+            rebuildIndex(transformersMap);
         }
     }
 
     /**
      * 移除类加载器中所有的transformer
      */
-    public void closeClassLoader(ClassLoader classLoader) {
+    public synchronized void closeClassLoader(ClassLoader classLoader) {
         for (Iterator<Map.Entry<ClassFileTransformer, ClassLoader>> entryIterator = classLoaderTransformers.entrySet().iterator();
              entryIterator.hasNext(); ) {
             Map.Entry<ClassFileTransformer, ClassLoader> entry = entryIterator.next();
@@ -274,10 +283,26 @@ public class HotswapTransformer implements ClassFileTransformer {
                 }
             }
         }
+        redefinitionTransformers.values().removeIf(transformerRecord -> transformerRecord.transformerList.isEmpty());
+        otherTransformers.values().removeIf(transformerRecord -> transformerRecord.transformerList.isEmpty());
+        rebuildIndex(redefinitionTransformers);
+        rebuildIndex(otherTransformers);
 
         LOGGER.debug("All transformers removed for classLoader {}", classLoader);
     }
 
+    /**
+     * 重建注册信息的索引快照
+     */
+    private void rebuildIndex(Map<String, RegisteredTransformersRecord> transformersMap) {
+        TransformerIndex index = new TransformerIndex(transformersMap.values());
+        if (transformersMap == redefinitionTransformers) {
+            redefinitionIndex = index;
+        } else {
+            otherIndex = index;
+        }
+    }
+
     /**
      * 匹配插件如果有不满足的则过滤不满足的，并处理{@link Plugin#fallback()}
      */
@@ -317,21 +342,23 @@ public class HotswapTransformer implements ClassFileTransformer {
      * 每个类加载器都应该确定被初始化，热重载需要将插件加载到每一个类加载器中才能重载。
      */
     protected boolean ensureClassLoaderInitialized(final ClassLoader classLoader, final ProtectionDomain protectionDomain) {
-        if (!seenClassLoaders.containsKey(classLoader)) {
-
+        ClassLoaderRegistry.ClassLoaderState state = ClassLoaderRegistry.getState(classLoader);
+        Boolean initialized = state.getInitialized();
+        if (initialized == null) {
             if (classLoader == null) {
                 PluginManager.getInstance().initClassLoader(null, protectionDomain);
             } else {
                 if (shouldScheduleClassLoader(classLoader)) {
                     PluginManager.getInstance().initClassLoader(classLoader, protectionDomain);
                 } else {
-                    seenClassLoaders.put(classLoader, false);
+                    state.setInitialized(false);
                     return false;
                 }
             }
-            seenClassLoaders.put(classLoader, true);
+            state.setInitialized(true);
+            return true;
         }
-        return seenClassLoaders.get(classLoader) != null && seenClassLoaders.get(classLoader);
+        return initialized;
     }
 
     /**
@@ -16,6 +16,7 @@
  */
 package io.github.future0923.debug.tools.hotswap.core.util;
 
+import io.github.future0923.debug.tools.hotswap.core.util.classloader.ClassLoaderRegistry;
 import javassist.ByteArrayClassPath;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
@@ -24,31 +25,70 @@ import javassist.LoaderClassPath;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author future0923
  */
 public class JavassistUtil {
 
-    private static final Map<ClassLoader, ClassPool> CLASS_POOL_MAP = new ConcurrentHashMap<>();
-
     /**
-     * 获取javassist ClassPool
+     * 获取javassist ClassPool，按类加载器缓存在{@link ClassLoaderRegistry}中，
+     * 每个ClassPool最多缓存{@link ManagedClassPool#DEFAULT_MAX_SIZE}个CtClass
      */
     public static ClassPool getClassPool(ClassLoader classLoader) {
-        if (classLoader == null) {
-            return ClassPool.getDefault();
-        }
-        return CLASS_POOL_MAP.computeIfAbsent(classLoader, cl -> {
-            ClassPool cp = new ClassPool();
+        return ClassLoaderRegistry.getState(classLoader).getClassPool(classLoader, cl -> {
+            ClassPool cp = new ManagedClassPool();
             cp.appendSystemPath();
-            cp.appendClassPath(new LoaderClassPath(cl));
+            if (cl != null) {
+                cp.appendClassPath(new LoaderClassPath(cl));
+            }
             return cp;
         });
     }
 
+    /**
+     * 获取各个类加载器的ClassPool中缓存的CtClass数量
+     *
+     * @return key为类加载器，value为缓存数量
+     */
+    public static Map<String, Integer> getClassPoolSizes() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        ClassLoaderRegistry.forEachState((classLoader, state) -> {
+            ClassPool classPool = state.getClassPool();
+            if (classPool instanceof ManagedClassPool) {
+                result.put(String.valueOf(classLoader), ((ManagedClassPool) classPool).getCachedSize());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 获取所有ClassPool因超过最大缓存数量被移除的CtClass数量
+     */
+    public static long getEvictedClassCount() {
+        long[] count = {0};
+        ClassLoaderRegistry.forEachState((classLoader, state) -> {
+            ClassPool classPool = state.getClassPool();
+            if (classPool instanceof ManagedClassPool) {
+                count[0] += ((ManagedClassPool) classPool).getEvictedCount();
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * 使用完成后从ClassPool中移除CtClass
+     */
+    public static void detach(CtClass... ctClasses) {
+        for (CtClass ctClass : ctClasses) {
+            if (ctClass != null) {
+                ctClass.detach();
+            }
+        }
+    }
+
     /**
      * 创建javassist CtClass
      */
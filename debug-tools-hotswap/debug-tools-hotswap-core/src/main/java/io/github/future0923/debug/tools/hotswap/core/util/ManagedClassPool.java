@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限制缓存数量的ClassPool
+ * <p>
+ * 原生ClassPool会缓存所有通过{@code get}、{@code makeClass}得到的CtClass，除非调用方主动{@link CtClass#detach()}，否则永远不会释放。
+ * 这里按最近使用顺序记录缓存的CtClass，超过{@link #maxSize}时移除最久未使用的。
+ * <p>
+ * 通过{@code makeClass}创建的、已修改或已冻结的CtClass调用方可能还在使用，移除后再次{@code get}会从类加载器读到旧的字节码，
+ * 这些CtClass不会被移除，需要调用方{@link CtClass#detach()}
+ *
+ * @author future0923
+ */
+public class ManagedClassPool extends ClassPool {
+
+    /**
+     * 默认最多缓存的CtClass数量
+     */
+    public static final int DEFAULT_MAX_SIZE = 2048;
+
+    private final int maxSize;
+
+    /**
+     * 缓存的类名，按访问顺序排列，value为是否是{@code makeClass}创建的
+     */
+    private final LinkedHashMap<String, Boolean> accessOrder = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * 被移除的CtClass数量
+     */
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public ManagedClassPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ManagedClassPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    protected CtClass getCached(String classname) {
+        CtClass ctClass = super.getCached(classname);
+        if (ctClass != null) {
+            synchronized (accessOrder) {
+                accessOrder.get(classname);
+            }
+        }
+        return ctClass;
+    }
+
+    @Override
+    protected void cacheCtClass(String classname, CtClass c, boolean dynamic) {
+        super.cacheCtClass(classname, c, dynamic);
+        synchronized (accessOrder) {
+            accessOrder.put(classname, dynamic);
+            if (accessOrder.size() > maxSize) {
+                Iterator<Map.Entry<String, Boolean>> iterator = accessOrder.entrySet().iterator();
+                while (accessOrder.size() > maxSize && iterator.hasNext()) {
+                    Map.Entry<String, Boolean> eldest = iterator.next();
+                    CtClass cached = super.getCached(eldest.getKey());
+                    if (cached != null && (eldest.getValue() || cached.isModified() || cached.isFrozen())) {
+                        continue;
+                    }
+                    iterator.remove();
+                    if (super.removeCached(eldest.getKey()) != null) {
+                        evictedCount.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected CtClass removeCached(String classname) {
+        synchronized (accessOrder) {
+            accessOrder.remove(classname);
+        }
+        return super.removeCached(classname);
+    }
+
+    /**
+     * 当前缓存的CtClass数量（不含基本类型），包含不会被移除的CtClass，可能超过{@link #maxSize}
+     */
+    public int getCachedSize() {
+        synchronized (accessOrder) {
+            return accessOrder.size();
+        }
+    }
+
+    /**
+     * 因超过最大缓存数量被移除的CtClass数量
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
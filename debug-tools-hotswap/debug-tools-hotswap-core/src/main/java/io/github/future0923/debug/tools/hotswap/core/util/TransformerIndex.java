@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util;
+
+import io.github.future0923.debug.tools.hotswap.core.util.HotswapTransformer.RegisteredTransformersRecord;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * {@link HotswapTransformer}注册信息的只读索引，注册信息变化时整体重建（写时复制），查找时不加锁
+ * <ul>
+ *     <li>纯类名的正则（如 {@code org.springframework.core.io.ClassPathResource}）按类名hash查找</li>
+ *     <li>类名前缀 + {@code .*} 的正则（如 {@code com.example.*}）按字典树查找</li>
+ *     <li>其余正则逐个匹配</li>
+ * </ul>
+ * 未转义的{@code .}按包分隔符处理，同时匹配 {@code .} 和 {@code /}。含有转义字符的索引项查到后仍由正则确认，保证不会多匹配
+ *
+ * @author future0923
+ */
+final class TransformerIndex {
+
+    static final TransformerIndex EMPTY = new TransformerIndex(Collections.emptyList());
+
+    private static final Comparator<Entry> ORDER_COMPARATOR = Comparator.comparingInt(entry -> entry.order);
+
+    /**
+     * 纯类名索引，同时保存 {@code .} 和 {@code /} 两种分隔符的key
+     */
+    private final Map<String, Entry[]> exactMap = new HashMap<>();
+
+    /**
+     * 类名前缀字典树
+     */
+    private final Node prefixRoot = new Node();
+
+    /**
+     * 无法索引的正则
+     */
+    private final Entry[] regexEntries;
+
+    private final boolean empty;
+
+    TransformerIndex(Collection<RegisteredTransformersRecord> records) {
+        List<Entry> regexList = new ArrayList<>();
+        int order = 0;
+        for (RegisteredTransformersRecord record : records) {
+            if (record.transformerList.isEmpty()) {
+                continue;
+            }
+            String body = getRegexpBody(record.pattern.pattern());
+            // 不含转义字符时索引命中即正则匹配，不需要再次确认
+            boolean literalOnly = body.indexOf('\\') < 0;
+            ClassFileTransformer[] transformers = record.transformerList.toArray(new ClassFileTransformer[0]);
+            String exact = parseLiteral(body);
+            if (exact != null) {
+                Entry entry = new Entry(order++, literalOnly ? null : record.pattern, transformers);
+                addExact(exact, entry);
+                addExact(exact.replace('.', '/'), entry);
+                continue;
+            }
+            String prefix = body.endsWith(".*") ? parseLiteral(body.substring(0, body.length() - 2)) : null;
+            if (prefix != null) {
+                prefixRoot.add(prefix, new Entry(order++, literalOnly ? null : record.pattern, transformers));
+                continue;
+            }
+            regexList.add(new Entry(order++, record.pattern, transformers));
+        }
+        this.regexEntries = regexList.toArray(new Entry[0]);
+        this.empty = order == 0;
+    }
+
+    /**
+     * 查找匹配的注册信息，没有匹配时不分配对象
+     *
+     * @param className       类名（{@code /}分隔）
+     * @param redefiningClass 重定义的类
+     * @return 按注册顺序排列的匹配项，没有匹配时返回null
+     */
+    List<Entry> match(String className, Class<?> redefiningClass) {
+        if (empty) {
+            return null;
+        }
+        String name = className != null ? className : (redefiningClass != null ? redefiningClass.getName() : null);
+        if (name == null) {
+            return null;
+        }
+        List<Entry> result = null;
+        Entry[] exactEntries = exactMap.get(name);
+        if (exactEntries != null) {
+            for (Entry entry : exactEntries) {
+                if (entry.matches(className, redefiningClass)) {
+                    result = add(result, entry);
+                }
+            }
+        }
+        Node node = prefixRoot;
+        for (int i = 0; node != null; i++) {
+            for (Entry entry : node.entries) {
+                if (entry.matches(className, redefiningClass)) {
+                    result = add(result, entry);
+                }
+            }
+            if (i == name.length()) {
+                break;
+            }
+            char c = name.charAt(i);
+            node = node.get(c == '/' ? '.' : c);
+        }
+        for (Entry entry : regexEntries) {
+            if (entry.matches(className, redefiningClass)) {
+                result = add(result, entry);
+            }
+        }
+        if (result != null && result.size() > 1) {
+            result.sort(ORDER_COMPARATOR);
+        }
+        return result;
+    }
+
+    private void addExact(String name, Entry entry) {
+        Entry[] entries = exactMap.get(name);
+        if (entries == null) {
+            exactMap.put(name, new Entry[]{entry});
+        } else if (entries[entries.length - 1] != entry) {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+            exactMap.put(name, entries);
+        }
+    }
+
+    private static List<Entry> add(List<Entry> result, Entry entry) {
+        if (result == null) {
+            result = new ArrayList<>(2);
+        }
+        result.add(entry);
+        return result;
+    }
+
+    /**
+     * 去掉 {@code ^} 和 {@code $}
+     */
+    private static String getRegexpBody(String regexp) {
+        int start = regexp.startsWith("^") ? 1 : 0;
+        int end = regexp.endsWith("$") && !regexp.endsWith("\\$") ? regexp.length() - 1 : regexp.length();
+        return start <= end ? regexp.substring(start, end) : "";
+    }
+
+    /**
+     * 解析纯类名正则，只允许标识符字符、{@code .}、{@code \.}、{@code \$}
+     *
+     * @return 以 {@code .} 分隔的类名，不是纯类名时返回null
+     */
+    private static String parseLiteral(String body) {
+        StringBuilder literal = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < body.length() && (body.charAt(i + 1) == '.' || body.charAt(i + 1) == '$')) {
+                    literal.append(body.charAt(++i));
+                    continue;
+                }
+                return null;
+            }
+            if (c != '.' && (c == '$' || !Character.isJavaIdentifierPart(c))) {
+                return null;
+            }
+            literal.append(c);
+        }
+        return literal.toString();
+    }
+
+    /**
+     * 索引项，对应一条{@link RegisteredTransformersRecord}在重建时的快照
+     */
+    static final class Entry {
+
+        /**
+         * 注册顺序
+         */
+        private final int order;
+
+        /**
+         * 需要确认的正则，为null时不需要确认
+         */
+        private final Pattern pattern;
+
+        final ClassFileTransformer[] transformers;
+
+        private Entry(int order, Pattern pattern, ClassFileTransformer[] transformers) {
+            this.order = order;
+            this.pattern = pattern;
+            this.transformers = transformers;
+        }
+
+        private boolean matches(String className, Class<?> redefiningClass) {
+            if (pattern == null) {
+                return true;
+            }
+            return (className != null && pattern.matcher(className).matches())
+                    || (redefiningClass != null && pattern.matcher(redefiningClass.getName()).matches());
+        }
+    }
+
+    private static final class Node {
+
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private Entry[] entries = NO_ENTRIES;
+
+        private Node get(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private void add(String prefix, Entry entry) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                Node child = node.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.keys = Arrays.copyOf(node.keys, node.keys.length + 1);
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.keys[node.keys.length - 1] = c;
+                    node.children[node.children.length - 1] = child;
+                }
+                node = child;
+            }
+            node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            node.entries[node.entries.length - 1] = entry;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util.classloader;
+
+import io.github.future0923.debug.tools.base.hutool.core.map.WeakConcurrentMap;
+import io.github.future0923.debug.tools.hotswap.core.config.PluginConfiguration;
+import javassist.ClassPool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 类加载器状态登记表，保存每个类加载器的初始化标记、{@link PluginConfiguration}、{@link ClassPool}
+ * <p>
+ * 以弱引用的类加载器为key，类加载器被卸载后自动移除。value中不能强引用类加载器，否则key永远不会被回收
+ *
+ * @author future0923
+ */
+public class ClassLoaderRegistry {
+
+    private static final WeakConcurrentMap<ClassLoader, ClassLoaderState> STATE_MAP = new WeakConcurrentMap<>();
+
+    /**
+     * bootstrap类加载器（null）的状态
+     */
+    private static final ClassLoaderState BOOTSTRAP_STATE = new ClassLoaderState();
+
+    /**
+     * 插件配置变化的版本号，变化后缓存的父加载器解析结果失效
+     */
+    private static final AtomicInteger CONFIGURATION_VERSION = new AtomicInteger();
+
+    /**
+     * 获取类加载器的状态，不存在时创建
+     */
+    public static ClassLoaderState getState(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return BOOTSTRAP_STATE;
+        }
+        ClassLoaderState state = STATE_MAP.get(classLoader);
+        if (state == null) {
+            state = STATE_MAP.computeIfAbsent(classLoader, k -> new ClassLoaderState());
+        }
+        return state;
+    }
+
+    /**
+     * 遍历所有未被回收的类加载器状态，bootstrap类加载器的key为null
+     */
+    public static void forEachState(BiConsumer<ClassLoader, ClassLoaderState> action) {
+        action.accept(null, BOOTSTRAP_STATE);
+        STATE_MAP.forEach((classLoader, state) -> {
+            if (classLoader != null) {
+                action.accept(classLoader, state);
+            }
+        });
+    }
+
+    /**
+     * 获取类加载器自身的插件配置，不向父加载器查找
+     */
+    public static PluginConfiguration getPluginConfiguration(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return BOOTSTRAP_STATE.pluginConfiguration;
+        }
+        ClassLoaderState state = STATE_MAP.get(classLoader);
+        return state == null ? null : state.pluginConfiguration;
+    }
+
+    /**
+     * 设置类加载器的插件配置，传入null时移除
+     */
+    public static void setPluginConfiguration(ClassLoader classLoader, PluginConfiguration pluginConfiguration) {
+        getState(classLoader).pluginConfiguration = pluginConfiguration;
+        CONFIGURATION_VERSION.incrementAndGet();
+    }
+
+    /**
+     * 获取类加载器的插件配置，自身没有时向父加载器查找，都没有时返回bootstrap类加载器的配置。
+     * 解析结果按类加载器缓存，插件配置变化后重新解析
+     */
+    public static PluginConfiguration resolvePluginConfiguration(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return BOOTSTRAP_STATE.pluginConfiguration;
+        }
+        ClassLoaderState state = getState(classLoader);
+        int version = CONFIGURATION_VERSION.get();
+        ResolvedConfiguration resolved = state.resolvedConfiguration;
+        if (resolved != null && resolved.version == version) {
+            return resolved.pluginConfiguration;
+        }
+        PluginConfiguration pluginConfiguration = null;
+        ClassLoader loader = classLoader;
+        while (loader != null && (pluginConfiguration = getPluginConfiguration(loader)) == null) {
+            loader = loader.getParent();
+        }
+        if (loader == null) {
+            pluginConfiguration = BOOTSTRAP_STATE.pluginConfiguration;
+        }
+        state.resolvedConfiguration = new ResolvedConfiguration(version, pluginConfiguration);
+        return pluginConfiguration;
+    }
+
+    /**
+     * 类加载器的状态
+     */
+    public static class ClassLoaderState {
+
+        /**
+         * 热重载是否已经初始化，null为还未检查，false为不需要初始化
+         */
+        private volatile Boolean initialized;
+
+        /**
+         * 类加载器自身的插件配置
+         */
+        private volatile PluginConfiguration pluginConfiguration;
+
+        /**
+         * 缓存的父加载器解析结果
+         */
+        private volatile ResolvedConfiguration resolvedConfiguration;
+
+        /**
+         * 类加载器对应的ClassPool
+         */
+        private volatile ClassPool classPool;
+
+        private ClassLoaderState() {
+        }
+
+        public Boolean getInitialized() {
+            return initialized;
+        }
+
+        public void setInitialized(Boolean initialized) {
+            this.initialized = initialized;
+        }
+
+        /**
+         * 获取已创建的ClassPool
+         *
+         * @return 未创建时返回null
+         */
+        public ClassPool getClassPool() {
+            return classPool;
+        }
+
+        /**
+         * 获取ClassPool，不存在时创建
+         *
+         * @param classLoader 类加载器，只用于创建，不会被保存
+         * @param creator     创建ClassPool
+         */
+        public ClassPool getClassPool(ClassLoader classLoader, Function<ClassLoader, ClassPool> creator) {
+            ClassPool pool = classPool;
+            if (pool == null) {
+                synchronized (this) {
+                    pool = classPool;
+                    if (pool == null) {
+                        pool = creator.apply(classLoader);
+                        classPool = pool;
+                    }
+                }
+            }
+            return pool;
+        }
+    }
+
+    private static class ResolvedConfiguration {
+
+        private final int version;
+
+        private final PluginConfiguration pluginConfiguration;
+
+        private ResolvedConfiguration(int version, PluginConfiguration pluginConfiguration) {
+            this.version = version;
+            this.pluginConfiguration = pluginConfiguration;
+        }
+    }
+}
@@ -23,8 +23,10 @@ import javassist.bytecode.annotation.Annotation;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * ClassPath注解扫描器
@@ -52,8 +54,20 @@ public class ClassPathAnnotationScanner {
      * @return 有注解的ClassName集合
      */
     public List<String> scanPlugins(ClassLoader classLoader, String path) throws IOException {
+        return scanPlugins(classLoader, path, url -> true);
+    }
+
+    /**
+     * 扫描路径，找到含有指定注解的类的ClassName集合
+     *
+     * @param classLoader 用哪个类加载器加载path
+     * @param path        扫描的路径
+     * @param filter      过滤要扫描的目录
+     * @return 有注解的ClassName集合
+     */
+    public List<String> scanPlugins(ClassLoader classLoader, String path, Predicate<URL> filter) throws IOException {
         final List<String> files = new LinkedList<>();
-        scanner.scan(classLoader, path, file -> {
+        scanner.scan(classLoader, path, filter, file -> {
             ClassFile cf;
             try {
                 DataInputStream stream = new DataInputStream(file);
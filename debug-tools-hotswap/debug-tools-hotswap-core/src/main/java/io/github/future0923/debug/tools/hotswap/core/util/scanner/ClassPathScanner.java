@@ -25,6 +25,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.function.Predicate;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -44,12 +45,16 @@ public class ClassPathScanner implements Scanner {
 
 
     @Override
-    public void scan(ClassLoader classLoader, String path, ScannerVisitor visitor) throws IOException {
+    public void scan(ClassLoader classLoader, String path, Predicate<URL> filter, ScannerVisitor visitor) throws IOException {
         LOGGER.trace("Scanning path {}", path);
         // 查找所有目录 - classpath 目录或 JAR
         Enumeration<URL> en = classLoader == null ? ClassLoader.getSystemResources(path) : classLoader.getResources(path);
         while (en.hasMoreElements()) {
             URL pluginDirURL = en.nextElement();
+            if (!filter.test(pluginDirURL)) {
+                LOGGER.trace("Skipping {}", pluginDirURL);
+                continue;
+            }
             File pluginDir = new File(pluginDirURL.getFile());
             if (pluginDir.isDirectory()) {
                 scanDirectory(pluginDir, visitor);
@@ -152,6 +157,24 @@ public class ClassPathScanner implements Scanner {
         }
     }
 
+    /**
+     * 获取资源所在的classpath根路径
+     *
+     * @param url  {@link ClassLoader#getResources}找到的资源
+     * @param path 资源路径
+     * @return 根路径 (e.g. jar:file:/J:/DebugTools/target/DebugTools-1.0.jar!/)
+     */
+    public static String getRoot(URL url, String path) {
+        String location = url.toString();
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : location;
+    }
+
     /**
      * 将路径转为URI对象
      */
@@ -18,6 +18,8 @@ package io.github.future0923.debug.tools.hotswap.core.util.scanner;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.util.function.Predicate;
 
 /**
  * 扫描目录中的文件，每个文件都会调用{@link ScannerVisitor#visit(InputStream)}
@@ -32,5 +34,17 @@ public interface Scanner {
      *                    Semantics same as {@link ClassLoader#getResources}.
      * @param visitor     扫描器访问者
      */
-    void scan(ClassLoader classLoader, String path, ScannerVisitor visitor) throws IOException;
+    default void scan(ClassLoader classLoader, String path, ScannerVisitor visitor) throws IOException {
+        scan(classLoader, path, url -> true, visitor);
+    }
+
+    /**
+     * 扫描路径中的所有文件并调用{@link ScannerVisitor#visit(InputStream)}
+     *
+     * @param classLoader 用哪个类加载器加载path
+     * @param path        用'/'分隔的资源路径
+     * @param filter      过滤{@link ClassLoader#getResources}找到的各个目录，返回false的不扫描
+     * @param visitor     扫描器访问者
+     */
+    void scan(ClassLoader classLoader, String path, Predicate<URL> filter, ScannerVisitor visitor) throws IOException;
 }
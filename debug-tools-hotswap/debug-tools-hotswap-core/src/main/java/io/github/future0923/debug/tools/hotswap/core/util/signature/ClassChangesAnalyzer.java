@@ -19,7 +19,6 @@ package io.github.future0923.debug.tools.hotswap.core.util.signature;
 import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.hotswap.core.util.JavassistUtil;
 import javassist.ClassPool;
-import javassist.CtClass;
 
 /**
  * 解析Class是否需要进行Bean重新加载{@link #isReloadNeeded}
@@ -40,21 +39,22 @@ public class ClassChangesAnalyzer {
         return classChangeNeedsReload(classBeingRedefined, classfileBuffer, classLoader);
     }
 
+    /**
+     * 新的字节码只放入临时的子ClassPool，不替换类加载器共享的ClassPool中已缓存的CtClass，引用的其它类仍从共享的ClassPool中获取
+     */
     private static boolean classChangeNeedsReload(Class<?> classBeingRedefined, byte[] classfileBuffer, ClassLoader classLoader) {
         ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
         Thread.currentThread().setContextClassLoader(classLoader);
-        CtClass makeClass = null;
         try {
-            ClassPool classPool = JavassistUtil.getClassPool(classLoader);
-            makeClass = JavassistUtil.createCtClass(classPool, classfileBuffer);
+            ClassPool classPool = new ClassPool(JavassistUtil.getClassPool(classLoader));
+            // 共享的ClassPool中已有该类时也在子ClassPool中创建
+            classPool.childFirstLookup = true;
+            JavassistUtil.createCtClass(classPool, classfileBuffer);
             return ClassSignatureComparer.isPoolClassDifferent(classBeingRedefined, classPool);
         } catch (Exception e) {
             LOGGER.error("Error analyzing class {} for reload necessity. Defaulting to yes.", e, classBeingRedefined.getName());
         } finally {
             Thread.currentThread().setContextClassLoader(oldClassLoader);
-            if (makeClass != null) {
-                makeClass.detach();
-            }
         }
         return true;
     }
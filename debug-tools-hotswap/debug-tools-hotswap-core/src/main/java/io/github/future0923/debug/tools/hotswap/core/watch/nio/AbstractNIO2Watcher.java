@@ -32,6 +32,7 @@ import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -40,12 +41,15 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
@@ -66,7 +70,7 @@ public abstract class AbstractNIO2Watcher implements Watcher {
     /**
      * 文件观察服务
      */
-    protected WatchService watcher;
+    protected volatile WatchService watcher;
 
     /**
      * WatchKey对应的Path
@@ -98,6 +102,21 @@ public abstract class AbstractNIO2Watcher implements Watcher {
      */
     protected final EventDispatcher dispatcher;
 
+    /**
+     * 注册目录的线程池，并行遍历目录树，不占用Watch线程
+     */
+    protected final ForkJoinPool registerPool = new ForkJoinPool(Math.min(4, Runtime.getRuntime().availableProcessors()), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("HotSwap Watcher Register-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    /**
+     * 等待注册的新建目录，同一批次新建的目录合并后一起注册
+     */
+    private final List<Path> pendingDirectories = new ArrayList<>();
+
     public AbstractNIO2Watcher() throws IOException {
         this.watcher = FileSystems.getDefault().newWatchService();
         this.keys = new ConcurrentHashMap<>();
@@ -206,18 +225,20 @@ public abstract class AbstractNIO2Watcher implements Watcher {
                     LOGGER.error("Ooops", e);
                 }
             }
+            // 先替换再关闭，阻塞在旧WatchService上的Watch线程被唤醒后继续使用新的
+            WatchService closed = this.watcher;
             try {
-                this.watcher.close();
+                // Reset
+                this.watcher = FileSystems.getDefault().newWatchService();
             } catch (IOException e) {
                 LOGGER.error("Ooops", e);
             }
-            LOGGER.info("All classloaders closed, released watch service..");
             try {
-                // Reset
-                this.watcher = FileSystems.getDefault().newWatchService();
+                closed.close();
             } catch (IOException e) {
                 LOGGER.error("Ooops", e);
             }
+            LOGGER.info("All classloaders closed, released watch service..");
         }
         LOGGER.debug("All watch listeners removed for classLoader {}", classLoader);
     }
@@ -243,9 +264,13 @@ public abstract class AbstractNIO2Watcher implements Watcher {
      * @return 是否处理成功
      */
     private boolean processEvents() throws InterruptedException {
-        WatchKey key = watcher.poll(10, TimeUnit.MILLISECONDS);
-        if (key == null) {
-            return true;
+        WatchService service = watcher;
+        WatchKey key;
+        try {
+            key = service.take();
+        } catch (ClosedWatchServiceException e) {
+            // WatchService被替换时继续处理新的
+            return !stopped && watcher != service;
         }
         Path dir = keys.get(key);
         if (dir == null) {
@@ -267,8 +292,8 @@ public abstract class AbstractNIO2Watcher implements Watcher {
             dispatcher.add(ev, child);
 
             // 如果创建了目录，则注册监听下面的child
-            if (kind == ENTRY_CREATE) {
-                registerAll(child);
+            if (kind == ENTRY_CREATE && Files.isDirectory(child, NOFOLLOW_LINKS)) {
+                scheduleRegister(child);
             }
         }
 
@@ -294,6 +319,44 @@ public abstract class AbstractNIO2Watcher implements Watcher {
         return true;
     }
 
+    /**
+     * 新建的目录提交到注册线程池，注册前新建的目录合并到同一批次
+     */
+    private void scheduleRegister(Path dir) {
+        synchronized (pendingDirectories) {
+            pendingDirectories.add(dir);
+            if (pendingDirectories.size() > 1) {
+                return;
+            }
+        }
+        registerPool.execute(this::registerPendingDirectories);
+    }
+
+    /**
+     * 注册同一批次新建的目录，父目录也在批次中的子目录会在遍历父目录时注册，跳过
+     */
+    private void registerPendingDirectories() {
+        List<Path> batch;
+        synchronized (pendingDirectories) {
+            batch = new ArrayList<>(pendingDirectories);
+            pendingDirectories.clear();
+        }
+        Collections.sort(batch);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(batch.size());
+        Path last = null;
+        for (Path dir : batch) {
+            if (last != null && dir.startsWith(last)) {
+                continue;
+            }
+            last = dir;
+            tasks.add(ForkJoinTask.adapt(() -> registerAll(dir)));
+        }
+        if (tasks.size() > 1) {
+            LOGGER.debug("Registering {} created directories", tasks.size());
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
     private void registerAll(Path child) {
         try {
             if (Files.isDirectory(child, NOFOLLOW_LINKS) && Files.exists(child, NOFOLLOW_LINKS)) {
@@ -313,7 +376,7 @@ public abstract class AbstractNIO2Watcher implements Watcher {
                         break;
                     }
                 }
-            } catch (InterruptedException ignored) {
+            } catch (InterruptedException | ClosedWatchServiceException ignored) {
 
             }
         });
@@ -327,6 +390,10 @@ public abstract class AbstractNIO2Watcher implements Watcher {
     @Override
     public void stop() {
         stopped = true;
+        if (runner != null) {
+            runner.interrupt();
+        }
+        registerPool.shutdownNow();
     }
 
     /**
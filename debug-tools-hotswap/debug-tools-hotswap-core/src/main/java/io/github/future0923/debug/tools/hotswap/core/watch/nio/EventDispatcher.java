@@ -23,31 +23,37 @@ import io.github.future0923.debug.tools.hotswap.core.watch.WatchFileEvent;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 
 /**
  * Event分发器
+ * <p>
+ * 待分发的事件按路径合并，同一路径在分发前只保留最后一次事件，不会因为队列满而丢弃事件。
+ * 有事件时立即唤醒分发线程，等待{@link #DEBOUNCE_MILLIS}收集同一批次的事件后再分发
  */
 public class EventDispatcher implements Runnable {
 
     private static final Logger LOGGER = Logger.getLogger(EventDispatcher.class);
 
     /**
-     * PATH变动的监听者
+     * 收到事件后等待同一批次事件的时间
      */
-    private final Map<Path, List<WatchEventListener>> listeners;
+    private static final long DEBOUNCE_MILLIS = 20;
 
     /**
-     * 工作队列。事件队列{@link #eventQueue}调用drainTo后，所有待处理的事件都添加到此列表中
+     * PATH变动的监听者
      */
-    private final ArrayList<Event> working = new ArrayList<>();
+    private final Map<Path, List<WatchEventListener>> listeners;
 
     /**
-     * 待分发的事件
+     * 待分发的事件，按路径合并，保持首次加入的顺序
      */
-    private final ArrayBlockingQueue<Event> eventQueue = new ArrayBlockingQueue<>(500);
+    private final LinkedHashMap<Path, Event> pendingEvents = new LinkedHashMap<>();
 
     /**
      * 分发线程
@@ -61,60 +67,66 @@ public class EventDispatcher implements Runnable {
 
     @Override
     public void run() {
+        List<Event> working = new ArrayList<>();
         while (true) {
-            // 如果工作队列中有未处理的先处理
-            for (Event e : working) {
-                callListeners(e.event, e.path);
-                if (Thread.interrupted()) {
-                    return;
+            try {
+                synchronized (pendingEvents) {
+                    while (pendingEvents.isEmpty()) {
+                        pendingEvents.wait();
+                    }
+                }
+                Thread.sleep(DEBOUNCE_MILLIS);
+                // 取出事件放入工作队列
+                synchronized (pendingEvents) {
+                    working.addAll(pendingEvents.values());
+                    pendingEvents.clear();
                 }
-                Thread.yield();
+            } catch (InterruptedException e) {
+                return;
             }
-            // 取出事件方法working
-            eventQueue.drainTo(working);
-
-            // 处理新drainTo到工作队列中的事件
             for (Event e : working) {
                 callListeners(e.event, e.path);
                 if (Thread.interrupted()) {
                     return;
                 }
-                Thread.yield();
             }
-
             // 处理完清空工作队列
             working.clear();
-
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e1) {
-                return;
-            }
         }
     }
 
     /**
-     * 添加待分发的事件到事件队列
+     * 添加待分发的事件，同一路径未分发的事件会被合并：
+     * 新建后的修改仍为新建，其余情况以最后一次事件为准
      */
     public void add(WatchEvent<Path> event, Path path) {
-        eventQueue.offer(new Event(event, path));
+        synchronized (pendingEvents) {
+            Event pending = pendingEvents.get(path);
+            if (pending != null && pending.event.kind() == ENTRY_CREATE && event.kind() == ENTRY_MODIFY) {
+                return;
+            }
+            pendingEvents.put(path, new Event(event, path));
+            pendingEvents.notify();
+        }
     }
 
     /**
-     * 调用监听者
+     * 调用监听者，从事件路径开始逐级向上查找注册的监听路径
      */
     private void callListeners(final WatchEvent<?> event, final Path path) {
         boolean matchedOne = false;
-        for (Map.Entry<Path, List<WatchEventListener>> list : listeners.entrySet()) {
-            if (path.startsWith(list.getKey())) {
-                matchedOne = true;
-                for (WatchEventListener listener : new ArrayList<>(list.getValue())) {
-                    WatchFileEvent agentEvent = new HotswapWatchFileEvent(event, path);
-                    try {
-                        listener.onEvent(agentEvent);
-                    } catch (Throwable e) {
-                         LOGGER.error("Error in watch event '{}' listener'{}'", e, agentEvent, listener);
-                    }
+        WatchFileEvent agentEvent = new HotswapWatchFileEvent(event, path);
+        for (Path listenerPath = path; listenerPath != null; listenerPath = listenerPath.getParent()) {
+            List<WatchEventListener> list = listeners.get(listenerPath);
+            if (list == null) {
+                continue;
+            }
+            matchedOne = true;
+            for (WatchEventListener listener : new ArrayList<>(list)) {
+                try {
+                    listener.onEvent(agentEvent);
+                } catch (Throwable e) {
+                     LOGGER.error("Error in watch event '{}' listener'{}'", e, agentEvent, listener);
                 }
             }
         }
@@ -123,6 +135,15 @@ public class EventDispatcher implements Runnable {
         }
     }
 
+    /**
+     * 当前待分发的事件数量
+     */
+    public int getPendingCount() {
+        synchronized (pendingEvents) {
+            return pendingEvents.size();
+        }
+    }
+
     /**
      * 启动分发线程
      */
@@ -19,6 +19,7 @@ package io.github.future0923.debug.tools.hotswap.core.watch.nio;
 import io.github.future0923.debug.tools.hotswap.core.watch.HotswapAgentWatchEvent;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
@@ -28,7 +29,10 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
 
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 
@@ -51,6 +55,38 @@ public class WatcherNIO2 extends AbstractNIO2Watcher {
     @Override
     protected void registerAll(final Path dir, boolean fromCreateEvent) throws IOException {
         LOGGER.debug("Registering directory  {}", dir);
+        // 注册根目录，每个子目录树作为一个任务在注册线程池中并行遍历
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        if (fromCreateEvent) {
+            sendFakeCreateEvents(dir);
+        }
+        register(dir);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path child : stream) {
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    try {
+                        walkAndRegister(child, fromCreateEvent);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            if (ForkJoinTask.inForkJoinPool()) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                registerPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void walkAndRegister(Path dir, boolean fromCreateEvent) throws IOException {
         Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.config;
+
+import io.github.future0923.debug.tools.hotswap.core.util.JavassistUtil;
+import io.github.future0923.debug.tools.hotswap.core.util.signature.ClassChangesAnalyzer;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 批量重定义失败和签名变化时逐个重定义的回退流程
+ *
+ * @author future0923
+ */
+class ClassRedefinerTest {
+
+    private static final String BASE = "demo.redefine.Base";
+
+    private static final String CHILD = "demo.redefine.Child";
+
+    private static final String PLAIN = "demo.redefine.Plain";
+
+    /**
+     * 每次调用 redefineClasses 的类名
+     */
+    private final List<List<String>> redefineCalls = new ArrayList<>();
+
+    /**
+     * 包含这些类时 redefineClasses 抛出异常
+     */
+    private final Set<String> failClasses = new HashSet<>();
+
+    private ClassRedefiner redefiner;
+
+    private BytesClassLoader classLoader;
+
+    @BeforeEach
+    void before() throws Exception {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            if ("redefineClasses".equals(method.getName())) {
+                List<String> classNames = Arrays.stream((ClassDefinition[]) args[0]).map(d -> d.getDefinitionClass().getName()).collect(Collectors.toList());
+                redefineCalls.add(classNames);
+                for (String className : classNames) {
+                    if (failClasses.contains(className)) {
+                        throw new UnsupportedOperationException("class redefinition failed: " + className);
+                    }
+                }
+            }
+            return method.getReturnType() == boolean.class ? false : null;
+        });
+        redefiner = new ClassRedefiner(instrumentation, new Object());
+        classLoader = new BytesClassLoader();
+        classLoader.define(BASE, null, 0, null);
+        classLoader.define(CHILD, BASE, 0, null);
+        classLoader.define(PLAIN, null, 0, null);
+    }
+
+    /**
+     * 签名未变化的类在一次调用中重定义
+     */
+    @Test
+    void batch() throws Exception {
+        ClassRedefiner.RedefineResult result = redefiner.redefine(reloadMap(BASE, CHILD, PLAIN));
+        Assertions.assertEquals(1, redefineCalls.size());
+        Assertions.assertEquals(3, redefineCalls.get(0).size());
+        Assertions.assertFalse(result.hasFailure());
+        Assertions.assertTrue(result.getOutcomes().stream().noneMatch(ClassRedefiner.ClassOutcome::isIndividual));
+    }
+
+    /**
+     * 批量调用失败后按父类在前的顺序逐个重试，只有失败的类记录为失败
+     */
+    @Test
+    void batchFailureFallback() throws Exception {
+        failClasses.add(CHILD);
+        ClassRedefiner.RedefineResult result = redefiner.redefine(reloadMap(CHILD, PLAIN, BASE));
+        Assertions.assertEquals(4, redefineCalls.size());
+        Assertions.assertEquals(3, redefineCalls.get(0).size());
+        Assertions.assertEquals(Arrays.asList(CHILD), redefineCalls.get(3));
+        Assertions.assertTrue(result.hasFailure());
+        Assertions.assertEquals(1, result.getFailures().size());
+        ClassRedefiner.ClassOutcome failure = result.getFailures().get(0);
+        Assertions.assertEquals(CHILD, failure.getClassName());
+        Assertions.assertTrue(failure.isIndividual());
+        Assertions.assertInstanceOf(UnsupportedOperationException.class, failure.getError());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(BASE, PLAIN)), new HashSet<>(result.getClassNames(true)));
+    }
+
+    /**
+     * 不支持增强重定义时，签名变化的类不参与批量，单独重定义
+     */
+    @Test
+    void signatureChangedIndividually() throws Exception {
+        Assumptions.assumeFalse(redefiner.isEnhancedRedefinition());
+        Map<Class<?>, byte[]> reloadMap = reloadMap(BASE, PLAIN);
+        reloadMap.put(classLoader.loadClass(CHILD), createClassBytes(CHILD, BASE, 1, "public int added() { return 1; }"));
+        ClassRedefiner.RedefineResult result = redefiner.redefine(reloadMap);
+        Assertions.assertEquals(2, redefineCalls.size());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(BASE, PLAIN)), new HashSet<>(redefineCalls.get(0)));
+        Assertions.assertEquals(Arrays.asList(CHILD), redefineCalls.get(1));
+        Assertions.assertFalse(result.hasFailure());
+        for (ClassRedefiner.ClassOutcome outcome : result.getOutcomes()) {
+            Assertions.assertEquals(CHILD.equals(outcome.getClassName()), outcome.isIndividual());
+        }
+    }
+
+    /**
+     * 分析签名时不替换类加载器共享的ClassPool中已缓存的CtClass
+     */
+    @Test
+    void analyzeInChildClassPool() throws Exception {
+        JavassistUtil.insertClassPath(classLoader, PLAIN, classLoader.bytes.get(PLAIN));
+        ClassPool classPool = JavassistUtil.getClassPool(classLoader);
+        CtClass cached = classPool.get(PLAIN);
+        byte[] changed = createClassBytes(PLAIN, null, 1, "public int added() { return 1; }");
+        Assertions.assertTrue(ClassChangesAnalyzer.isReloadNeeded(classLoader.loadClass(PLAIN), changed, classLoader));
+        Assertions.assertFalse(ClassChangesAnalyzer.isReloadNeeded(classLoader.loadClass(PLAIN), classLoader.bytes.get(PLAIN), classLoader));
+        Assertions.assertSame(cached, classPool.get(PLAIN));
+        Assertions.assertEquals(1, cached.getDeclaredMethods().length);
+    }
+
+    private Map<Class<?>, byte[]> reloadMap(String... classNames) throws Exception {
+        Map<Class<?>, byte[]> reloadMap = new LinkedHashMap<>();
+        for (String className : classNames) {
+            reloadMap.put(classLoader.loadClass(className), createClassBytes(className, className.equals(CHILD) ? BASE : null, 1, null));
+        }
+        return reloadMap;
+    }
+
+    /**
+     * 生成类的字节码，version 只修改方法体
+     */
+    private static byte[] createClassBytes(String className, String superClassName, int version, String extraMethod) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass(className);
+        if (superClassName != null) {
+            CtClass superClass = classPool.makeClass(superClassName);
+            superClass.addConstructor(CtNewConstructor.defaultConstructor(superClass));
+            ctClass.setSuperclass(superClass);
+        }
+        ctClass.addMethod(CtMethod.make("public int version() { return " + version + "; }", ctClass));
+        if (extraMethod != null) {
+            ctClass.addMethod(CtMethod.make(extraMethod, ctClass));
+        }
+        return ctClass.toBytecode();
+    }
+
+    /**
+     * 从内存字节码定义类
+     */
+    private static class BytesClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> bytes = new HashMap<>();
+
+        private BytesClassLoader() {
+            super(ClassRedefinerTest.class.getClassLoader());
+        }
+
+        private void define(String className, String superClassName, int version, String extraMethod) throws Exception {
+            byte[] classBytes = createClassBytes(className, superClassName, version, extraMethod);
+            bytes.put(className, classBytes);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] classBytes = bytes.get(name);
+            if (classBytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, classBytes, 0, classBytes.length);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+
+/**
+ * @author future0923
+ */
+class ClassFileHashTableTest {
+
+    /**
+     * 编译器重写相同字节码时跳过，内容变化时处理
+     */
+    @Test
+    void skipUnchanged() {
+        ClassFileHashTable table = new ClassFileHashTable();
+        byte[] v1 = {1, 2, 3};
+        byte[] v2 = {1, 2, 4};
+        Assertions.assertTrue(table.update("/classes/A.class", v1));
+        Assertions.assertFalse(table.update("/classes/A.class", v1.clone()));
+        Assertions.assertTrue(table.update("/classes/A.class", v2));
+        Assertions.assertTrue(table.update("/classes/A.class", v1));
+    }
+
+    /**
+     * 扩容后所有文件的记录保持正确
+     */
+    @Test
+    void resize() {
+        ClassFileHashTable table = new ClassFileHashTable();
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(table.update("/classes/C" + i + ".class", new byte[]{(byte) i}));
+        }
+        Assertions.assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i % 2 == 1, table.update("/classes/C" + i + ".class", new byte[]{(byte) (i + i % 2)}));
+        }
+    }
+
+    /**
+     * 启动后第一次编译写出与加载时相同的字节码时跳过
+     */
+    @Test
+    void loadedClass() throws Exception {
+        URL location = new URL("file:/tmp/hash-table-test/classes/");
+        ProtectionDomain protectionDomain = new ProtectionDomain(new CodeSource(location, (Certificate[]) null), null);
+        byte[] loaded = {1, 2, 3};
+        ClassFileHashTable.recordLoadedClass(getClass().getClassLoader(), protectionDomain, "demo/Loaded", loaded);
+        String path = location.toURI().getPath() + "demo/Loaded.class";
+        Assertions.assertFalse(new ClassFileHashTable().update(path, loaded.clone()));
+        Assertions.assertTrue(new ClassFileHashTable().update(path, new byte[]{1, 2, 4}));
+    }
+
+    /**
+     * 不同类加载器的class目录分开比较，jar中加载的类不记录
+     */
+    @Test
+    void loadedClassPerLoader() throws Exception {
+        URL first = new URL("file:/tmp/hash-table-test/first/");
+        URL second = new URL("file:/tmp/hash-table-test/second%20dir/");
+        URL jar = new URL("file:/tmp/hash-table-test/lib.jar");
+        ClassLoader firstLoader = new URLClassLoader(new URL[0], null);
+        ClassLoader secondLoader = new URLClassLoader(new URL[0], null);
+        ClassFileHashTable.recordLoadedClass(firstLoader, protectionDomain(first), "demo/Loaded", new byte[]{1});
+        ClassFileHashTable.recordLoadedClass(secondLoader, protectionDomain(second), "demo/Loaded", new byte[]{2});
+        ClassFileHashTable.recordLoadedClass(secondLoader, protectionDomain(jar), "demo/Jar", new byte[]{3});
+        ClassFileHashTable.recordLoadedClass(null, protectionDomain(first), "demo/Boot", new byte[]{4});
+        Assertions.assertFalse(new ClassFileHashTable().update("/tmp/hash-table-test/first/demo/Loaded.class", new byte[]{1}));
+        Assertions.assertTrue(new ClassFileHashTable().update("/tmp/hash-table-test/first/demo/Loaded.class", new byte[]{2}));
+        Assertions.assertFalse(new ClassFileHashTable().update("/tmp/hash-table-test/second dir/demo/Loaded.class", new byte[]{2}));
+        Assertions.assertTrue(new ClassFileHashTable().update("/tmp/hash-table-test/demo/Jar.class", new byte[]{3}));
+        Assertions.assertTrue(new ClassFileHashTable().update("/tmp/hash-table-test/first/demo/Boot.class", new byte[]{4}));
+    }
+
+    /**
+     * 类加载器被回收后移除加载时的记录
+     */
+    @Test
+    void evictCollectedLoader() throws Exception {
+        URL location = new URL("file:/tmp/hash-table-test/evict/");
+        ClassLoader classLoader = new URLClassLoader(new URL[0], null);
+        ClassFileHashTable.recordLoadedClass(classLoader, protectionDomain(location), "demo/Evict", new byte[]{5});
+        String path = "/tmp/hash-table-test/evict/demo/Evict.class";
+        Assertions.assertFalse(new ClassFileHashTable().update(path, new byte[]{5}));
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(reference.get());
+        Assertions.assertTrue(new ClassFileHashTable().update(path, new byte[]{5}));
+    }
+
+    private static ProtectionDomain protectionDomain(URL location) {
+        return new ProtectionDomain(new CodeSource(location, (Certificate[]) null), null);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.hotswap.core.util;
+
+import javassist.ByteArrayClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtMethod;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author future0923
+ */
+class ManagedClassPoolTest {
+
+    /**
+     * 从类路径加载的类超过上限时移除最久未使用的
+     */
+    @Test
+    void boundedCache() throws Exception {
+        ManagedClassPool classPool = new ManagedClassPool(100);
+        for (int i = 0; i < 500; i++) {
+            loadFromClassPath(classPool, "demo.Cached" + i);
+            Assertions.assertTrue(classPool.getCachedSize() <= classPool.getMaxSize());
+        }
+        Assertions.assertEquals(400, classPool.getEvictedCount());
+        // 被移除的类可以重新从类路径中加载
+        Assertions.assertNotNull(classPool.get("demo.Cached0"));
+    }
+
+    /**
+     * makeClass创建的和已修改的CtClass不会被移除，再次get拿到的是同一个对象
+     */
+    @Test
+    void keepInUse() throws Exception {
+        ManagedClassPool classPool = new ManagedClassPool(10);
+        CtClass dynamic = JavassistUtil.createCtClass(classPool, createClassBytes("demo.Dynamic", 0));
+        CtClass modified = loadFromClassPath(classPool, "demo.Modified");
+        modified.addField(CtField.make("public int added;", modified));
+        for (int i = 0; i < 100; i++) {
+            loadFromClassPath(classPool, "demo.Other" + i);
+        }
+        Assertions.assertSame(dynamic, classPool.get("demo.Dynamic"));
+        Assertions.assertSame(modified, classPool.get("demo.Modified"));
+        Assertions.assertTrue(classPool.getCachedSize() <= classPool.getMaxSize());
+    }
+
+    /**
+     * detach后不占用缓存
+     */
+    @Test
+    void detach() throws Exception {
+        ManagedClassPool classPool = new ManagedClassPool(100);
+        CtClass ctClass = JavassistUtil.createCtClass(classPool, createClassBytes("demo.Detach", 0));
+        Assertions.assertEquals(1, classPool.getCachedSize());
+        JavassistUtil.detach(ctClass);
+        Assertions.assertEquals(0, classPool.getCachedSize());
+    }
+
+    private static CtClass loadFromClassPath(ClassPool classPool, String className) throws Exception {
+        classPool.insertClassPath(new ByteArrayClassPath(className, createClassBytes(className, 0)));
+        return classPool.get(className);
+    }
+
+    private static byte[] createClassBytes(String className, int version) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass(className);
+        ctClass.addMethod(CtMethod.make("public int version() { return " + version + "; }", ctClass));
+        byte[] bytes = ctClass.toBytecode();
+        ctClass.detach();
+        return bytes;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.idea.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.psi.PsiMethod;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeTraceMetricsRequestPacket;
+import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.socket.utils.SocketSendUtils;
+import io.github.future0923.debug.tools.idea.utils.DebugToolsIdeaClassUtil;
+import io.github.future0923.debug.tools.idea.utils.DebugToolsNotifierUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * 开启/取消方法指标，只统计调用次数和耗时分布，不生成调用树
+ *
+ * @author future0923
+ */
+public abstract class AbstractTraceMetricsMethodAction extends AnAction {
+
+    protected abstract boolean isAddMetricsMethod();
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(Objects.nonNull(DebugToolsIdeaClassUtil.getCaretPsiMethod(e)));
+        if (isAddMetricsMethod()) {
+            e.getPresentation().setText(DebugToolsBundle.message("action.trace.metrics.add.text"));
+            e.getPresentation().setDescription(DebugToolsBundle.message("action.trace.metrics.add.description"));
+        } else {
+            e.getPresentation().setText(DebugToolsBundle.message("action.trace.metrics.cancel.text"));
+            e.getPresentation().setDescription(DebugToolsBundle.message("action.trace.metrics.cancel.description"));
+        }
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        if (e.getProject() == null) {
+            return;
+        }
+        PsiMethod psiMethod = DebugToolsIdeaClassUtil.getCaretPsiMethod(e);
+        if (psiMethod == null) {
+            return;
+        }
+        if (psiMethod.getContainingClass() == null) {
+            return;
+        }
+        ChangeTraceMetricsRequestPacket packet = new ChangeTraceMetricsRequestPacket(
+                isAddMetricsMethod(),
+                psiMethod.getContainingClass().getQualifiedName(),
+                psiMethod.getName(),
+                DebugToolsIdeaClassUtil.getMethodDescriptor(psiMethod));
+        SocketSendUtils.send(e.getProject(), packet, () -> DebugToolsNotifierUtil.notifyInfo(e.getProject(),
+                DebugToolsBundle.message(isAddMetricsMethod() ? "action.trace.metrics.add.success" : "action.trace.metrics.cancel.success", psiMethod.getName())));
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
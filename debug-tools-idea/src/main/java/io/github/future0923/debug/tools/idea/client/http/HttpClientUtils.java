@@ -22,8 +22,14 @@ import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
 import io.github.future0923.debug.tools.common.dto.RunResultDTO;
 import io.github.future0923.debug.tools.common.enums.PrintResultType;
 import io.github.future0923.debug.tools.common.protocal.http.AllClassLoaderRes;
+import io.github.future0923.debug.tools.common.protocal.http.ConnectionPoolReq;
+import io.github.future0923.debug.tools.common.protocal.http.ConnectionPoolRes;
 import io.github.future0923.debug.tools.common.protocal.http.RunResultDetailReq;
 import io.github.future0923.debug.tools.common.protocal.http.RunResultTypeReq;
+import io.github.future0923.debug.tools.common.protocal.http.SqlStatisticsReq;
+import io.github.future0923.debug.tools.common.protocal.http.SqlStatisticsRes;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsReq;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
 import io.github.future0923.debug.tools.common.utils.DebugToolsJsonUtils;
 import io.github.future0923.debug.tools.idea.setting.DebugToolsSettingState;
 
@@ -45,6 +51,12 @@ public class HttpClientUtils {
 
     private static final String GET_APPLICATION_NAME_URI = "/getApplicationName";
 
+    private static final String TRACE_METRICS_URI = "/trace/metrics";
+
+    private static final String SQL_STATISTICS_URI = "/sql/statistics";
+
+    private static final String CONNECTION_POOL_URI = "/sql/pool";
+
     private static final int TIMEOUT = 5000;
 
     public static String resultType(Project project, String offsetPath, String printResultType) {
@@ -82,6 +94,28 @@ public class HttpClientUtils {
         return DebugToolsJsonUtils.toMethodTreeList(body);
     }
 
+    public static TraceMetricsRes traceMetrics(Project project, boolean reset) {
+        TraceMetricsReq req = new TraceMetricsReq();
+        req.setReset(reset);
+        String body = HttpUtil.post(DebugToolsSettingState.getInstance(project).getUrl(TRACE_METRICS_URI), DebugToolsJsonUtils.toJsonStr(req), TIMEOUT);
+        return DebugToolsJsonUtils.toBean(body, TraceMetricsRes.class);
+    }
+
+    public static SqlStatisticsRes sqlStatistics(Project project, Integer limit, boolean reset) {
+        SqlStatisticsReq req = new SqlStatisticsReq();
+        req.setLimit(limit);
+        req.setReset(reset);
+        String body = HttpUtil.post(DebugToolsSettingState.getInstance(project).getUrl(SQL_STATISTICS_URI), DebugToolsJsonUtils.toJsonStr(req), TIMEOUT);
+        return DebugToolsJsonUtils.toBean(body, SqlStatisticsRes.class);
+    }
+
+    public static ConnectionPoolRes connectionPool(Project project, boolean reset) {
+        ConnectionPoolReq req = new ConnectionPoolReq();
+        req.setReset(reset);
+        String body = HttpUtil.post(DebugToolsSettingState.getInstance(project).getUrl(CONNECTION_POOL_URI), DebugToolsJsonUtils.toJsonStr(req), TIMEOUT);
+        return DebugToolsJsonUtils.toBean(body, ConnectionPoolRes.class);
+    }
+
     public static AllClassLoaderRes allClassLoader(Project project) throws IOException, InterruptedException {
         String body = HttpUtil.get(DebugToolsSettingState.getInstance(project).getUrl(ALL_CLASS_LOADER_URI), TIMEOUT);
         return DebugToolsJsonUtils.toBean(body, AllClassLoaderRes.class);
@@ -134,6 +134,11 @@ public class DebugToolsJavaProgramPatcher extends JavaProgramPatcher {
             agentArgs.setAutoAttach(settingState.getAutoAttach().toString());
             agentArgs.setAutoSaveSql(settingState.getAutoSaveSql().toString());
             agentArgs.setSqlRetentionDays(settingState.getSqlRetentionDays());
+            agentArgs.setSqlSlowThreshold(settingState.getSqlSlowThreshold());
+            agentArgs.setSqlRepeatedThreshold(settingState.getSqlRepeatedThreshold());
+            if (settingState.getSqlSamplePercent() != null) {
+                agentArgs.setSqlSampleRate(String.valueOf(settingState.getSqlSamplePercent() / 100.0));
+            }
             if (settingState.getAutoAttach()) {
                 FileUtil.writeUtf8String("0", DebugToolsFileUtils.getAutoAttachFile());
             }
@@ -28,7 +28,10 @@ import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
 import io.github.future0923.debug.tools.base.hutool.core.util.ObjectUtil;
 import io.github.future0923.debug.tools.base.hutool.core.util.StrUtil;
 import io.github.future0923.debug.tools.common.dto.TraceMethodDTO;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeSqlPrintConfigRequestPacket;
 import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.ApplicationProjectHolder;
+import io.github.future0923.debug.tools.idea.client.socket.utils.SocketSendUtils;
 import io.github.future0923.debug.tools.idea.tool.DebugToolsToolWindow;
 import io.github.future0923.debug.tools.idea.tool.DebugToolsToolWindowFactory;
 import io.github.future0923.debug.tools.idea.ui.setting.SettingPanel;
@@ -121,6 +124,15 @@ public class DebugToolsSettingConfigurable implements Configurable {
                 return true;
             }
         }
+        if (!Objects.equals(settingState.getSqlSlowThreshold(), settingPanel.getSqlSlowThresholdField().getNumber())) {
+            return true;
+        }
+        if (!Objects.equals(settingState.getSqlSamplePercent(), settingPanel.getSqlSamplePercentField().getNumber())) {
+            return true;
+        }
+        if (!Objects.equals(settingState.getSqlRepeatedThreshold(), settingPanel.getSqlRepeatedThresholdField().getNumber())) {
+            return true;
+        }
         if (settingState.getTraceMethodDTO() == null) {
             return true;
         }
@@ -136,6 +148,15 @@ public class DebugToolsSettingConfigurable implements Configurable {
         if (!Objects.equals(settingState.getTraceMethodDTO().getTraceSQL(), settingPanel.getTraceMethodPanel().isTraceSql())) {
             return true;
         }
+        if (!Objects.equals(BooleanUtil.isTrue(settingState.getTraceMethodDTO().getTraceAsync()), settingPanel.getTraceMethodPanel().isTraceAsync())) {
+            return true;
+        }
+        if (!Objects.equals(BooleanUtil.isTrue(settingState.getTraceMethodDTO().getTraceThrowable()), settingPanel.getTraceMethodPanel().isTraceThrowable())) {
+            return true;
+        }
+        if (!Objects.equals(BooleanUtil.isTrue(settingState.getTraceMethodDTO().getTraceParams()), settingPanel.getTraceMethodPanel().isTraceParams())) {
+            return true;
+        }
         if (!Objects.equals(settingState.getTraceMethodDTO().getTraceSkipStartGetSetCheckBox(), settingPanel.getTraceMethodPanel().isTraceSkipStartGetSetCheckBox())) {
             return true;
         }
@@ -220,6 +241,9 @@ public class DebugToolsSettingConfigurable implements Configurable {
 
         settingPanel.getSaveSqlCheckBox().setSelected(BooleanUtil.isTrue(settingState.getAutoSaveSql()));
         settingPanel.getSaveSqlDaysField().setNumber(settingState.getSqlRetentionDays());
+        settingPanel.getSqlSlowThresholdField().setNumber(settingState.getSqlSlowThreshold());
+        settingPanel.getSqlSamplePercentField().setNumber(settingState.getSqlSamplePercent());
+        settingPanel.getSqlRepeatedThresholdField().setNumber(settingState.getSqlRepeatedThreshold());
 
         if (settingState.getSearchLibrary()) {
             settingPanel.getSearchLib().setSelected(true);
@@ -244,6 +268,9 @@ public class DebugToolsSettingConfigurable implements Configurable {
         settingPanel.getTraceMethodPanel().setMaxDepth(traceMethodDTO.getTraceMaxDepth());
         settingPanel.getTraceMethodPanel().setTraceMyBatis(traceMethodDTO.getTraceMyBatis());
         settingPanel.getTraceMethodPanel().setTraceSql(traceMethodDTO.getTraceSQL());
+        settingPanel.getTraceMethodPanel().setTraceAsync(BooleanUtil.isTrue(traceMethodDTO.getTraceAsync()));
+        settingPanel.getTraceMethodPanel().setTraceThrowable(BooleanUtil.isTrue(traceMethodDTO.getTraceThrowable()));
+        settingPanel.getTraceMethodPanel().setTraceParams(BooleanUtil.isTrue(traceMethodDTO.getTraceParams()));
         settingPanel.getTraceMethodPanel().setTraceSkipStartGetSetCheckBox(traceMethodDTO.getTraceSkipStartGetSetCheckBox());
         settingPanel.getTraceMethodPanel().setTraceBusinessPackage(traceMethodDTO.getTraceBusinessPackageRegexp());
         settingPanel.getTraceMethodPanel().setTraceIgnorePackage(traceMethodDTO.getTraceIgnorePackageRegexp());
@@ -306,6 +333,18 @@ public class DebugToolsSettingConfigurable implements Configurable {
         settingState.setAutoSaveSql(settingPanel.getSaveSqlCheckBox().isSelected());
         settingState.setSqlRetentionDays(Math.max(1, settingPanel.getSaveSqlDaysField().getNumber()));
 
+        int sqlSlowThreshold = settingPanel.getSqlSlowThresholdField().getNumber();
+        int sqlSamplePercent = settingPanel.getSqlSamplePercentField().getNumber();
+        int sqlRepeatedThreshold = settingPanel.getSqlRepeatedThresholdField().getNumber();
+        if (!Objects.equals(settingState.getSqlSlowThreshold(), sqlSlowThreshold)
+                || !Objects.equals(settingState.getSqlSamplePercent(), sqlSamplePercent)
+                || !Objects.equals(settingState.getSqlRepeatedThreshold(), sqlRepeatedThreshold)) {
+            settingState.setSqlSlowThreshold(sqlSlowThreshold);
+            settingState.setSqlSamplePercent(sqlSamplePercent);
+            settingState.setSqlRepeatedThreshold(sqlRepeatedThreshold);
+            changeSqlPrintConfig(sqlSlowThreshold, sqlSamplePercent, sqlRepeatedThreshold);
+        }
+
         DebugToolsToolWindowFactory.consumerToolWindow(project, DebugToolsToolWindow::refreshToolBar);
 
         TraceMethodDTO traceMethodDTO = new TraceMethodDTO();
@@ -313,6 +352,9 @@ public class DebugToolsSettingConfigurable implements Configurable {
         traceMethodDTO.setTraceMaxDepth(settingPanel.getTraceMethodPanel().getMaxDepth());
         traceMethodDTO.setTraceMyBatis(settingPanel.getTraceMethodPanel().isTraceMyBatis());
         traceMethodDTO.setTraceSQL(settingPanel.getTraceMethodPanel().isTraceSql());
+        traceMethodDTO.setTraceAsync(settingPanel.getTraceMethodPanel().isTraceAsync());
+        traceMethodDTO.setTraceThrowable(settingPanel.getTraceMethodPanel().isTraceThrowable());
+        traceMethodDTO.setTraceParams(settingPanel.getTraceMethodPanel().isTraceParams());
         traceMethodDTO.setTraceSkipStartGetSetCheckBox(settingPanel.getTraceMethodPanel().isTraceSkipStartGetSetCheckBox());
         traceMethodDTO.setTraceBusinessPackageRegexp(settingPanel.getTraceMethodPanel().getTraceBusinessPackage());
         traceMethodDTO.setTraceIgnorePackageRegexp(settingPanel.getTraceMethodPanel().getTraceIgnorePackage());
@@ -338,6 +380,22 @@ public class DebugToolsSettingConfigurable implements Configurable {
         }
     }
 
+    /**
+     * 已附着应用时立即修改应用的SQL打印配置，未附着时在下次启动时通过agent参数生效
+     */
+    private void changeSqlPrintConfig(int sqlSlowThreshold, int sqlSamplePercent, int sqlRepeatedThreshold) {
+        if (ApplicationProjectHolder.getInfo(project) == null) {
+            return;
+        }
+        ChangeSqlPrintConfigRequestPacket packet = new ChangeSqlPrintConfigRequestPacket((long) sqlSlowThreshold, sqlSamplePercent / 100.0, sqlRepeatedThreshold);
+        try {
+            SocketSendUtils.sendThrowException(project, packet);
+            DebugToolsNotifierUtil.notifyInfo(project, DebugToolsBundle.message("setting.panel.sql.print.config.changed"));
+        } catch (Exception e) {
+            DebugToolsNotifierUtil.notifyError(project, DebugToolsBundle.message("setting.panel.sql.print.config.change.error", e.getMessage()));
+        }
+    }
+
     @Override
     public void disposeUIResources() {
         project = null;
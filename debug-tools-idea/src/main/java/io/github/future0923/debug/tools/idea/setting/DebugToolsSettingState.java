@@ -142,6 +142,21 @@ public class DebugToolsSettingState implements PersistentStateComponent<DebugToo
      */
     private Integer sqlRetentionDays = 1;
 
+    /**
+     * 慢SQL阈值(ms)，只打印和保存耗时不小于该值的SQL，0表示全部打印
+     */
+    private Integer sqlSlowThreshold = 0;
+
+    /**
+     * SQL打印采样百分比，取值 0~100，100表示全部打印
+     */
+    private Integer sqlSamplePercent = 100;
+
+    /**
+     * 追踪时同一方法中相同指纹的SQL执行次数达到该值时标记为N+1查询
+     */
+    private Integer sqlRepeatedThreshold = 3;
+
     /**
      * 远程应用名称
      */
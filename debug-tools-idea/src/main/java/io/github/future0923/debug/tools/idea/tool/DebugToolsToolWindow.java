@@ -29,9 +29,12 @@ import io.github.future0923.debug.tools.idea.setting.DebugToolsSettingState;
 import io.github.future0923.debug.tools.idea.tool.action.AttachAction;
 import io.github.future0923.debug.tools.idea.tool.action.ClearCacheAction;
 import io.github.future0923.debug.tools.idea.tool.action.ConnectAction;
+import io.github.future0923.debug.tools.idea.tool.action.ConnectionPoolAction;
 import io.github.future0923.debug.tools.idea.tool.action.HelpAction;
 import io.github.future0923.debug.tools.idea.tool.action.SettingAction;
 import io.github.future0923.debug.tools.idea.tool.action.SqlHistoryAction;
+import io.github.future0923.debug.tools.idea.tool.action.SqlStatisticsAction;
+import io.github.future0923.debug.tools.idea.tool.action.TraceMetricsAction;
 import io.github.future0923.debug.tools.idea.tool.ui.GlobalParamPanel;
 import io.github.future0923.debug.tools.idea.tool.ui.InvokeMethodRecordPanel;
 import lombok.Getter;
@@ -74,6 +77,9 @@ public class DebugToolsToolWindow extends SimpleToolWindowPanel {
         if (DebugToolsSettingState.getInstance(project).getAutoSaveSql()) {
             defaultActionGroup.add(new SqlHistoryAction());
         }
+        defaultActionGroup.add(new SqlStatisticsAction());
+        defaultActionGroup.add(new ConnectionPoolAction());
+        defaultActionGroup.add(new TraceMetricsAction());
         defaultActionGroup.addSeparator();
         defaultActionGroup.add(new SettingAction());
         defaultActionGroup.add(new HelpAction());
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.idea.tool.action;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.ApplicationProjectHolder;
+import io.github.future0923.debug.tools.idea.tool.DebugToolsToolWindow;
+import io.github.future0923.debug.tools.idea.ui.dialog.ConnectionPoolDialog;
+import io.github.future0923.debug.tools.idea.utils.DebugToolsIcons;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 查看连接池获取连接耗时和状态
+ *
+ * @author future0923
+ */
+public class ConnectionPoolAction extends BaseToolAction {
+
+    public ConnectionPoolAction() {
+        super();
+        getTemplatePresentation().setText(DebugToolsBundle.message("action.tool.connection.pool.text"));
+        getTemplatePresentation().setIcon(DebugToolsIcons.Trace.Database);
+        getTemplatePresentation().setDescription(DebugToolsBundle.message("action.tool.connection.pool.description"));
+    }
+
+    @Override
+    protected void doActionPerformed(@NotNull Project project, @NotNull DebugToolsToolWindow toolWindow) {
+        if (ApplicationProjectHolder.getInfo(project) == null) {
+            Messages.showErrorDialog(DebugToolsBundle.message("dialog.error.run.attach.first"), DebugToolsBundle.message("dialog.title.execution.failed"));
+            return;
+        }
+        new ConnectionPoolDialog(project).show();
+    }
+}
@@ -16,21 +16,34 @@
  */
 package io.github.future0923.debug.tools.idea.tool.action;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import io.github.future0923.debug.tools.base.constants.ProjectConstants;
+import io.github.future0923.debug.tools.base.sql.SqlArchive;
 import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
 import io.github.future0923.debug.tools.idea.tool.DebugToolsToolWindow;
 import io.github.future0923.debug.tools.idea.utils.DebugToolsIcons;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
  * SQL历史记录Action
+ * <p>
+ * 当天的记录超过分段上限后，前面的部分已经压缩为 {@code yyyy-MM-dd-NNN.sql.gz}，
+ * 这时通过 {@link SqlArchive#query} 读取当天的全部记录生成快照文件再打开
  *
  * @author future0923
  */
@@ -49,31 +62,83 @@ public class SqlHistoryAction extends BaseToolAction {
             // 获取当前日期
             LocalDate today = LocalDate.now();
             String dateStr = today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            
+
+            File sqlDir = new File(project.getBasePath(), String.format("./.idea/%s/sql", ProjectConstants.NAME));
+            if (hasClosedSegment(sqlDir, dateStr)) {
+                // 从归档中读取可能较慢，不在UI线程中执行
+                ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                    try {
+                        File historyFile = writeHistoryFile(sqlDir, today, dateStr);
+                        ApplicationManager.getApplication().invokeLater(() -> openFile(project, historyFile));
+                    } catch (Exception e) {
+                        ApplicationManager.getApplication().invokeLater(() -> showError(project, e));
+                    }
+                });
+                return;
+            }
+
             // 构建SQL文件路径
-            String sqlFilePath = String.format("./.idea/%s/sql/%s.sql",ProjectConstants.NAME,dateStr);
-            
-            // 检查文件是否存在
-            File sqlFile = new File(project.getBasePath(), sqlFilePath);
+            File sqlFile = new File(sqlDir, dateStr + SqlArchive.SEGMENT_SUFFIX);
             if (!sqlFile.exists()) {
                 // 如果文件不存在，创建一个空文件
                 sqlFile.getParentFile().mkdirs();
                 sqlFile.createNewFile();
             }
-            
-            // 刷新文件系统
-            LocalFileSystem.getInstance().refreshAndFindFileByPath(sqlFile.getAbsolutePath());
-            
-            // 打开文件
-            VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(sqlFile.getAbsolutePath());
-            if (virtualFile != null) {
-                virtualFile.refresh(false, false);
-                com.intellij.openapi.fileEditor.FileEditorManager.getInstance(project).openFile(virtualFile, true);
-            }
-            
+            openFile(project, sqlFile);
         } catch (Exception e) {
-            com.intellij.openapi.ui.Messages.showErrorDialog(project, 
-                "Failed to open SQL history file: " + e.getMessage(), DebugToolsBundle.message("dialog.title.execution.failed"));
+            showError(project, e);
+        }
+    }
+
+    /**
+     * 当天是否有已经关闭的分段
+     */
+    private static boolean hasClosedSegment(File sqlDir, String dateStr) {
+        String[] names = sqlDir.list((dir, name) -> name.startsWith(dateStr + "-") && name.endsWith(SqlArchive.SEGMENT_SUFFIX + SqlArchive.INDEX_SUFFIX));
+        return names != null && names.length > 0;
+    }
+
+    /**
+     * 将当天的全部记录按时间顺序写入 {@code history/yyyy-MM-dd.sql}，逐条写入不在内存中保留，之前生成的快照删除
+     */
+    private static File writeHistoryFile(File sqlDir, LocalDate today, String dateStr) throws IOException {
+        File historyDir = new File(sqlDir, "history");
+        File historyFile = new File(historyDir, dateStr + SqlArchive.SEGMENT_SUFFIX);
+        File[] oldFiles = historyDir.listFiles((dir, name) -> !name.equals(historyFile.getName()));
+        if (oldFiles != null) {
+            for (File oldFile : oldFiles) {
+                oldFile.delete();
+            }
+        }
+        historyDir.mkdirs();
+        long startTime = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long endTime = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (BufferedWriter writer = Files.newBufferedWriter(historyFile.toPath(), StandardCharsets.UTF_8)) {
+            SqlArchive.query(sqlDir.toPath(), startTime, endTime, 0, null, record -> {
+                try {
+                    writer.write(record.getText());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        return historyFile;
+    }
+
+    private static void openFile(Project project, File file) {
+        // 刷新文件系统
+        VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByPath(file.getAbsolutePath());
+        if (virtualFile != null) {
+            virtualFile.refresh(false, false);
+            FileEditorManager.getInstance(project).openFile(virtualFile, true);
+        }
+    }
+
+    private static void showError(Project project, Exception e) {
+        Messages.showErrorDialog(project,
+                "Failed to open SQL history file: " + e.getMessage(), DebugToolsBundle.message("dialog.title.execution.failed"));
     }
-} 
\ No newline at end of file
+}
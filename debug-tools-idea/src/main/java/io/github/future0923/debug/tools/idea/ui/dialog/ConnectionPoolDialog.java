@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.idea.ui.dialog;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import io.github.future0923.debug.tools.common.protocal.http.ConnectionPoolRes;
+import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.http.HttpClientUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.event.ActionEvent;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 连接池统计，上方为各连接池获取连接的耗时，下方为选中连接池的状态采样
+ *
+ * @author future0923
+ */
+public class ConnectionPoolDialog extends DialogWrapper {
+
+    private final Project project;
+
+    private final DefaultTableModel poolTableModel = new DefaultTableModel(new Object[]{
+            DebugToolsBundle.message("connection.pool.column.type"),
+            DebugToolsBundle.message("connection.pool.column.name"),
+            DebugToolsBundle.message("connection.pool.column.count"),
+            "Avg(μs)", "Max(μs)", "P50(μs)", "P90(μs)", "P99(μs)"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private final DefaultTableModel sampleTableModel = new DefaultTableModel(new Object[]{
+            DebugToolsBundle.message("connection.pool.column.time"),
+            DebugToolsBundle.message("connection.pool.column.active"),
+            DebugToolsBundle.message("connection.pool.column.idle"),
+            DebugToolsBundle.message("connection.pool.column.waiting")}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private final JBTable poolTable = new JBTable(poolTableModel);
+
+    private final JBTable sampleTable = new JBTable(sampleTableModel);
+
+    private List<ConnectionPoolRes.Item> itemList = Collections.emptyList();
+
+    public ConnectionPoolDialog(Project project) {
+        super(project, true, IdeModalityType.MODELESS);
+        this.project = project;
+        setTitle(DebugToolsBundle.message("connection.pool.title"));
+        init();
+        poolTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        poolTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = poolTable.getSelectedRow();
+            showSampleList(row >= 0 && row < itemList.size() ? itemList.get(row) : null);
+        });
+        load(false);
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JBSplitter splitter = new JBSplitter(true, 0.4f);
+        splitter.setFirstComponent(new JBScrollPane(poolTable));
+        splitter.setSecondComponent(new JBScrollPane(sampleTable));
+        splitter.setPreferredSize(JBUI.size(900, 500));
+        return splitter;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{
+                new DialogWrapperAction(DebugToolsBundle.message("connection.pool.refresh")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(false);
+                    }
+                },
+                new DialogWrapperAction(DebugToolsBundle.message("connection.pool.reset")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(true);
+                    }
+                },
+                getOKAction()};
+    }
+
+    /**
+     * 在后台线程请求统计，reset 为 true 时服务端换下当前统计并返回
+     */
+    private void load(boolean reset) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                ConnectionPoolRes res = HttpClientUtils.connectionPool(project, reset);
+                List<ConnectionPoolRes.Item> list = res == null || res.getItemList() == null ? Collections.emptyList() : res.getItemList();
+                ApplicationManager.getApplication().invokeLater(() -> showItemList(list), ModalityState.any());
+            } catch (Exception e) {
+                ApplicationManager.getApplication().invokeLater(() -> setErrorText(DebugToolsBundle.message("connection.pool.load.error") + e.getMessage()), ModalityState.any());
+            }
+        });
+    }
+
+    private void showItemList(List<ConnectionPoolRes.Item> list) {
+        if (isDisposed()) {
+            return;
+        }
+        setErrorText(null);
+        int selectedRow = poolTable.getSelectedRow();
+        itemList = new ArrayList<>(list);
+        poolTableModel.setRowCount(0);
+        for (ConnectionPoolRes.Item item : itemList) {
+            poolTableModel.addRow(new Object[]{
+                    item.getPoolType(),
+                    item.getPoolName(),
+                    item.getCount(),
+                    item.getAvgMicros(),
+                    item.getMaxMicros(),
+                    item.getP50Micros(),
+                    item.getP90Micros(),
+                    item.getP99Micros()});
+        }
+        if (itemList.isEmpty()) {
+            showSampleList(null);
+        } else {
+            int row = selectedRow >= 0 && selectedRow < itemList.size() ? selectedRow : 0;
+            poolTable.setRowSelectionInterval(row, row);
+        }
+    }
+
+    /**
+     * 最新的采样在最上方
+     */
+    private void showSampleList(ConnectionPoolRes.Item item) {
+        sampleTableModel.setRowCount(0);
+        if (item == null || item.getSampleList() == null) {
+            return;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
+        List<ConnectionPoolRes.Sample> sampleList = item.getSampleList();
+        for (int i = sampleList.size() - 1; i >= 0; i--) {
+            ConnectionPoolRes.Sample sample = sampleList.get(i);
+            sampleTableModel.addRow(new Object[]{
+                    sample.getTime() == null ? "" : format.format(new Date(sample.getTime())),
+                    sample.getActive(),
+                    sample.getIdle(),
+                    sample.getWaiting()});
+        }
+    }
+}
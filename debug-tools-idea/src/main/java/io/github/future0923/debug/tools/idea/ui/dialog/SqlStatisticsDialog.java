@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.idea.ui.dialog;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import io.github.future0923.debug.tools.common.protocal.http.SqlStatisticsRes;
+import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.http.HttpClientUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL执行统计，上方为按指纹聚合的次数、耗时和百分位，下方为选中指纹的SQL示例
+ *
+ * @author future0923
+ */
+public class SqlStatisticsDialog extends DialogWrapper {
+
+    private final Project project;
+
+    private final DefaultTableModel tableModel = new DefaultTableModel(new Object[]{
+            DebugToolsBundle.message("sql.statistics.column.fingerprint"),
+            DebugToolsBundle.message("sql.statistics.column.db.type"),
+            DebugToolsBundle.message("sql.statistics.column.count"),
+            DebugToolsBundle.message("sql.statistics.column.rows"),
+            "Total(ms)", "Avg(ms)", "Max(ms)", "P50(ms)", "P90(ms)", "P99(ms)"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private final JBTable table = new JBTable(tableModel);
+
+    private final JBTextArea sampleArea = new JBTextArea();
+
+    private List<SqlStatisticsRes.Item> itemList = Collections.emptyList();
+
+    public SqlStatisticsDialog(Project project) {
+        super(project, true, IdeModalityType.MODELESS);
+        this.project = project;
+        setTitle(DebugToolsBundle.message("sql.statistics.title"));
+        init();
+        sampleArea.setEditable(false);
+        sampleArea.setLineWrap(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            showSample(row >= 0 && row < itemList.size() ? itemList.get(row) : null);
+        });
+        load(false);
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JBSplitter splitter = new JBSplitter(true, 0.6f);
+        splitter.setFirstComponent(new JBScrollPane(table));
+        splitter.setSecondComponent(new JBScrollPane(sampleArea));
+        splitter.setPreferredSize(JBUI.size(1000, 500));
+        return splitter;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{
+                new DialogWrapperAction(DebugToolsBundle.message("sql.statistics.refresh")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(false);
+                    }
+                },
+                new DialogWrapperAction(DebugToolsBundle.message("sql.statistics.reset")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(true);
+                    }
+                },
+                getOKAction()};
+    }
+
+    /**
+     * 在后台线程请求统计，reset 为 true 时服务端换下当前统计并返回
+     */
+    private void load(boolean reset) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                SqlStatisticsRes res = HttpClientUtils.sqlStatistics(project, null, reset);
+                List<SqlStatisticsRes.Item> list = res == null || res.getItemList() == null ? Collections.emptyList() : res.getItemList();
+                ApplicationManager.getApplication().invokeLater(() -> showItemList(list), ModalityState.any());
+            } catch (Exception e) {
+                ApplicationManager.getApplication().invokeLater(() -> setErrorText(DebugToolsBundle.message("sql.statistics.load.error") + e.getMessage()), ModalityState.any());
+            }
+        });
+    }
+
+    private void showItemList(List<SqlStatisticsRes.Item> list) {
+        if (isDisposed()) {
+            return;
+        }
+        setErrorText(null);
+        int selectedRow = table.getSelectedRow();
+        itemList = new ArrayList<>(list);
+        tableModel.setRowCount(0);
+        for (SqlStatisticsRes.Item item : itemList) {
+            tableModel.addRow(new Object[]{
+                    item.getFingerprint(),
+                    item.getDbType(),
+                    item.getCount(),
+                    item.getRows(),
+                    item.getTotalMillis(),
+                    item.getAvgMillis(),
+                    item.getMaxMillis(),
+                    item.getP50Millis(),
+                    item.getP90Millis(),
+                    item.getP99Millis()});
+        }
+        if (itemList.isEmpty()) {
+            showSample(null);
+        } else {
+            int row = selectedRow >= 0 && selectedRow < itemList.size() ? selectedRow : 0;
+            table.setRowSelectionInterval(row, row);
+        }
+    }
+
+    private void showSample(SqlStatisticsRes.Item item) {
+        if (item == null) {
+            sampleArea.setText("");
+            return;
+        }
+        sampleArea.setText(item.getSampleSql() == null ? item.getFingerprint() : item.getSampleSql());
+        sampleArea.setCaretPosition(0);
+    }
+}
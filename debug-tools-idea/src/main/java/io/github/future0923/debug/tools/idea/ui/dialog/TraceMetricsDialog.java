@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.idea.ui.dialog;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
+import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
+import io.github.future0923.debug.tools.idea.client.http.HttpClientUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 方法指标，上方为各方法的计数和百分位，下方为选中方法的耗时分布
+ *
+ * @author future0923
+ */
+public class TraceMetricsDialog extends DialogWrapper {
+
+    private final Project project;
+
+    private final DefaultTableModel tableModel = new DefaultTableModel(new Object[]{
+            DebugToolsBundle.message("trace.metrics.column.method"),
+            DebugToolsBundle.message("trace.metrics.column.count"),
+            DebugToolsBundle.message("trace.metrics.column.error"),
+            "Avg(ms)", "Max(ms)", "P50(ms)", "P90(ms)", "P99(ms)", "P999(ms)"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private final JBTable table = new JBTable(tableModel);
+
+    private final HistogramPanel histogramPanel = new HistogramPanel();
+
+    private List<TraceMetricsRes.Item> itemList = Collections.emptyList();
+
+    public TraceMetricsDialog(Project project) {
+        super(project, true, IdeModalityType.MODELESS);
+        this.project = project;
+        setTitle(DebugToolsBundle.message("trace.metrics.title"));
+        init();
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            histogramPanel.setItem(row >= 0 && row < itemList.size() ? itemList.get(row) : null);
+        });
+        load(false);
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JBSplitter splitter = new JBSplitter(true, 0.5f);
+        splitter.setFirstComponent(new JBScrollPane(table));
+        splitter.setSecondComponent(new JBScrollPane(histogramPanel));
+        splitter.setPreferredSize(JBUI.size(900, 500));
+        return splitter;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{
+                new DialogWrapperAction(DebugToolsBundle.message("trace.metrics.refresh")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(false);
+                    }
+                },
+                new DialogWrapperAction(DebugToolsBundle.message("trace.metrics.reset")) {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        load(true);
+                    }
+                },
+                getOKAction()};
+    }
+
+    /**
+     * 在后台线程请求指标，reset 为 true 时服务端取值的同时清空
+     */
+    private void load(boolean reset) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                TraceMetricsRes res = HttpClientUtils.traceMetrics(project, reset);
+                List<TraceMetricsRes.Item> list = res == null || res.getItemList() == null ? Collections.emptyList() : res.getItemList();
+                ApplicationManager.getApplication().invokeLater(() -> showItemList(list), ModalityState.any());
+            } catch (Exception e) {
+                ApplicationManager.getApplication().invokeLater(() -> setErrorText(DebugToolsBundle.message("trace.metrics.load.error") + e.getMessage()), ModalityState.any());
+            }
+        });
+    }
+
+    private void showItemList(List<TraceMetricsRes.Item> list) {
+        if (isDisposed()) {
+            return;
+        }
+        setErrorText(null);
+        int selectedRow = table.getSelectedRow();
+        itemList = new ArrayList<>(list);
+        tableModel.setRowCount(0);
+        for (TraceMetricsRes.Item item : itemList) {
+            tableModel.addRow(new Object[]{
+                    item.getClassName() + "#" + item.getMethodName(),
+                    item.getCount(),
+                    item.getErrorCount(),
+                    toMillis(item.getAvgNanos()),
+                    toMillis(item.getMaxNanos()),
+                    toMillis(item.getP50Nanos()),
+                    toMillis(item.getP90Nanos()),
+                    toMillis(item.getP99Nanos()),
+                    toMillis(item.getP999Nanos())});
+        }
+        if (itemList.isEmpty()) {
+            histogramPanel.setItem(null);
+        } else {
+            int row = selectedRow >= 0 && selectedRow < itemList.size() ? selectedRow : 0;
+            table.setRowSelectionInterval(row, row);
+        }
+    }
+
+    private static String toMillis(Long nanos) {
+        return nanos == null ? "" : String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * 耗时分布，每个有记录的桶一行，条形长度按最大桶计数缩放
+     */
+    private static class HistogramPanel extends JPanel {
+
+        private static final int ROW_HEIGHT = 18;
+
+        private static final int LABEL_WIDTH = 120;
+
+        private List<TraceMetricsRes.Bucket> bucketList = Collections.emptyList();
+
+        HistogramPanel() {
+            setBackground(JBColor.PanelBackground);
+        }
+
+        void setItem(TraceMetricsRes.Item item) {
+            bucketList = item == null || item.getBucketList() == null ? Collections.emptyList() : item.getBucketList();
+            revalidate();
+            repaint();
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return JBUI.size(LABEL_WIDTH + 200, (bucketList.size() + 1) * ROW_HEIGHT);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            long maxCount = 0;
+            for (TraceMetricsRes.Bucket bucket : bucketList) {
+                maxCount = Math.max(maxCount, bucket.getCount());
+            }
+            if (maxCount == 0) {
+                return;
+            }
+            int rowHeight = JBUI.scale(ROW_HEIGHT);
+            int labelWidth = JBUI.scale(LABEL_WIDTH);
+            int countWidth = g.getFontMetrics().stringWidth(String.valueOf(maxCount)) + JBUI.scale(8);
+            int barMaxWidth = Math.max(0, getWidth() - labelWidth - countWidth);
+            int ascent = g.getFontMetrics().getAscent();
+            for (int i = 0; i < bucketList.size(); i++) {
+                TraceMetricsRes.Bucket bucket = bucketList.get(i);
+                int y = i * rowHeight + JBUI.scale(4);
+                g.setColor(JBColor.foreground());
+                g.drawString("<= " + toMillis(bucket.getUpperNanos()) + " ms", JBUI.scale(4), y + ascent);
+                int barWidth = (int) Math.max(1, barMaxWidth * bucket.getCount() / maxCount);
+                g.setColor(JBColor.BLUE);
+                g.fillRect(labelWidth, y + JBUI.scale(2), barWidth, rowHeight - JBUI.scale(4));
+                g.setColor(JBColor.foreground());
+                g.drawString(String.valueOf(bucket.getCount()), labelWidth + barWidth + JBUI.scale(4), y + ascent);
+            }
+        }
+    }
+}
@@ -99,6 +99,9 @@ public class InvokeMethodRecordDialog extends DialogWrapper {
         traceMethodDTO.setTraceMaxDepth(traceMethodPanel.getMaxDepth());
         traceMethodDTO.setTraceMyBatis(traceMethodPanel.isTraceMyBatis());
         traceMethodDTO.setTraceSQL(traceMethodPanel.isTraceSql());
+        traceMethodDTO.setTraceAsync(traceMethodPanel.isTraceAsync());
+        traceMethodDTO.setTraceThrowable(traceMethodPanel.isTraceThrowable());
+        traceMethodDTO.setTraceParams(traceMethodPanel.isTraceParams());
         traceMethodDTO.setTraceSkipStartGetSetCheckBox(traceMethodPanel.isTraceSkipStartGetSetCheckBox());
         traceMethodDTO.setTraceBusinessPackageRegexp(traceMethodPanel.getTraceBusinessPackage());
         traceMethodDTO.setTraceIgnorePackageRegexp(traceMethodPanel.getTraceIgnorePackage());
@@ -22,6 +22,7 @@ import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBTextField;
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
 import io.github.future0923.debug.tools.idea.bundle.DebugToolsBundle;
 import io.github.future0923.debug.tools.common.dto.TraceMethodDTO;
 import io.github.future0923.debug.tools.idea.setting.DebugToolsSettingState;
@@ -47,6 +48,12 @@ public class TraceMethodPanel {
 
     private final JBCheckBox traceSqlCheckBox = new JBCheckBox(DebugToolsBundle.message("trace.method.panel.sql"));
 
+    private final JBCheckBox traceAsyncCheckBox = new JBCheckBox(DebugToolsBundle.message("trace.method.panel.async"));
+
+    private final JBCheckBox traceThrowableCheckBox = new JBCheckBox(DebugToolsBundle.message("trace.method.panel.throwable"));
+
+    private final JBCheckBox traceParamsCheckBox = new JBCheckBox(DebugToolsBundle.message("trace.method.panel.params"));
+
     private final JBCheckBox traceSkipStartGetSetCheckBox = new JBCheckBox(DebugToolsBundle.message("trace.method.panel.skip.get.set.method"));
 
     private final JBTextField traceBusinessPackage = new JBTextField();
@@ -79,6 +86,9 @@ public class TraceMethodPanel {
         traceParamPanel.add(maxDepth);
         traceParamPanel.add(traceMyBatisCheckBox);
         traceParamPanel.add(traceSqlCheckBox);
+        traceParamPanel.add(traceAsyncCheckBox);
+        traceParamPanel.add(traceThrowableCheckBox);
+        traceParamPanel.add(traceParamsCheckBox);
         traceParamPanel.add(traceSkipStartGetSetCheckBox);
         traceParamPanel.add(ignorePackagePanel);
         paramPanel.add(traceParamPanel);
@@ -97,6 +107,9 @@ public class TraceMethodPanel {
         maxDepth.setNumber(traceMethodDTO.getTraceMaxDepth());
         traceMyBatisCheckBox.setSelected(traceMethodDTO.getTraceMyBatis());
         traceSqlCheckBox.setSelected(traceMethodDTO.getTraceSQL());
+        traceAsyncCheckBox.setSelected(BooleanUtil.isTrue(traceMethodDTO.getTraceAsync()));
+        traceThrowableCheckBox.setSelected(BooleanUtil.isTrue(traceMethodDTO.getTraceThrowable()));
+        traceParamsCheckBox.setSelected(BooleanUtil.isTrue(traceMethodDTO.getTraceParams()));
         traceSkipStartGetSetCheckBox.setSelected(traceMethodDTO.getTraceSkipStartGetSetCheckBox());
         traceBusinessPackage.setText(traceMethodDTO.getTraceBusinessPackageRegexp());
         traceIgnorePackage.setText(traceMethodDTO.getTraceIgnorePackageRegexp());
@@ -117,6 +130,15 @@ public class TraceMethodPanel {
             if (traceMethodDTO.getTraceSQL() != null) {
                 traceSqlCheckBox.setSelected(traceMethodDTO.getTraceSQL());
             }
+            if (traceMethodDTO.getTraceAsync() != null) {
+                traceAsyncCheckBox.setSelected(traceMethodDTO.getTraceAsync());
+            }
+            if (traceMethodDTO.getTraceThrowable() != null) {
+                traceThrowableCheckBox.setSelected(traceMethodDTO.getTraceThrowable());
+            }
+            if (traceMethodDTO.getTraceParams() != null) {
+                traceParamsCheckBox.setSelected(traceMethodDTO.getTraceParams());
+            }
             if (traceMethodDTO.getTraceSkipStartGetSetCheckBox() != null) {
                 traceSkipStartGetSetCheckBox.setSelected(traceMethodDTO.getTraceSkipStartGetSetCheckBox());
             }
@@ -168,6 +190,30 @@ public class TraceMethodPanel {
         traceSqlCheckBox.setSelected(traceSql);
     }
 
+    public boolean isTraceAsync() {
+        return traceAsyncCheckBox.isSelected();
+    }
+
+    public void setTraceAsync(boolean traceAsync) {
+        traceAsyncCheckBox.setSelected(traceAsync);
+    }
+
+    public boolean isTraceThrowable() {
+        return traceThrowableCheckBox.isSelected();
+    }
+
+    public void setTraceThrowable(boolean traceThrowable) {
+        traceThrowableCheckBox.setSelected(traceThrowable);
+    }
+
+    public boolean isTraceParams() {
+        return traceParamsCheckBox.isSelected();
+    }
+
+    public void setTraceParams(boolean traceParams) {
+        traceParamsCheckBox.setSelected(traceParams);
+    }
+
     public boolean isTraceSkipStartGetSetCheckBox() {
         return traceSkipStartGetSetCheckBox.isSelected();
     }
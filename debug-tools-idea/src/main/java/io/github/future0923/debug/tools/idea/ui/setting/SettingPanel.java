@@ -91,6 +91,12 @@ public class SettingPanel {
     private final JBCheckBox saveSqlCheckBox = new JBCheckBox(DebugToolsBundle.message("setting.panel.auto.save.sql"));
     @Getter
     private final JBIntSpinner saveSqlDaysField = new JBIntSpinner(1, 1, Integer.MAX_VALUE);
+    @Getter
+    private final JBIntSpinner sqlSlowThresholdField = new JBIntSpinner(0, 0, Integer.MAX_VALUE);
+    @Getter
+    private final JBIntSpinner sqlSamplePercentField = new JBIntSpinner(100, 0, 100);
+    @Getter
+    private final JBIntSpinner sqlRepeatedThresholdField = new JBIntSpinner(3, 2, Integer.MAX_VALUE);
 
     @Getter
     private final TraceMethodPanel traceMethodPanel = new TraceMethodPanel();
@@ -164,6 +170,27 @@ public class SettingPanel {
             saveSqlDaysField.setNumber(settingState.getSqlRetentionDays());
         }
         sqlRetentionPanel.setVisible(saveSqlCheckBox.isSelected());
+
+        JPanel sqlSamplePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        sqlSamplePanel.add(new JLabel(DebugToolsBundle.message("setting.panel.sql.slow.threshold")));
+        sqlSamplePanel.add(sqlSlowThresholdField);
+        sqlSamplePanel.add(new JLabel(DebugToolsBundle.message("setting.panel.sql.sample.percent")));
+        sqlSamplePanel.add(sqlSamplePercentField);
+        if (settingState.getSqlSlowThreshold() != null) {
+            sqlSlowThresholdField.setNumber(settingState.getSqlSlowThreshold());
+        }
+        if (settingState.getSqlSamplePercent() != null) {
+            sqlSamplePercentField.setNumber(settingState.getSqlSamplePercent());
+        }
+        sqlSamplePanel.setVisible(!printNoSql.isSelected());
+
+        // 追踪SQL时也生效，不随打印方式隐藏
+        JPanel sqlRepeatedPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        sqlRepeatedPanel.add(new JLabel(DebugToolsBundle.message("setting.panel.sql.repeated.threshold")));
+        sqlRepeatedPanel.add(sqlRepeatedThresholdField);
+        if (settingState.getSqlRepeatedThreshold() != null) {
+            sqlRepeatedThresholdField.setNumber(settingState.getSqlRepeatedThreshold());
+        }
         // 监听开关变化
         saveSqlCheckBox.addItemListener(e -> sqlRetentionPanel.setVisible(saveSqlCheckBox.isSelected()));
 
@@ -174,6 +201,7 @@ public class SettingPanel {
             } else {
                 saveSqlCheckBox.setVisible(true);
             }
+            sqlSamplePanel.setVisible(!printNoSql.isSelected());
         };
         // 监听printSql单选按钮变化
         printPrettySql.addItemListener(e -> updateSaveSqlPanels.run());
@@ -293,6 +321,14 @@ public class SettingPanel {
                         new JBLabel(""),
                         sqlRetentionPanel
                 )
+                .addLabeledComponent(
+                        new JBLabel(""),
+                        sqlSamplePanel
+                )
+                .addLabeledComponent(
+                        new JBLabel(""),
+                        sqlRepeatedPanel
+                )
                 .addLabeledComponent(
                         new JBLabel(DebugToolsBundle.message("setting.panel.auto.attach.start.application")),
                         autoAttachPanel
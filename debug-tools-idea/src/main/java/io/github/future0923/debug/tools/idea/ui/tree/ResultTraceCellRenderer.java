@@ -19,6 +19,7 @@ package io.github.future0923.debug.tools.idea.ui.tree;
 import com.intellij.ui.ColoredTreeCellRenderer;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.SimpleTextAttributes;
+import io.github.future0923.debug.tools.base.trace.MethodTraceRepeatedSql;
 import io.github.future0923.debug.tools.base.trace.MethodTraceType;
 import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
 import io.github.future0923.debug.tools.idea.ui.tree.node.TreeNode;
@@ -45,6 +46,16 @@ public class ResultTraceCellRenderer extends ColoredTreeCellRenderer {
             setIcon(DebugToolsIcons.Trace.Database);
             appendDuration(runResultDTO.getDuration());
             append(runResultDTO.getSql(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            if (runResultDTO.getAcquireWaitMicros() != null) {
+                append(" acquire[" + runResultDTO.getAcquireWaitMicros() + " μs]", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+            if (runResultDTO.getFetchRows() != null) {
+                append(" fetch[" + runResultDTO.getFetchRows() + " rows, " + runResultDTO.getFetchDuration() + " ms]", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        } else if (runResultDTO.getTraceType().equals(MethodTraceType.ASYNC)) {
+            setIcon(DebugToolsIcons.Trace.Time);
+            appendDuration(runResultDTO.getDuration());
+            append("[" + runResultDTO.getThreadName() + "]", SimpleTextAttributes.GRAYED_ATTRIBUTES);
         } else if (runResultDTO.getTraceType().equals(MethodTraceType.MYBATIS)) {
             setIcon(DebugToolsIcons.Trace.MyBatis);
             appendDuration(runResultDTO.getDuration());
@@ -54,6 +65,20 @@ public class ResultTraceCellRenderer extends ColoredTreeCellRenderer {
             appendDuration(runResultDTO.getDuration());
             append(runResultDTO.getClassSimpleName() + "#" + runResultDTO.getMethodSignature(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
         }
+        if (runResultDTO.getArgs() != null) {
+            append(" args" + runResultDTO.getArgs(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+        if (runResultDTO.getReturnValue() != null) {
+            append(" return[" + runResultDTO.getReturnValue() + "]", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+        if (runResultDTO.getThrowableClassName() != null) {
+            append(" throw " + runResultDTO.getThrowableClassName() + ": " + runResultDTO.getThrowableMessage(), SimpleTextAttributes.ERROR_ATTRIBUTES);
+        }
+        if (runResultDTO.getRepeatedSqlList() != null) {
+            for (MethodTraceRepeatedSql repeatedSql : runResultDTO.getRepeatedSqlList()) {
+                append(" N+1[" + repeatedSql.getCount() + " times, " + repeatedSql.getDuration() + " ms] " + repeatedSql.getFingerprint(), SimpleTextAttributes.ERROR_ATTRIBUTES);
+            }
+        }
     }
 
     private void appendDuration(Long duration) {
@@ -19,11 +19,15 @@ package io.github.future0923.debug.tools.server.http;
 import com.sun.net.httpserver.HttpServer;
 import io.github.future0923.debug.tools.base.logging.Logger;
 import io.github.future0923.debug.tools.server.http.handler.AllClassLoaderHttpHandler;
+import io.github.future0923.debug.tools.server.http.handler.ConnectionPoolHttpHandler;
 import io.github.future0923.debug.tools.server.http.handler.GetApplicationNameHttpHandler;
 import io.github.future0923.debug.tools.server.http.handler.IndexHttpHandler;
 import io.github.future0923.debug.tools.server.http.handler.RunResultDetailHttpHandler;
+import io.github.future0923.debug.tools.server.http.handler.RunResultTraceExportHttpHandler;
 import io.github.future0923.debug.tools.server.http.handler.RunResultTraceHttpHandler;
 import io.github.future0923.debug.tools.server.http.handler.RunResultTypeHttpHandler;
+import io.github.future0923.debug.tools.server.http.handler.SqlStatisticsHttpHandler;
+import io.github.future0923.debug.tools.server.http.handler.TraceMetricsHttpHandler;
 import lombok.Getter;
 
 import java.io.IOException;
@@ -59,6 +63,10 @@ public class DebugToolsHttpServer {
         httpServer.createContext(AllClassLoaderHttpHandler.PATH, AllClassLoaderHttpHandler.INSTANCE);
         httpServer.createContext(GetApplicationNameHttpHandler.PATH, GetApplicationNameHttpHandler.INSTANCE);
         httpServer.createContext(RunResultTraceHttpHandler.PATH, RunResultTraceHttpHandler.INSTANCE);
+        httpServer.createContext(RunResultTraceExportHttpHandler.PATH, RunResultTraceExportHttpHandler.INSTANCE);
+        httpServer.createContext(TraceMetricsHttpHandler.PATH, TraceMetricsHttpHandler.INSTANCE);
+        httpServer.createContext(SqlStatisticsHttpHandler.PATH, SqlStatisticsHttpHandler.INSTANCE);
+        httpServer.createContext(ConnectionPoolHttpHandler.PATH, ConnectionPoolHttpHandler.INSTANCE);
     }
 
     public void start() {
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.http.handler;
+
+import com.sun.net.httpserver.Headers;
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolMetrics;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolSample;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolStatistics;
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import io.github.future0923.debug.tools.common.protocal.http.ConnectionPoolReq;
+import io.github.future0923.debug.tools.common.protocal.http.ConnectionPoolRes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 获取连接池获取连接耗时和状态采样，请求 reset 为 true 时原子换下当前统计并返回
+ *
+ * @author future0923
+ */
+public class ConnectionPoolHttpHandler extends BaseHttpHandler<ConnectionPoolReq, ConnectionPoolRes> {
+
+    public static final ConnectionPoolHttpHandler INSTANCE = new ConnectionPoolHttpHandler();
+
+    public static final String PATH = "/sql/pool";
+
+    private ConnectionPoolHttpHandler() {
+
+    }
+
+    @Override
+    protected ConnectionPoolRes doHandle(ConnectionPoolReq req, Headers responseHeaders) {
+        List<ConnectionPoolRes.Item> itemList = new ArrayList<>();
+        boolean reset = req != null && BooleanUtil.isTrue(req.getReset());
+        for (ConnectionPoolMetrics metrics : ConnectionPoolStatistics.snapshot(reset)) {
+            itemList.add(toItem(metrics));
+        }
+        ConnectionPoolRes res = new ConnectionPoolRes();
+        res.setItemList(itemList);
+        return res;
+    }
+
+    private static ConnectionPoolRes.Item toItem(ConnectionPoolMetrics metrics) {
+        long count = metrics.getCount().sum();
+        long totalMicros = metrics.getTotalMicros().sum();
+        long[] counts = metrics.getHistogram().snapshot(false);
+        long histogramTotal = 0;
+        for (long bucketCount : counts) {
+            histogramTotal += bucketCount;
+        }
+        ConnectionPoolRes.Item item = new ConnectionPoolRes.Item();
+        item.setPoolType(metrics.getPoolType());
+        item.setPoolName(metrics.getPoolName());
+        item.setCount(count);
+        item.setTotalMicros(totalMicros);
+        item.setAvgMicros(count == 0 ? 0 : totalMicros / count);
+        item.setMaxMicros(metrics.getMaxMicros().get());
+        item.setP50Micros(LogLinearHistogram.getValueAtPercentile(counts, 0.5, histogramTotal));
+        item.setP90Micros(LogLinearHistogram.getValueAtPercentile(counts, 0.9, histogramTotal));
+        item.setP99Micros(LogLinearHistogram.getValueAtPercentile(counts, 0.99, histogramTotal));
+        List<ConnectionPoolRes.Sample> sampleList = new ArrayList<>();
+        for (ConnectionPoolSample poolSample : metrics.getSampleList()) {
+            ConnectionPoolRes.Sample sample = new ConnectionPoolRes.Sample();
+            sample.setTime(poolSample.getTime());
+            sample.setActive(poolSample.getActive());
+            sample.setIdle(poolSample.getIdle());
+            sample.setWaiting(poolSample.getWaiting());
+            sampleList.add(sample);
+        }
+        item.setSampleList(sampleList);
+        return item;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.http.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.github.future0923.debug.tools.base.hutool.http.HttpUtil;
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import io.github.future0923.debug.tools.base.utils.DebugToolsIOUtils;
+import io.github.future0923.debug.tools.base.utils.DebugToolsStringUtils;
+import io.github.future0923.debug.tools.common.protocal.http.RunResultTraceExportReq;
+import io.github.future0923.debug.tools.common.utils.DebugToolsJsonUtils;
+import io.github.future0923.debug.tools.server.trace.MethodTraceExporter;
+import io.github.future0923.debug.tools.server.utils.DebugToolsResultUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 导出追踪结果，支持 POST json 请求体或 GET 查询参数 {@code ?offsetPath=xxx&format=chrome}。
+ * 结果较大，不经过 {@link BaseHttpHandler} 的字符串缓冲，直接以 chunked 方式流式写出。
+ *
+ * @author future0923
+ */
+public class RunResultTraceExportHttpHandler implements HttpHandler {
+
+    public static final RunResultTraceExportHttpHandler INSTANCE = new RunResultTraceExportHttpHandler();
+
+    public static final String PATH = "/result/trace/export";
+
+    private static final Logger logger = Logger.getLogger(RunResultTraceExportHttpHandler.class);
+
+    private RunResultTraceExportHttpHandler() {
+
+    }
+
+    @Override
+    public void handle(HttpExchange httpExchange) throws IOException {
+        RunResultTraceExportReq req;
+        try {
+            req = getReq(httpExchange);
+        } catch (Exception e) {
+            sendError(httpExchange, 400, "Invalid request: " + e.getMessage());
+            return;
+        }
+        if (req == null || DebugToolsStringUtils.isBlank(req.getOffsetPath())) {
+            sendError(httpExchange, 400, "offsetPath is required");
+            return;
+        }
+        String format = req.getFormat();
+        if (DebugToolsStringUtils.isNotBlank(format)
+                && !RunResultTraceExportReq.FORMAT_CHROME.equalsIgnoreCase(format)
+                && !RunResultTraceExportReq.FORMAT_FLAME_GRAPH.equalsIgnoreCase(format)) {
+            sendError(httpExchange, 400, "Unsupported format: " + format);
+            return;
+        }
+        List<MethodTreeNode> treeList;
+        try {
+            treeList = getTreeList(req.getOffsetPath());
+        } catch (Exception e) {
+            logger.error("get trace result error, offsetPath: {}", e, req.getOffsetPath());
+            sendError(httpExchange, 500, "Get trace result error: " + e.getMessage());
+            return;
+        }
+        if (treeList == null) {
+            sendError(httpExchange, 404, "No trace result at offsetPath: " + req.getOffsetPath());
+            return;
+        }
+        boolean flameGraph = RunResultTraceExportReq.FORMAT_FLAME_GRAPH.equalsIgnoreCase(format);
+        Headers responseHeaders = httpExchange.getResponseHeaders();
+        responseHeaders.set("Content-Type", flameGraph ? "text/plain; charset=UTF-8" : "application/json; charset=UTF-8");
+        setCorsHeaders(responseHeaders);
+        // 长度0表示chunked
+        httpExchange.sendResponseHeaders(200, 0);
+        // 响应头已经发出，写出失败时只能记录日志并关闭连接
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(httpExchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            if (flameGraph) {
+                MethodTraceExporter.writeFlameGraph(treeList, writer);
+            } else {
+                MethodTraceExporter.writeChromeTrace(treeList, writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("export trace result error, offsetPath: {}", e, req.getOffsetPath());
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * 获取追踪结果，offsetPath 对应的值不是追踪结果时返回null
+     */
+    private static List<MethodTreeNode> getTreeList(String offsetPath) {
+        Object value = DebugToolsResultUtils.getValueByOffset(offsetPath);
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<?> list = (List<?>) value;
+        List<MethodTreeNode> treeList = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (!(item instanceof MethodTreeNode)) {
+                return null;
+            }
+            treeList.add((MethodTreeNode) item);
+        }
+        return treeList;
+    }
+
+    private static void sendError(HttpExchange httpExchange, int status, String message) throws IOException {
+        Headers responseHeaders = httpExchange.getResponseHeaders();
+        responseHeaders.set("Content-Type", "application/json; charset=UTF-8");
+        setCorsHeaders(responseHeaders);
+        byte[] bytes = DebugToolsJsonUtils.toJsonStr(Collections.singletonMap("error", message)).getBytes(StandardCharsets.UTF_8);
+        httpExchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static void setCorsHeaders(Headers responseHeaders) {
+        responseHeaders.set("Access-Control-Allow-Origin", "*");
+        responseHeaders.set("Access-Control-Allow-Headers", "Content-Type, Authorization");
+    }
+
+    private RunResultTraceExportReq getReq(HttpExchange httpExchange) throws IOException {
+        String requestBody = new String(DebugToolsIOUtils.readAllBytes(httpExchange.getRequestBody()), StandardCharsets.UTF_8);
+        if (DebugToolsStringUtils.isNotBlank(requestBody)) {
+            if (!DebugToolsJsonUtils.isTypeJSON(requestBody)) {
+                throw new IllegalArgumentException("request body is not JSON");
+            }
+            return DebugToolsJsonUtils.toBean(requestBody, RunResultTraceExportReq.class);
+        }
+        RunResultTraceExportReq req = new RunResultTraceExportReq();
+        Map<String, String> paramMap = HttpUtil.decodeParamMap(httpExchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+        req.setOffsetPath(paramMap.get("offsetPath"));
+        req.setFormat(paramMap.get("format"));
+        return req;
+    }
+}
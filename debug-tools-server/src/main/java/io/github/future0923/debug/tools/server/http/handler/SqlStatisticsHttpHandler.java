@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.http.handler;
+
+import com.sun.net.httpserver.Headers;
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.base.sql.SqlStatistics;
+import io.github.future0923.debug.tools.base.sql.SqlStatisticsItem;
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import io.github.future0923.debug.tools.common.protocal.http.SqlStatisticsReq;
+import io.github.future0923.debug.tools.common.protocal.http.SqlStatisticsRes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 获取按SQL指纹聚合的执行统计，请求 reset 为 true 时原子换下当前统计并返回
+ *
+ * @author future0923
+ */
+public class SqlStatisticsHttpHandler extends BaseHttpHandler<SqlStatisticsReq, SqlStatisticsRes> {
+
+    public static final SqlStatisticsHttpHandler INSTANCE = new SqlStatisticsHttpHandler();
+
+    public static final String PATH = "/sql/statistics";
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private SqlStatisticsHttpHandler() {
+
+    }
+
+    @Override
+    protected SqlStatisticsRes doHandle(SqlStatisticsReq req, Headers responseHeaders) {
+        int limit = req == null || req.getLimit() == null ? DEFAULT_LIMIT : req.getLimit();
+        List<SqlStatisticsRes.Item> itemList = new ArrayList<>();
+        boolean reset = req != null && BooleanUtil.isTrue(req.getReset());
+        for (SqlStatisticsItem statisticsItem : SqlStatistics.snapshot(limit, reset)) {
+            itemList.add(toItem(statisticsItem));
+        }
+        SqlStatisticsRes res = new SqlStatisticsRes();
+        res.setItemList(itemList);
+        return res;
+    }
+
+    private static SqlStatisticsRes.Item toItem(SqlStatisticsItem statisticsItem) {
+        long count = statisticsItem.getCount().sum();
+        long totalMillis = statisticsItem.getTotalMillis().sum();
+        long[] counts = statisticsItem.getHistogram().snapshot(false);
+        long histogramTotal = 0;
+        for (long bucketCount : counts) {
+            histogramTotal += bucketCount;
+        }
+        SqlStatisticsRes.Item item = new SqlStatisticsRes.Item();
+        item.setFingerprint(statisticsItem.getFingerprint());
+        item.setDbType(statisticsItem.getDbType());
+        item.setSampleSql(statisticsItem.getSampleSql());
+        item.setCount(count);
+        item.setTotalMillis(totalMillis);
+        item.setAvgMillis(count == 0 ? 0 : totalMillis / count);
+        item.setMaxMillis(statisticsItem.getMaxMillis().get());
+        item.setP50Millis(LogLinearHistogram.getValueAtPercentile(counts, 0.5, histogramTotal));
+        item.setP90Millis(LogLinearHistogram.getValueAtPercentile(counts, 0.9, histogramTotal));
+        item.setP99Millis(LogLinearHistogram.getValueAtPercentile(counts, 0.99, histogramTotal));
+        item.setRows(statisticsItem.getRows().sum());
+        return item;
+    }
+}
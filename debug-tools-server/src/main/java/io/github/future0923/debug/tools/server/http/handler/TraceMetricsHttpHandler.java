@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.http.handler;
+
+import com.sun.net.httpserver.Headers;
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsReq;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
+import io.github.future0923.debug.tools.server.trace.TraceMetricsClassFileTransformer;
+
+/**
+ * 获取方法指标，请求 reset 为 true 时取值的同时清空
+ *
+ * @author future0923
+ */
+public class TraceMetricsHttpHandler extends BaseHttpHandler<TraceMetricsReq, TraceMetricsRes> {
+
+    public static final TraceMetricsHttpHandler INSTANCE = new TraceMetricsHttpHandler();
+
+    public static final String PATH = "/trace/metrics";
+
+    private TraceMetricsHttpHandler() {
+
+    }
+
+    @Override
+    protected TraceMetricsRes doHandle(TraceMetricsReq req, Headers responseHeaders) {
+        TraceMetricsRes res = new TraceMetricsRes();
+        res.setItemList(TraceMetricsClassFileTransformer.snapshot(req != null && BooleanUtil.isTrue(req.getReset())));
+        return res;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.scoket.handler;
+
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.sql.SqlPrintSampler;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import io.github.future0923.debug.tools.common.handler.BasePacketHandler;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeSqlPrintConfigRequestPacket;
+
+import java.io.OutputStream;
+
+/**
+ * @author future0923
+ */
+public class ChangeSqlPrintConfigRequestHandler extends BasePacketHandler<ChangeSqlPrintConfigRequestPacket> {
+
+    private static final Logger logger = Logger.getLogger(ChangeSqlPrintConfigRequestHandler.class);
+
+    public static final ChangeSqlPrintConfigRequestHandler INSTANCE = new ChangeSqlPrintConfigRequestHandler();
+
+    private ChangeSqlPrintConfigRequestHandler() {
+
+    }
+
+    @Override
+    public void handle(OutputStream outputStream, ChangeSqlPrintConfigRequestPacket packet) throws Exception {
+        SqlPrintSampler.setSlowThresholdMillis(packet.getSlowThreshold());
+        SqlPrintSampler.setSampleRate(packet.getSampleRate());
+        MethodTreeNode.setRepeatedSqlThreshold(packet.getRepeatedThreshold());
+        logger.info("SQL print config changed, slow threshold: {} ms, sample rate: {}, repeated threshold: {}", SqlPrintSampler.getSlowThresholdMillis(), SqlPrintSampler.getSampleRate(), MethodTreeNode.getRepeatedSqlThreshold());
+    }
+}
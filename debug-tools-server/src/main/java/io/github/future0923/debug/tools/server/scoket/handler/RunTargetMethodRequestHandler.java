@@ -124,9 +124,6 @@ public class RunTargetMethodRequestHandler extends BasePacketHandler<RunTargetMe
         Method bridgedMethod = DebugToolsEnvUtils.findBridgedMethod(targetMethod);
         TraceMethodDTO traceMethodDTO = runDTO.getTraceMethodDTO();
         boolean traceMethod = traceMethodDTO != null && traceMethodDTO.getTraceMethod();
-        if (traceMethod) {
-            TraceMethodClassFileTransformer.traceMethod(classLoader, targetClass, bridgedMethod, traceMethodDTO);
-        }
         ReflectUtil.setAccessible(bridgedMethod);
         Object[] targetMethodArgs = DebugToolsEnvUtils.getArgs(bridgedMethod, runDTO.getTargetMethodContent());
         Class<?> aroundClass = DebugToolsClassUtils.loadClass(RunMethodAround.class.getName(), classLoader);
@@ -149,6 +146,10 @@ public class RunTargetMethodRequestHandler extends BasePacketHandler<RunTargetMe
         );
         Object result = null;
         Throwable throwable = null;
+        // 开始追踪后由 finally 结束追踪，中间不能有其他可能抛出异常的代码
+        if (traceMethod) {
+            TraceMethodClassFileTransformer.traceMethod(classLoader, targetClass, bridgedMethod, traceMethodDTO);
+        }
         try {
             result = run(bridgedMethod, instance, targetMethodArgs, runDTO, outputStream, traceMethod);
             ReflectUtil.invoke(
@@ -183,18 +184,24 @@ public class RunTargetMethodRequestHandler extends BasePacketHandler<RunTargetMe
                     throwable
             );
         } finally {
-            ReflectUtil.invoke(
-                    aroundInstance,
-                    ReflectUtil.getMethod(aroundClass, "onFinally", Map.class, String.class, String.class, String.class, List.class, Object[].class, Object.class, Exception.class),
-                    runDTO.getHeaders(),
-                    runDTO.getXxlJobParam(),
-                    runDTO.getTargetClassName(),
-                    runDTO.getTargetMethodName(),
-                    runDTO.getTargetMethodParameterTypes(),
-                    targetMethodArgs,
-                    result,
-                    throwable
+            try {
+                ReflectUtil.invoke(
+                        aroundInstance,
+                        ReflectUtil.getMethod(aroundClass, "onFinally", Map.class, String.class, String.class, String.class, List.class, Object[].class, Object.class, Exception.class),
+                        runDTO.getHeaders(),
+                        runDTO.getXxlJobParam(),
+                        runDTO.getTargetClassName(),
+                        runDTO.getTargetMethodName(),
+                        runDTO.getTargetMethodParameterTypes(),
+                        targetMethodArgs,
+                        result,
+                        throwable
                 );
+            } finally {
+                if (traceMethod) {
+                    TraceMethodClassFileTransformer.finishTraceMethod(traceMethodDTO);
+                }
+            }
         }
         Thread.currentThread().setContextClassLoader(orgClassLoader);
     }
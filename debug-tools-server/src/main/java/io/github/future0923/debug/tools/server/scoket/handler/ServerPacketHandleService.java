@@ -18,6 +18,8 @@ package io.github.future0923.debug.tools.server.scoket.handler;
 
 import io.github.future0923.debug.tools.common.handler.PacketHandleService;
 import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeTraceMethodRequestPacket;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeSqlPrintConfigRequestPacket;
+import io.github.future0923.debug.tools.common.protocal.packet.request.ChangeTraceMetricsRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.ClearRunResultRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.HeartBeatRequestPacket;
 import io.github.future0923.debug.tools.common.protocal.packet.request.LocalCompilerHotDeployRequestPacket;
@@ -44,5 +46,7 @@ public class ServerPacketHandleService extends PacketHandleService {
         register(RemoteCompilerHotDeployRequestPacket.class, RemoteCompilerHotDeployRequestHandler.INSTANCE);
         register(ResourceHotDeployRequestPacket.class, ResourceHotDeployRequestHandler.INSTANCE);
         register(ChangeTraceMethodRequestPacket.class, ChangeTraceMethodRequestHandler.INSTANCE);
+        register(ChangeTraceMetricsRequestPacket.class, ChangeTraceMetricsRequestHandler.INSTANCE);
+        register(ChangeSqlPrintConfigRequestPacket.class, ChangeSqlPrintConfigRequestHandler.INSTANCE);
     }
 }
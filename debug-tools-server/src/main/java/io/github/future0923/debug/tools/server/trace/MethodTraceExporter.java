@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.hutool.json.JSONUtil;
+import io.github.future0923.debug.tools.base.trace.MethodTraceType;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 方法追踪结果导出，直接遍历追踪树流式写出，不构建中间集合
+ * <ul>
+ *     <li>{@link #writeChromeTrace} Chrome trace-event 格式，可在 chrome://tracing、Perfetto 中打开</li>
+ *     <li>{@link #writeFlameGraph} 折叠栈格式，可由 flamegraph.pl、speedscope 生成火焰图</li>
+ * </ul>
+ *
+ * @author future0923
+ */
+public class MethodTraceExporter {
+
+    /**
+     * SQL 在火焰图中显示的最大长度
+     */
+    private static final int FLAME_GRAPH_SQL_MAX_LENGTH = 120;
+
+    /**
+     * 导出为 Chrome trace-event JSON
+     *
+     * @param treeList 追踪结果
+     * @param writer   输出
+     * @throws IOException 写出异常
+     */
+    public static void writeChromeTrace(List<MethodTreeNode> treeList, Writer writer) throws IOException {
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        if (treeList != null) {
+            // 跨线程的节点使用单独的tid显示
+            long[] tidSequence = {1};
+            for (MethodTreeNode tree : treeList) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writeChromeTraceEvent(tree, 1, tidSequence, writer);
+                first = false;
+            }
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+
+    private static void writeChromeTraceEvent(MethodTreeNode node, long tid, long[] tidSequence, Writer writer) throws IOException {
+        if (node.getTraceType() == MethodTraceType.ASYNC) {
+            tid = ++tidSequence[0];
+            writer.write("{\"ph\":\"M\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(tid));
+            writer.write(",\"name\":\"thread_name\",\"args\":{\"name\":");
+            JSONUtil.quote(node.getThreadName(), writer);
+            writer.write("}},");
+        }
+        long start = node.getStart() == null ? 0 : node.getStart();
+        long duration = node.getDuration() == null ? 0 : node.getDuration();
+        writer.write("{\"ph\":\"X\",\"pid\":1,\"tid\":");
+        writer.write(Long.toString(tid));
+        writer.write(",\"ts\":");
+        writer.write(Long.toString(start * 1000));
+        writer.write(",\"dur\":");
+        writer.write(Long.toString(duration * 1000));
+        writer.write(",\"cat\":");
+        JSONUtil.quote(node.getTraceType() == null ? "" : node.getTraceType().name(), writer);
+        writer.write(",\"name\":");
+        JSONUtil.quote(getName(node), writer);
+        writer.write(",\"args\":{");
+        if (node.getTraceType() == MethodTraceType.SQL) {
+            writer.write("\"sql\":");
+            JSONUtil.quote(node.getSql(), writer);
+        } else if (node.getTraceType() == MethodTraceType.ASYNC) {
+            writer.write("\"thread\":");
+            JSONUtil.quote(node.getThreadName(), writer);
+        } else {
+            writer.write("\"class\":");
+            JSONUtil.quote(node.getClassName(), writer);
+            writer.write(",\"signature\":");
+            JSONUtil.quote(node.getMethodSignature(), writer);
+        }
+        writer.write("}}");
+        for (MethodTreeNode child : node.getChildren()) {
+            writer.write(',');
+            writeChromeTraceEvent(child, tid, tidSequence, writer);
+        }
+    }
+
+    /**
+     * 导出为火焰图折叠栈文本，每行格式为 {@code 栈帧1;栈帧2;栈帧3 自身耗时(ms)}
+     *
+     * @param treeList 追踪结果
+     * @param writer   输出
+     * @throws IOException 写出异常
+     */
+    public static void writeFlameGraph(List<MethodTreeNode> treeList, Writer writer) throws IOException {
+        if (treeList != null) {
+            StringBuilder stack = new StringBuilder(256);
+            for (MethodTreeNode tree : treeList) {
+                writeFlameGraphStack(tree, stack, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeFlameGraphStack(MethodTreeNode node, StringBuilder stack, Writer writer) throws IOException {
+        int length = stack.length();
+        if (length > 0) {
+            stack.append(';');
+        }
+        appendFlameGraphFrame(node, stack);
+        long self = node.getDuration() == null ? 0 : node.getDuration();
+        for (MethodTreeNode child : node.getChildren()) {
+            if (child.getDuration() != null) {
+                self -= child.getDuration();
+            }
+            writeFlameGraphStack(child, stack, writer);
+        }
+        if (self > 0) {
+            writer.append(stack).append(' ').append(Long.toString(self)).append('\n');
+        }
+        stack.setLength(length);
+    }
+
+    /**
+     * 追加栈帧，折叠栈格式中 {@code ;} 是栈帧分隔符、换行是记录分隔符，需要替换掉
+     */
+    private static void appendFlameGraphFrame(MethodTreeNode node, StringBuilder stack) {
+        String frame = getName(node);
+        int max = node.getTraceType() == MethodTraceType.SQL ? Math.min(frame.length(), FLAME_GRAPH_SQL_MAX_LENGTH) : frame.length();
+        for (int i = 0; i < max; i++) {
+            char c = frame.charAt(i);
+            if (c == ';' || c == '\n' || c == '\r' || c == '\t') {
+                c = ' ';
+            }
+            stack.append(c);
+        }
+    }
+
+    private static String getName(MethodTreeNode node) {
+        if (node.getTraceType() == MethodTraceType.SQL) {
+            return node.getSql() == null ? "SQL" : node.getSql();
+        }
+        if (node.getTraceType() == MethodTraceType.ASYNC) {
+            return "[" + node.getThreadName() + "]";
+        }
+        return node.getClassName() + "." + node.getMethodName();
+    }
+}
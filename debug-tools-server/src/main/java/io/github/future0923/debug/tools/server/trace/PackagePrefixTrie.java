@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 包名前缀字典树，按字符匹配类名是否以任意一个已登记的前缀开头
+ *
+ * @author future0923
+ */
+public class PackagePrefixTrie {
+
+    private final Node root = new Node();
+
+    private boolean empty = true;
+
+    /**
+     * 添加前缀
+     *
+     * @param prefix 前缀，如 {@code java.}
+     */
+    public void add(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), k -> new Node());
+        }
+        node.terminal = true;
+        empty = false;
+    }
+
+    /**
+     * 类名是否以任意一个前缀开头
+     *
+     * @param className 类名
+     * @return 匹配返回true
+     */
+    public boolean matches(String className) {
+        if (empty) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0; i < className.length(); i++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.children.get(className.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 尝试将正则表达式解析为纯包名前缀，如 {@code com\.example\..*|org\.demo.*}。
+     * 只有每个分支都是"字面量 + .*"形式时才能解析成功，否则返回null，由调用方回退到正则匹配
+     *
+     * @param regexp 已经反转义的正则表达式
+     * @return 前缀列表，无法解析时返回null
+     */
+    public static List<String> parseLiteralPrefixes(String regexp) {
+        List<String> prefixes = new ArrayList<>();
+        for (String branch : regexp.split("\\|", -1)) {
+            String prefix = parseLiteralPrefix(branch.trim());
+            if (prefix == null) {
+                return null;
+            }
+            prefixes.add(prefix);
+        }
+        return prefixes;
+    }
+
+    private static String parseLiteralPrefix(String branch) {
+        if (branch.startsWith("^")) {
+            branch = branch.substring(1);
+        }
+        if (branch.endsWith("$")) {
+            branch = branch.substring(0, branch.length() - 1);
+        }
+        if (!branch.endsWith(".*")) {
+            return null;
+        }
+        String body = branch.substring(0, branch.length() - 2);
+        StringBuilder prefix = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < body.length() && body.charAt(i + 1) == '.') {
+                    prefix.append('.');
+                    i++;
+                    continue;
+                }
+                return null;
+            }
+            if (c == '$' || !Character.isJavaIdentifierPart(c)) {
+                return null;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> children = new HashMap<>(4);
+
+        private boolean terminal;
+    }
+}
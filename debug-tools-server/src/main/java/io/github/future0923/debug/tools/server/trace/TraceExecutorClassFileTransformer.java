@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.trace.MethodTraceAsyncTasks;
+import io.github.future0923.debug.tools.base.utils.DebugToolsLibUtils;
+import io.github.future0923.debug.tools.server.DebugToolsBootstrap;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.scaffold.TypeValidation;
+import net.bytebuddy.matcher.ElementMatchers;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 线程池类转换器，开启跨线程追踪的方法执行期间织入JDK线程池，使提交到线程池中的任务延续提交线程的追踪。
+ * <p>
+ * 第一个开启跨线程追踪的方法开始执行时织入，最后一个结束并且已经恢复上下文的任务都执行完后还原
+ *
+ * @author future0923
+ */
+public class TraceExecutorClassFileTransformer {
+
+    private static final Logger logger = Logger.getLogger(TraceExecutorClassFileTransformer.class);
+
+    /**
+     * 钩子类名，不能通过 {@code TraceExecutorHook.class} 获取，否则会先被agent的类加载器加载
+     */
+    private static final String HOOK_CLASS_NAME = "io.github.future0923.debug.tools.server.trace.TraceExecutorHook";
+
+    private static final String THREAD_POOL_EXECUTOR_CLASS_NAME = "java.util.concurrent.ThreadPoolExecutor";
+
+    private static final String FORK_JOIN_POOL_CLASS_NAME = "java.util.concurrent.ForkJoinPool";
+
+    private static final String FORK_JOIN_TASK_CLASS_NAME = "java.util.concurrent.ForkJoinTask";
+
+    /**
+     * 正在执行的开启跨线程追踪的方法数
+     */
+    private static volatile int activeTraceCount;
+
+    /**
+     * 注入到启动类加载器中的钩子类
+     */
+    private static Class<?> hookClass;
+
+    private static volatile ResettableClassFileTransformer transformer;
+
+    /**
+     * 是否已经提交还原任务
+     */
+    private static final AtomicBoolean RESET_SCHEDULED = new AtomicBoolean();
+
+    /**
+     * 开启跨线程追踪的方法开始执行
+     */
+    public static synchronized void start() {
+        if (hookClass == null) {
+            hookClass = loadHookClass();
+            if (hookClass == null) {
+                return;
+            }
+            installHooks(hookClass);
+            MethodTraceAsyncTasks.setIdleListener(TraceExecutorClassFileTransformer::scheduleReset);
+        }
+        activeTraceCount++;
+        setEnabled(hookClass, true);
+        if (transformer == null) {
+            transformer = new AgentBuilder.Default(new ByteBuddy().with(TypeValidation.DISABLED))
+                    // 默认忽略启动类加载器加载的类
+                    .ignore(ElementMatchers.nameStartsWith("net.bytebuddy."))
+                    .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                    .disableClassFormatChanges()
+                    .type(ElementMatchers.named(THREAD_POOL_EXECUTOR_CLASS_NAME))
+                    .transform((builder, typeDescription, classLoader, module, protectionDomain) -> builder.visit(threadPoolExecutorVisitor()))
+                    .type(ElementMatchers.named(FORK_JOIN_POOL_CLASS_NAME))
+                    .transform((builder, typeDescription, classLoader, module, protectionDomain) -> builder.visit(forkJoinPoolVisitor()))
+                    .type(ElementMatchers.named(FORK_JOIN_TASK_CLASS_NAME))
+                    .transform((builder, typeDescription, classLoader, module, protectionDomain) -> builder.visit(forkJoinTaskVisitor()))
+                    .installOn(DebugToolsBootstrap.INSTANCE.getInstrumentation());
+        }
+    }
+
+    /**
+     * 开启跨线程追踪的方法执行结束，没有正在执行的追踪时关闭，已经恢复上下文的任务都执行完后还原
+     */
+    public static synchronized void finish() {
+        if (hookClass == null || activeTraceCount == 0) {
+            return;
+        }
+        if (--activeTraceCount > 0) {
+            return;
+        }
+        setEnabled(hookClass, false);
+        MethodTraceAsyncTasks.clear();
+        resetIfIdle();
+    }
+
+    /**
+     * 没有正在执行的追踪和任务时还原线程池
+     */
+    private static synchronized void resetIfIdle() {
+        RESET_SCHEDULED.set(false);
+        if (activeTraceCount > 0 || transformer == null || MethodTraceAsyncTasks.getRunningCount() > 0) {
+            return;
+        }
+        transformer.reset(DebugToolsBootstrap.INSTANCE.getInstrumentation(), AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
+        transformer = null;
+    }
+
+    /**
+     * 最后一个任务在线程池的线程中执行完，不在该线程中还原
+     */
+    private static void scheduleReset() {
+        if (activeTraceCount > 0 || transformer == null || !RESET_SCHEDULED.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(TraceExecutorClassFileTransformer::resetIfIdle, "DebugTools-ResetExecutorTrace");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * ThreadPoolExecutor 织入 execute、beforeExecute、afterExecute
+     */
+    static AsmVisitorWrapper threadPoolExecutorVisitor() {
+        return new AsmVisitorWrapper.Compound(
+                Advice.to(TraceExecutorInterceptor.Execute.class).on(ElementMatchers.named("execute").and(ElementMatchers.takesArguments(Runnable.class))),
+                Advice.to(TraceExecutorInterceptor.BeforeExecute.class).on(ElementMatchers.named("beforeExecute").and(ElementMatchers.takesArguments(Thread.class, Runnable.class))),
+                Advice.to(TraceExecutorInterceptor.AfterExecute.class).on(ElementMatchers.named("afterExecute").and(ElementMatchers.takesArguments(Runnable.class, Throwable.class))));
+    }
+
+    /**
+     * ForkJoinPool 织入 execute(Runnable)
+     */
+    static AsmVisitorWrapper forkJoinPoolVisitor() {
+        return Advice.to(TraceExecutorInterceptor.ForkJoinExecute.class).on(ElementMatchers.named("execute").and(ElementMatchers.takesArguments(Runnable.class)));
+    }
+
+    /**
+     * ForkJoinTask 织入 doExec()
+     */
+    static AsmVisitorWrapper forkJoinTaskVisitor() {
+        return Advice.to(TraceExecutorInterceptor.ForkJoinTaskExec.class).on(ElementMatchers.named("doExec").and(ElementMatchers.takesArguments(0)));
+    }
+
+    /**
+     * 设置钩子
+     *
+     * @param hookClass 钩子类
+     */
+    static void installHooks(Class<?> hookClass) {
+        try {
+            hookClass.getField("onExecute").set(null, (Consumer<Object>) MethodTraceAsyncTasks::capture);
+            hookClass.getField("onForkJoinExecute").set(null, (Function<Object, Object>) MethodTraceAsyncTasks::wrapForkJoin);
+            hookClass.getField("onBeforeExecute").set(null, (Consumer<Object>) MethodTraceAsyncTasks::beforeExecute);
+            hookClass.getField("onAfterExecute").set(null, (Consumer<Object>) MethodTraceAsyncTasks::afterExecute);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("install trace executor hook error", e);
+        }
+    }
+
+    private static void setEnabled(Class<?> hookClass, boolean enabled) {
+        try {
+            hookClass.getField("enabled").setBoolean(null, enabled);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("set trace executor hook enabled error", e);
+        }
+    }
+
+    /**
+     * 获取启动类加载器中的钩子类，没有时注入
+     *
+     * @return 注入失败时返回null
+     */
+    private static Class<?> loadHookClass() {
+        try {
+            return Class.forName(HOOK_CLASS_NAME, false, null);
+        } catch (ClassNotFoundException ignored) {
+        }
+        try {
+            byte[] bytes = ClassFileLocator.ForClassLoader.of(TraceExecutorClassFileTransformer.class.getClassLoader()).locate(HOOK_CLASS_NAME).resolve();
+            return ClassInjector.UsingInstrumentation
+                    .of(DebugToolsLibUtils.getDebugToolsLibDir(), ClassInjector.UsingInstrumentation.Target.BOOTSTRAP, DebugToolsBootstrap.INSTANCE.getInstrumentation())
+                    .injectRaw(Collections.singletonMap(HOOK_CLASS_NAME, bytes))
+                    .get(HOOK_CLASS_NAME);
+        } catch (Exception e) {
+            logger.warning("inject trace executor hook error, async trace is disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 线程池追踪钩子，由 {@link TraceExecutorClassFileTransformer} 注入到启动类加载器中，供织入到JDK线程池中的代码读取。
+ * <p>
+ * JDK中的类看不到agent中的类，所以这里只能依赖JDK中的类型。未开启时织入的代码只读一次 {@link #enabled}
+ *
+ * @author future0923
+ */
+public final class TraceExecutorHook {
+
+    /**
+     * 是否有开启跨线程追踪的方法正在执行
+     */
+    public static volatile boolean enabled;
+
+    /**
+     * 提交任务到 ThreadPoolExecutor 时记录上下文
+     */
+    public static volatile Consumer<Object> onExecute;
+
+    /**
+     * 提交任务到 ForkJoinPool 时记录上下文，返回提交的任务
+     */
+    public static volatile Function<Object, Object> onForkJoinExecute;
+
+    /**
+     * 任务执行前恢复上下文
+     */
+    public static volatile Consumer<Object> onBeforeExecute;
+
+    /**
+     * 任务执行后还原上下文，关闭后仍然调用，保证已经恢复的上下文都能还原
+     */
+    public static volatile Consumer<Object> onAfterExecute;
+
+    private TraceExecutorHook() {
+
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import net.bytebuddy.asm.Advice;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 线程池拦截器，织入到JDK线程池中，通过 {@link TraceExecutorHook} 调用追踪逻辑。
+ * <p>
+ * ThreadPoolExecutor 只在提交时记录上下文，在 beforeExecute/afterExecute 中恢复和还原，入队的任务不做替换。
+ * 织入的代码抛出的异常全部忽略，不影响线程池本身
+ *
+ * @author future0923
+ */
+public class TraceExecutorInterceptor {
+
+    /**
+     * ThreadPoolExecutor#execute(Runnable)
+     */
+    public static class Execute {
+
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        static void enter(@Advice.Argument(0) Runnable task) {
+            if (TraceExecutorHook.enabled) {
+                Consumer<Object> hook = TraceExecutorHook.onExecute;
+                if (hook != null) {
+                    hook.accept(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * ThreadPoolExecutor#beforeExecute(Thread, Runnable)
+     */
+    public static class BeforeExecute {
+
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        static void enter(@Advice.Argument(1) Runnable task) {
+            if (TraceExecutorHook.enabled) {
+                Consumer<Object> hook = TraceExecutorHook.onBeforeExecute;
+                if (hook != null) {
+                    hook.accept(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * ThreadPoolExecutor#afterExecute(Runnable, Throwable)
+     */
+    public static class AfterExecute {
+
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        static void enter(@Advice.Argument(0) Runnable task) {
+            Consumer<Object> hook = TraceExecutorHook.onAfterExecute;
+            if (hook != null) {
+                hook.accept(task);
+            }
+        }
+    }
+
+    /**
+     * ForkJoinPool#execute(Runnable)
+     */
+    public static class ForkJoinExecute {
+
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        static void enter(@Advice.Argument(value = 0, readOnly = false) Runnable task) {
+            if (TraceExecutorHook.enabled) {
+                Function<Object, Object> hook = TraceExecutorHook.onForkJoinExecute;
+                if (hook != null) {
+                    task = (Runnable) hook.apply(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * ForkJoinTask#doExec()
+     */
+    public static class ForkJoinTaskExec {
+
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        static void enter(@Advice.This Object task) {
+            if (TraceExecutorHook.enabled) {
+                Consumer<Object> hook = TraceExecutorHook.onBeforeExecute;
+                if (hook != null) {
+                    hook.accept(task);
+                }
+            }
+        }
+
+        @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+        static void exit(@Advice.This Object task) {
+            Consumer<Object> hook = TraceExecutorHook.onAfterExecute;
+            if (hook != null) {
+                hook.accept(task);
+            }
+        }
+    }
+}
@@ -18,7 +18,6 @@ package io.github.future0923.debug.tools.server.trace;
 
 import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
 import io.github.future0923.debug.tools.base.hutool.core.util.ReflectUtil;
-import io.github.future0923.debug.tools.base.hutool.core.util.StrUtil;
 import io.github.future0923.debug.tools.base.trace.MethodTrace;
 import io.github.future0923.debug.tools.base.utils.DebugToolsClassUtils;
 import io.github.future0923.debug.tools.common.dto.TraceMethodDTO;
@@ -44,10 +43,7 @@ import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.dynamic.scaffold.TypeValidation;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
-import org.apache.commons.text.StringEscapeUtils;
 
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
@@ -55,7 +51,6 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
 
 /**
  * 方法追踪类转换器
@@ -77,11 +72,6 @@ public class TraceMethodClassFileTransformer {
     @Getter
     private static final Set<String> IGNORED_METHOD_SET = new HashSet<>();
 
-    /**
-     * 该类中的getter和setter方法集合
-     */
-    private static final Map<Class<?>, Set<String>> classGetSetMethodNameMap = new ConcurrentHashMap<>();
-
     /**
      * 追踪MyBatis时拦截的类名
      */
@@ -106,22 +96,37 @@ public class TraceMethodClassFileTransformer {
         ClassPool classPool = JavassistUtil.getClassPool(classLoader);
         CtClass ctClass = classPool.get(targetClass.getName());
         String methodDescription = getDescriptor(classPool, targetMethod);
+        TraceMethodConfig traceMethodConfig = TraceMethodConfig.of(traceMethodDTO);
         redefineMethod(
                 classLoader,
                 classPool,
                 ctClass,
                 targetMethod.getName(),
                 methodDescription,
-                traceMethodDTO.getTraceSkipStartGetSetCheckBox(),
-                traceMethodDTO.getTraceBusinessPackageRegexp(),
-                traceMethodDTO.getTraceIgnorePackageRegexp(),
-                traceMethodDTO.getTraceMaxDepth() == null ? 1 : traceMethodDTO.getTraceMaxDepth()
+                traceMethodConfig,
+                traceMethodConfig.getMaxDepth()
         );
         redefineMyBatisMethod(classLoader, classPool, traceMethodDTO.getTraceMyBatis());
+        if (BooleanUtil.isTrue(traceMethodDTO.getTraceAsync())) {
+            TraceExecutorClassFileTransformer.start();
+        }
         MethodTrace.setTraceSqlStatus(traceMethodDTO.getTraceSQL());
+        MethodTrace.setTraceAsyncStatus(traceMethodDTO.getTraceAsync());
+        MethodTrace.setCaptureOptions(traceMethodConfig.getCaptureOptions());
         MethodTrace.redefineTraceMethodProcessing = false;
     }
 
+    /**
+     * 追踪的方法执行结束，与 {@link #traceMethod(ClassLoader, Class, Method, TraceMethodDTO)} 成对调用
+     *
+     * @param traceMethodDTO 配置信息
+     */
+    public static void finishTraceMethod(TraceMethodDTO traceMethodDTO) {
+        if (BooleanUtil.isTrue(traceMethodDTO.getTraceAsync())) {
+            TraceExecutorClassFileTransformer.finish();
+        }
+    }
+
     /**
      * 添加追踪方法
      *
@@ -199,10 +204,11 @@ public class TraceMethodClassFileTransformer {
      * @param ctClass           javassist类
      * @param methodName        方法名
      * @param methodDescription 方法描述符
+     * @param traceMethodConfig 追踪配置
      * @param maxDepth          最大递归深度
      * @throws Exception 异常
      */
-    private static void redefineMethod(ClassLoader classLoader, ClassPool classPool, CtClass ctClass, String methodName, String methodDescription, Boolean traceSkipStartGetSetCheckBox, String traceBusinessPackageRegexp, String traceIgnorePackageRegexp, int maxDepth) throws Exception {
+    private static void redefineMethod(ClassLoader classLoader, ClassPool classPool, CtClass ctClass, String methodName, String methodDescription, TraceMethodConfig traceMethodConfig, int maxDepth) throws Exception {
         if (maxDepth - 1 < 0) {
             return;
         }
@@ -210,18 +216,15 @@ public class TraceMethodClassFileTransformer {
             return;
         }
         String className = ctClass.getName();
-        if (className.startsWith("java.")) {
+        if (traceMethodConfig.isJdkClass(className)) {
             return;
         }
-        if (className.startsWith("javax.")) {
+        if (traceMethodConfig.isNotBusinessClass(className)) {
             return;
         }
-        if (StrUtil.isNotBlank(traceBusinessPackageRegexp) && !Pattern.compile(StringEscapeUtils.unescapeJava(traceBusinessPackageRegexp)).matcher(className).matches()) {
-            return;
-        }
-        if (StrUtil.isNotBlank(traceIgnorePackageRegexp) && Pattern.compile(StringEscapeUtils.unescapeJava(traceIgnorePackageRegexp)).matcher(className).matches()) {
+        if (traceMethodConfig.isIgnoredClass(className)) {
             RESETTABLE_CLASS_FILE_TRANSFORMER_MAP.entrySet().removeIf(entry -> {
-                if (Pattern.compile(traceIgnorePackageRegexp).matcher(entry.getKey().split("#")[0]).matches()) {
+                if (traceMethodConfig.isIgnoredMethod(entry.getKey())) {
                     entry.getValue().reset(DebugToolsBootstrap.INSTANCE.getInstrumentation(), AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
                     return true;
                 }
@@ -234,24 +237,8 @@ public class TraceMethodClassFileTransformer {
             return;
         }
         Class<?> targetClass = classLoader.loadClass(className);
-        if (BooleanUtil.isTrue(traceSkipStartGetSetCheckBox)) {
-            Set<String> getSetMethodNameSet = classGetSetMethodNameMap.get(targetClass);
-            if (getSetMethodNameSet == null) {
-                getSetMethodNameSet = new HashSet<>();
-                PropertyDescriptor[] propertyDescriptors = Introspector.getBeanInfo(targetClass).getPropertyDescriptors();
-                for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                    if ("class".equals(propertyDescriptor.getName())) {
-                        continue;
-                    }
-                    if (propertyDescriptor.getReadMethod() != null) {
-                        getSetMethodNameSet.add(propertyDescriptor.getReadMethod().getName());
-                    }
-                    if (propertyDescriptor.getWriteMethod() != null) {
-                        getSetMethodNameSet.add(propertyDescriptor.getWriteMethod().getName());
-                    }
-                }
-                classGetSetMethodNameMap.put(targetClass, getSetMethodNameSet);
-            }
+        if (traceMethodConfig.isSkipGetSet()) {
+            Set<String> getSetMethodNameSet = TraceMethodConfig.getGetSetMethodNameSet(targetClass);
             if (getSetMethodNameSet.contains(methodName)) {
                 RESETTABLE_CLASS_FILE_TRANSFORMER_MAP.computeIfPresent(qualifierNameKey, (k, transformer) -> {
                     transformer.reset(DebugToolsBootstrap.INSTANCE.getInstrumentation(), AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
@@ -298,9 +285,7 @@ public class TraceMethodClassFileTransformer {
                             classPool.get(constPool.getMethodrefClassName(target)),
                             constPool.getMethodrefName(target),
                             constPool.getMethodrefType(target),
-                            traceSkipStartGetSetCheckBox,
-                            traceBusinessPackageRegexp,
-                            traceIgnorePackageRegexp,
+                            traceMethodConfig,
                             maxDepth - 1);
                 }
             }
@@ -334,7 +319,7 @@ public class TraceMethodClassFileTransformer {
      * @param methodDescription 方法描述符
      * @return 方法匹配器
      */
-    private static ElementMatcher<? super MethodDescription> getMethodDescription(String methodName, String methodDescription) {
+    static ElementMatcher<? super MethodDescription> getMethodDescription(String methodName, String methodDescription) {
         ElementMatcher.Junction<NamedElement> methodMatcher = ElementMatchers.named(methodName);
         return methodDescription == null ? methodMatcher : methodMatcher.and(ElementMatchers.hasDescriptor(methodDescription));
     }
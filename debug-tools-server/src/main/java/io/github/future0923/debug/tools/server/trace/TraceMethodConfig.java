@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.hutool.core.map.WeakConcurrentMap;
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.base.hutool.core.util.StrUtil;
+import io.github.future0923.debug.tools.base.trace.MethodTraceCaptureOptions;
+import io.github.future0923.debug.tools.common.dto.TraceMethodDTO;
+import lombok.Getter;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 追踪方法配置，每次追踪时由 {@link TraceMethodDTO} 编译一次，在递归重定义方法时复用
+ *
+ * @author future0923
+ */
+public class TraceMethodConfig {
+
+    /**
+     * 不追踪的JDK包前缀
+     */
+    private static final PackagePrefixTrie JDK_PACKAGE_TRIE = new PackagePrefixTrie();
+
+    /**
+     * 类中的getter和setter方法集合，类卸载后自动移除
+     */
+    private static final WeakConcurrentMap<Class<?>, Set<String>> CLASS_GET_SET_METHOD_NAME_MAP = new WeakConcurrentMap<>();
+
+    static {
+        JDK_PACKAGE_TRIE.add("java.");
+        JDK_PACKAGE_TRIE.add("javax.");
+    }
+
+    /**
+     * 跳过getter和setter方法
+     */
+    @Getter
+    private final boolean skipGetSet;
+
+    /**
+     * 追踪最大深度
+     */
+    @Getter
+    private final int maxDepth;
+
+    /**
+     * 入参、返回值、异常捕获配置
+     */
+    private final boolean captureThrowable;
+
+    private final boolean captureParams;
+
+    private final int captureParamsMaxLength;
+
+    private final long captureBudgetBytes;
+
+    /**
+     * 业务包过滤器
+     */
+    private final ClassNameFilter businessFilter;
+
+    /**
+     * 忽略包过滤器
+     */
+    private final ClassNameFilter ignoreFilter;
+
+    private TraceMethodConfig(TraceMethodDTO traceMethodDTO) {
+        this.skipGetSet = BooleanUtil.isTrue(traceMethodDTO.getTraceSkipStartGetSetCheckBox());
+        this.maxDepth = traceMethodDTO.getTraceMaxDepth() == null ? 1 : traceMethodDTO.getTraceMaxDepth();
+        this.captureThrowable = BooleanUtil.isTrue(traceMethodDTO.getTraceThrowable());
+        this.captureParams = BooleanUtil.isTrue(traceMethodDTO.getTraceParams());
+        this.captureParamsMaxLength = traceMethodDTO.getTraceParamsMaxLength() == null ? 256 : traceMethodDTO.getTraceParamsMaxLength();
+        this.captureBudgetBytes = traceMethodDTO.getTraceCaptureBudgetBytes() == null ? 4L * 1024 * 1024 : traceMethodDTO.getTraceCaptureBudgetBytes();
+        this.businessFilter = ClassNameFilter.compile(traceMethodDTO.getTraceBusinessPackageRegexp());
+        this.ignoreFilter = ClassNameFilter.compile(traceMethodDTO.getTraceIgnorePackageRegexp());
+    }
+
+    /**
+     * 编译追踪配置
+     *
+     * @param traceMethodDTO 追踪信息
+     * @return 追踪配置
+     */
+    public static TraceMethodConfig of(TraceMethodDTO traceMethodDTO) {
+        return new TraceMethodConfig(traceMethodDTO);
+    }
+
+    /**
+     * 创建本次追踪的捕获配置，每次追踪使用独立的字节预算
+     *
+     * @return 未开启捕获时返回null
+     */
+    public MethodTraceCaptureOptions getCaptureOptions() {
+        if (!captureThrowable && !captureParams) {
+            return null;
+        }
+        return new MethodTraceCaptureOptions(captureThrowable, captureParams, captureParamsMaxLength, captureBudgetBytes);
+    }
+
+    /**
+     * 是否是JDK的类
+     */
+    public boolean isJdkClass(String className) {
+        return JDK_PACKAGE_TRIE.matches(className);
+    }
+
+    /**
+     * 是否不在业务包中，未配置业务包时返回false
+     */
+    public boolean isNotBusinessClass(String className) {
+        return businessFilter != null && !businessFilter.matches(className);
+    }
+
+    /**
+     * 是否在忽略包中，未配置忽略包时返回false
+     */
+    public boolean isIgnoredClass(String className) {
+        return ignoreFilter != null && ignoreFilter.matches(className);
+    }
+
+    /**
+     * 方法唯一签名所在的类是否在忽略包中，签名中没有类名时返回false
+     *
+     * @param qualifierNameKey 方法唯一签名，格式为 类名#方法名方法描述符
+     */
+    public boolean isIgnoredMethod(String qualifierNameKey) {
+        int index = qualifierNameKey.indexOf('#');
+        return index >= 0 && isIgnoredClass(qualifierNameKey.substring(0, index));
+    }
+
+    /**
+     * 获取类中getter和setter方法名称，结果按类缓存
+     *
+     * @param targetClass 类
+     * @return 方法名称集合
+     */
+    public static Set<String> getGetSetMethodNameSet(Class<?> targetClass) {
+        return CLASS_GET_SET_METHOD_NAME_MAP.computeIfAbsent(targetClass, TraceMethodConfig::introspectGetSetMethodName);
+    }
+
+    private static Set<String> introspectGetSetMethodName(Class<?> targetClass) {
+        PropertyDescriptor[] propertyDescriptors;
+        try {
+            propertyDescriptors = Introspector.getBeanInfo(targetClass).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            return Collections.emptySet();
+        }
+        Set<String> getSetMethodNameSet = new HashSet<>();
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            if ("class".equals(propertyDescriptor.getName())) {
+                continue;
+            }
+            if (propertyDescriptor.getReadMethod() != null) {
+                getSetMethodNameSet.add(propertyDescriptor.getReadMethod().getName());
+            }
+            if (propertyDescriptor.getWriteMethod() != null) {
+                getSetMethodNameSet.add(propertyDescriptor.getWriteMethod().getName());
+            }
+        }
+        return getSetMethodNameSet;
+    }
+
+    /**
+     * 类名过滤器，纯包名前缀的正则使用字典树匹配，其余使用预编译的正则
+     */
+    private static class ClassNameFilter {
+
+        private final PackagePrefixTrie prefixTrie;
+
+        private final Pattern pattern;
+
+        private ClassNameFilter(PackagePrefixTrie prefixTrie, Pattern pattern) {
+            this.prefixTrie = prefixTrie;
+            this.pattern = pattern;
+        }
+
+        private static ClassNameFilter compile(String regexp) {
+            if (StrUtil.isBlank(regexp)) {
+                return null;
+            }
+            String unescape = StringEscapeUtils.unescapeJava(regexp);
+            List<String> prefixes = PackagePrefixTrie.parseLiteralPrefixes(unescape);
+            if (prefixes != null) {
+                PackagePrefixTrie trie = new PackagePrefixTrie();
+                prefixes.forEach(trie::add);
+                return new ClassNameFilter(trie, null);
+            }
+            return new ClassNameFilter(null, Pattern.compile(unescape));
+        }
+
+        private boolean matches(String className) {
+            if (prefixTrie != null) {
+                return prefixTrie.matches(className);
+            }
+            return pattern.matcher(className).matches();
+        }
+    }
+}
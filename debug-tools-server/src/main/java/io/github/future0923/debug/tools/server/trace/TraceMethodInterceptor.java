@@ -18,6 +18,7 @@ package io.github.future0923.debug.tools.server.trace;
 
 import io.github.future0923.debug.tools.base.trace.MethodTrace;
 import net.bytebuddy.asm.Advice;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
 
 import java.lang.reflect.Method;
 
@@ -44,17 +45,23 @@ public class TraceMethodInterceptor {
             if (!Object.class.equals(invokeMethod.getDeclaringClass())) {
                 Class<?> declaringClass = invokeMethod.getDeclaringClass();
                 MethodTrace.enterMyBatis(declaringClass.getName(), declaringClass.getSimpleName(), invokeMethod.getName(), MethodTrace.genMethodSignature(invokeMethod));
+                MethodTrace.captureArgs((Object[]) args[2]);
             }
             return;
         }
         MethodTrace.enterMethod(clazz.getName(), clazz.getSimpleName(), method.getName(), MethodTrace.genMethodSignature(method));
+        MethodTrace.captureArgs(args);
     }
 
     /**
-     * 方法执行之后
+     * 方法执行之后，抛出异常时也需要出栈
+     *
+     * @param returnValue 返回值
+     * @param throwable   抛出的异常
      */
-    @Advice.OnMethodExit
-    static void invokeWhileExitingEachMethod() {
-        MethodTrace.exit();
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    static void invokeWhileExitingEachMethod(@Advice.Return(typing = Assigner.Typing.DYNAMIC) Object returnValue,
+                                             @Advice.Thrown Throwable throwable) {
+        MethodTrace.exit(returnValue, throwable);
     }
 }
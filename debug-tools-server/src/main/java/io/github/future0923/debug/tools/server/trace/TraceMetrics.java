@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个方法的调用指标，计数使用分段的 {@link LongAdder}，耗时分布使用 {@link LogLinearHistogram}
+ *
+ * @author future0923
+ */
+@Getter
+public class TraceMetrics {
+
+    private final int methodId;
+
+    private final String className;
+
+    private final String methodName;
+
+    private final String methodDescription;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+    public TraceMetrics(int methodId, String className, String methodName, String methodDescription) {
+        this.methodId = methodId;
+        this.className = className;
+        this.methodName = methodName;
+        this.methodDescription = methodDescription;
+    }
+
+    /**
+     * 记录一次调用
+     *
+     * @param nanos 耗时
+     * @param error 是否抛出异常
+     */
+    public void record(long nanos, boolean error) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.record(nanos);
+        if (error) {
+            errorCount.increment();
+        }
+    }
+
+    /**
+     * 获取快照
+     * <p>
+     * 清空时每个计数都是取值并清零，取值期间新增的调用会计入下一次快照而不会丢失。
+     * 各计数之间不是原子的，所以百分位按直方图自身的总数计算
+     *
+     * @param reset 是否同时清空
+     * @return 快照
+     */
+    public TraceMetricsRes.Item snapshot(boolean reset) {
+        long count = reset ? this.count.sumThenReset() : this.count.sum();
+        long errorCount = reset ? this.errorCount.sumThenReset() : this.errorCount.sum();
+        long totalNanos = reset ? this.totalNanos.sumThenReset() : this.totalNanos.sum();
+        long maxNanos = reset ? this.maxNanos.getThenReset() : this.maxNanos.get();
+        long[] counts = histogram.snapshot(reset);
+        long histogramTotal = 0;
+        List<TraceMetricsRes.Bucket> bucketList = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            histogramTotal += counts[i];
+            TraceMetricsRes.Bucket bucket = new TraceMetricsRes.Bucket();
+            bucket.setUpperNanos(LogLinearHistogram.bucketUpperBound(i));
+            bucket.setCount(counts[i]);
+            bucketList.add(bucket);
+        }
+        TraceMetricsRes.Item item = new TraceMetricsRes.Item();
+        item.setClassName(className);
+        item.setMethodName(methodName);
+        item.setMethodDescription(methodDescription);
+        item.setCount(count);
+        item.setErrorCount(errorCount);
+        item.setTotalNanos(totalNanos);
+        item.setAvgNanos(count == 0 ? 0 : totalNanos / count);
+        item.setMaxNanos(maxNanos);
+        item.setP50Nanos(LogLinearHistogram.getValueAtPercentile(counts, 0.5, histogramTotal));
+        item.setP90Nanos(LogLinearHistogram.getValueAtPercentile(counts, 0.9, histogramTotal));
+        item.setP99Nanos(LogLinearHistogram.getValueAtPercentile(counts, 0.99, histogramTotal));
+        item.setP999Nanos(LogLinearHistogram.getValueAtPercentile(counts, 0.999, histogramTotal));
+        item.setBucketList(bucketList);
+        return item;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.utils.DebugToolsClassUtils;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
+import io.github.future0923.debug.tools.server.DebugToolsBootstrap;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.dynamic.scaffold.TypeValidation;
+import net.bytebuddy.matcher.ElementMatchers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法指标类转换器，与 {@link TraceMethodClassFileTransformer} 不同，只织入计数和耗时统计
+ *
+ * @author future0923
+ */
+public class TraceMetricsClassFileTransformer {
+
+    /**
+     * 已经开启指标的方法信息
+     * key:方法唯一签名
+     * value:可以用来还原为之前的信息
+     */
+    private static final Map<String, ResettableClassFileTransformer> RESETTABLE_CLASS_FILE_TRANSFORMER_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 开启方法指标
+     *
+     * @param className         类名
+     * @param methodName        方法名
+     * @param methodDescription 方法描述符
+     */
+    public static void addMetricsMethod(String className, String methodName, String methodDescription) {
+        String qualifierNameKey = DebugToolsClassUtils.getQualifierMethod(className, methodName, methodDescription);
+        RESETTABLE_CLASS_FILE_TRANSFORMER_MAP.computeIfAbsent(qualifierNameKey, key -> {
+            int methodId = TraceMetricsRegistry.register(className, methodName, methodDescription);
+            return new AgentBuilder.Default(new ByteBuddy().with(TypeValidation.DISABLED))
+                    .with(AgentBuilder.RedefinitionStrategy.REDEFINITION)
+                    .disableClassFormatChanges()
+                    .type(ElementMatchers.named(className))
+                    .transform((builder, typeDescription, classLoader, module, protectionDomain) -> builder.visit(
+                            Advice.withCustomMapping()
+                                    .bind(TraceMetricsInterceptor.MethodId.class, methodId)
+                                    .to(TraceMetricsInterceptor.class)
+                                    .on(TraceMethodClassFileTransformer.getMethodDescription(methodName, methodDescription))))
+                    .installOn(DebugToolsBootstrap.INSTANCE.getInstrumentation());
+        });
+    }
+
+    /**
+     * 取消方法指标，已记录的数据保留，重新开启时继续累加
+     *
+     * @param className         类名
+     * @param methodName        方法名
+     * @param methodDescription 方法描述符
+     */
+    public static void removeMetricsMethod(String className, String methodName, String methodDescription) {
+        String qualifierNameKey = DebugToolsClassUtils.getQualifierMethod(className, methodName, methodDescription);
+        RESETTABLE_CLASS_FILE_TRANSFORMER_MAP.computeIfPresent(qualifierNameKey, (k, transformer) -> {
+            transformer.reset(DebugToolsBootstrap.INSTANCE.getInstrumentation(), AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
+            // 返回 null 表示移除
+            return null;
+        });
+    }
+
+    /**
+     * 获取当前开启指标方法的快照
+     *
+     * @param reset 是否同时清空
+     */
+    public static List<TraceMetricsRes.Item> snapshot(boolean reset) {
+        return TraceMetricsRegistry.snapshot(RESETTABLE_CLASS_FILE_TRANSFORMER_MAP.keySet(), reset);
+    }
+}
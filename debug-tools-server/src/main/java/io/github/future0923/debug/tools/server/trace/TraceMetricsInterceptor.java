@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import net.bytebuddy.asm.Advice;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法指标拦截器，只记录调用次数和耗时，不构建调用树
+ *
+ * @author future0923
+ */
+public class TraceMetricsInterceptor {
+
+    /**
+     * 织入时绑定为方法id常量
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.PARAMETER)
+    public @interface MethodId {
+    }
+
+    /**
+     * 方法执行之前
+     *
+     * @return 开始时间
+     */
+    @Advice.OnMethodEnter
+    static long invokeBeforeEachMethod() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 方法执行之后
+     *
+     * @param methodId  方法id
+     * @param start     开始时间
+     * @param throwable 抛出的异常
+     */
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    static void invokeWhileExitingEachMethod(@MethodId int methodId,
+                                             @Advice.Enter long start,
+                                             @Advice.Thrown Throwable throwable) {
+        TraceMetricsRegistry.record(methodId, System.nanoTime() - start, throwable != null);
+    }
+}
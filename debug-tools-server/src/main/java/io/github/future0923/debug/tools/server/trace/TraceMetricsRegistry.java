@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.utils.DebugToolsClassUtils;
+import io.github.future0923.debug.tools.common.protocal.http.TraceMetricsRes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法调用指标注册表。
+ * <p>
+ * 每个方法注册时分配一个自增id并作为常量织入到字节码中，调用时直接按id从数组中取指标，不做任何查找
+ *
+ * @author future0923
+ */
+public class TraceMetricsRegistry {
+
+    /**
+     * key:方法唯一签名 value:方法id
+     */
+    private static final Map<String, Integer> METHOD_ID_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 下标为方法id，注册时写时复制扩容
+     */
+    private static volatile TraceMetrics[] metricsArray = new TraceMetrics[16];
+
+    private static int nextMethodId = 0;
+
+    /**
+     * 注册方法，重复注册返回相同id
+     *
+     * @return 方法id
+     */
+    public static int register(String className, String methodName, String methodDescription) {
+        String qualifierNameKey = DebugToolsClassUtils.getQualifierMethod(className, methodName, methodDescription);
+        return METHOD_ID_MAP.computeIfAbsent(qualifierNameKey, key -> {
+            synchronized (TraceMetricsRegistry.class) {
+                int methodId = nextMethodId++;
+                TraceMetrics[] array = metricsArray;
+                if (methodId >= array.length) {
+                    array = Arrays.copyOf(array, array.length * 2);
+                }
+                array[methodId] = new TraceMetrics(methodId, className, methodName, methodDescription);
+                metricsArray = array;
+                return methodId;
+            }
+        });
+    }
+
+    /**
+     * 记录一次调用，由织入的字节码调用
+     *
+     * @param methodId 方法id
+     * @param nanos    耗时
+     * @param error    是否抛出异常
+     */
+    public static void record(int methodId, long nanos, boolean error) {
+        TraceMetrics[] array = metricsArray;
+        if (methodId < array.length) {
+            TraceMetrics metrics = array[methodId];
+            if (metrics != null) {
+                metrics.record(nanos, error);
+            }
+        }
+    }
+
+    /**
+     * 获取所有已开启指标方法的快照
+     *
+     * @param methodKeySet 当前织入的方法签名
+     * @param reset        是否同时清空
+     * @return 快照
+     */
+    public static List<TraceMetricsRes.Item> snapshot(Iterable<String> methodKeySet, boolean reset) {
+        List<TraceMetricsRes.Item> itemList = new ArrayList<>();
+        TraceMetrics[] array = metricsArray;
+        for (String key : methodKeySet) {
+            Integer methodId = METHOD_ID_MAP.get(key);
+            if (methodId == null || methodId >= array.length || array[methodId] == null) {
+                continue;
+            }
+            itemList.add(array[methodId].snapshot(reset));
+        }
+        return itemList;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.http.handler;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.future0923.debug.tools.base.trace.MethodTraceType;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import io.github.future0923.debug.tools.base.utils.DebugToolsIOUtils;
+import io.github.future0923.debug.tools.server.utils.DebugToolsResultUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * @author future0923
+ */
+class RunResultTraceExportHttpHandlerTest {
+
+    private static HttpServer httpServer;
+
+    private static String url;
+
+    @BeforeAll
+    static void before() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext(RunResultTraceExportHttpHandler.PATH, RunResultTraceExportHttpHandler.INSTANCE);
+        httpServer.start();
+        url = "http://127.0.0.1:" + httpServer.getAddress().getPort() + RunResultTraceExportHttpHandler.PATH;
+        MethodTreeNode node = new MethodTreeNode();
+        node.setTraceType(MethodTraceType.METHOD);
+        node.setClassName("com.demo.UserService");
+        node.setClassSimpleName("UserService");
+        node.setMethodName("get");
+        node.setStart(1L);
+        node.setEnd(3L);
+        node.setDuration(2L);
+        DebugToolsResultUtils.putCache("exportTrace", Collections.singletonList(node));
+        DebugToolsResultUtils.putCache("exportNotTrace", Collections.singletonList("value"));
+    }
+
+    @AfterAll
+    static void after() {
+        DebugToolsResultUtils.removeCache("exportTrace");
+        DebugToolsResultUtils.removeCache("exportNotTrace");
+        httpServer.stop(0);
+    }
+
+    @Test
+    void export() throws IOException {
+        Response chrome = post("{\"offsetPath\":\"exportTrace\",\"format\":\"chrome\"}");
+        Assertions.assertEquals(200, chrome.status);
+        Assertions.assertTrue(chrome.body.contains("UserService"));
+        Response flameGraph = get("?offsetPath=exportTrace&format=flamegraph");
+        Assertions.assertEquals(200, flameGraph.status);
+        Assertions.assertTrue(flameGraph.body.contains("UserService"));
+    }
+
+    @Test
+    void badRequest() throws IOException {
+        Assertions.assertEquals(400, post("not json").status);
+        Assertions.assertEquals(400, post("{}").status);
+        Response format = post("{\"offsetPath\":\"exportTrace\",\"format\":\"svg\"}");
+        Assertions.assertEquals(400, format.status);
+        Assertions.assertTrue(format.body.contains("\"error\""));
+    }
+
+    @Test
+    void notFound() throws IOException {
+        Assertions.assertEquals(404, post("{\"offsetPath\":\"exportMissing\"}").status);
+        Assertions.assertEquals(404, post("{\"offsetPath\":\"exportNotTrace\"}").status);
+    }
+
+    private static Response post(String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    private static Response get(String query) throws IOException {
+        return read((HttpURLConnection) new URL(url + query).openConnection());
+    }
+
+    private static Response read(HttpURLConnection connection) throws IOException {
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        try (InputStream inputStream = response.status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            response.body = new String(DebugToolsIOUtils.readAllBytes(inputStream), StandardCharsets.UTF_8);
+        }
+        return response;
+    }
+
+    private static class Response {
+
+        private int status;
+
+        private String body;
+    }
+}
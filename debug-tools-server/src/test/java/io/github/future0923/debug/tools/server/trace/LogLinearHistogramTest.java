@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.trace.LogLinearHistogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author future0923
+ */
+class LogLinearHistogramTest {
+
+    @Test
+    void percentile() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        long[] counts = histogram.snapshot(false);
+        // 返回所在桶的上界，相对误差不超过 1/8
+        long p50 = LogLinearHistogram.getValueAtPercentile(counts, 0.5, 100);
+        Assertions.assertTrue(p50 >= 50 && p50 <= 50 + 50 / 8, String.valueOf(p50));
+        long p99 = LogLinearHistogram.getValueAtPercentile(counts, 0.99, 100);
+        Assertions.assertTrue(p99 >= 99 && p99 <= 99 + 99 / 8, String.valueOf(p99));
+        Assertions.assertEquals(p99, histogram.getValueAtPercentile(0.99, 100));
+        Assertions.assertEquals(0, LogLinearHistogram.getValueAtPercentile(counts, 0.5, 0));
+        Assertions.assertEquals(Long.MAX_VALUE, LogLinearHistogram.bucketUpperBound(counts.length - 1));
+    }
+
+    /**
+     * 多线程记录时同时取值清空，所有记录都在某一次取值中
+     */
+    @Test
+    void concurrentSnapshotAndReset() throws InterruptedException {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        int threadCount = 4;
+        int perThread = 200000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i & 1023);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long[] total = new long[1];
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                total[0] += sum(histogram.snapshot(true));
+            }
+        });
+        reader.start();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        reader.join();
+        total[0] += sum(histogram.snapshot(true));
+        Assertions.assertEquals((long) threadCount * perThread, total[0]);
+        Assertions.assertEquals(0, sum(histogram.snapshot(false)));
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.trace.MethodTrace;
+import io.github.future0923.debug.tools.base.trace.MethodTraceRepeatedSql;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * 相同指纹的SQL按次数记录到调用方法上，用于发现N+1查询
+ *
+ * @author future0923
+ */
+class MethodTraceRepeatedSqlTest {
+
+    private static final String SQL = "select * from t_user where id = ?";
+
+    private static final String FINGERPRINT = "select * from t_user where id=?";
+
+    @AfterEach
+    void after() {
+        MethodTreeNode.setRepeatedSqlThreshold(MethodTreeNode.DEFAULT_REPEATED_SQL_THRESHOLD);
+    }
+
+    /**
+     * 循环调用Mapper产生的SQL跳过MyBatis节点，记录到调用Mapper的方法上
+     */
+    @Test
+    void repeatedSqlThroughMyBatis() {
+        MethodTrace.enterMethod("com.demo.UserService", "UserService", "listUser", "()V");
+        for (int i = 0; i < 4; i++) {
+            MethodTrace.enterMyBatis("com.demo.UserMapper", "UserMapper", "selectById", "(J)Ljava/lang/Object;");
+            executeSql(SQL, FINGERPRINT, 2);
+            MethodTrace.exit();
+        }
+        executeSql("select * from t_order", "select * from t_order", 1);
+        MethodTrace.exit();
+        MethodTreeNode tree = getTree();
+        List<MethodTraceRepeatedSql> repeatedSqlList = tree.getRepeatedSqlList();
+        Assertions.assertNotNull(repeatedSqlList);
+        Assertions.assertEquals(1, repeatedSqlList.size());
+        MethodTraceRepeatedSql repeatedSql = repeatedSqlList.get(0);
+        Assertions.assertEquals(FINGERPRINT, repeatedSql.getFingerprint());
+        Assertions.assertEquals(SQL, repeatedSql.getSql());
+        Assertions.assertEquals(4, repeatedSql.getCount());
+        Assertions.assertEquals(8, repeatedSql.getDuration());
+        // MyBatis节点上不记录
+        Assertions.assertNull(tree.getChildren().get(0).getRepeatedSqlList());
+    }
+
+    /**
+     * SQL记录到最近的方法上，外层方法不重复记录
+     */
+    @Test
+    void repeatedSqlOnNearestMethod() {
+        MethodTrace.enterMethod("com.demo.UserController", "UserController", "list", "()V");
+        MethodTrace.enterMethod("com.demo.UserService", "UserService", "listUser", "()V");
+        for (int i = 0; i < 3; i++) {
+            executeSql(SQL, FINGERPRINT, 1);
+        }
+        MethodTrace.exit();
+        MethodTrace.exit();
+        MethodTreeNode tree = getTree();
+        Assertions.assertNull(tree.getRepeatedSqlList());
+        List<MethodTraceRepeatedSql> repeatedSqlList = tree.getChildren().get(0).getRepeatedSqlList();
+        Assertions.assertNotNull(repeatedSqlList);
+        Assertions.assertEquals(3, repeatedSqlList.get(0).getCount());
+    }
+
+    /**
+     * 修改阈值后按新的阈值判断
+     */
+    @Test
+    void repeatedSqlThreshold() {
+        MethodTreeNode.setRepeatedSqlThreshold(5);
+        Assertions.assertNull(traceRepeated(4).getRepeatedSqlList());
+        Assertions.assertEquals(5, traceRepeated(5).getRepeatedSqlList().get(0).getCount());
+        // 小于2时取2，为null时不修改
+        MethodTreeNode.setRepeatedSqlThreshold(1);
+        Assertions.assertEquals(2, MethodTreeNode.getRepeatedSqlThreshold());
+        MethodTreeNode.setRepeatedSqlThreshold(null);
+        Assertions.assertEquals(2, MethodTreeNode.getRepeatedSqlThreshold());
+        Assertions.assertNull(traceRepeated(1).getRepeatedSqlList());
+        Assertions.assertEquals(2, traceRepeated(2).getRepeatedSqlList().get(0).getCount());
+    }
+
+    private static MethodTreeNode traceRepeated(int count) {
+        MethodTrace.enterMethod("com.demo.UserService", "UserService", "listUser", "()V");
+        for (int i = 0; i < count; i++) {
+            executeSql(SQL, FINGERPRINT, 1);
+        }
+        MethodTrace.exit();
+        return getTree();
+    }
+
+    private static void executeSql(String sql, String fingerprint, long duration) {
+        MethodTrace.enterSql(sql, fingerprint);
+        MethodTrace.exitSql(duration);
+    }
+
+    private static MethodTreeNode getTree() {
+        List<MethodTreeNode> result = MethodTrace.getResult();
+        Assertions.assertEquals(1, result.size());
+        return result.get(0);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.base.trace.MethodTrace;
+import io.github.future0923.debug.tools.base.trace.MethodTraceAsyncTasks;
+import io.github.future0923.debug.tools.base.trace.MethodTraceType;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 织入 {@link TraceExecutorInterceptor} 的线程池子类，验证追踪上下文的传递和任务对象不被替换
+ *
+ * @author future0923
+ */
+class TraceExecutorInterceptorTest {
+
+    private static Class<? extends ThreadPoolExecutor> executorClass;
+
+    private final BlockingQueue<Runnable> afterExecuted = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void before() {
+        executorClass = new ByteBuddy()
+                .redefine(TestExecutor.class)
+                .visit(TraceExecutorClassFileTransformer.threadPoolExecutorVisitor())
+                .make()
+                .load(TraceExecutorInterceptorTest.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        TraceExecutorClassFileTransformer.installHooks(TraceExecutorHook.class);
+        TraceExecutorHook.enabled = true;
+    }
+
+    @AfterAll
+    static void after() {
+        TraceExecutorHook.enabled = false;
+    }
+
+    @BeforeEach
+    void enterTrace() {
+        MethodTrace.setTraceAsyncStatus(true);
+        MethodTrace.enterMethod("com.demo.DemoService", "DemoService", "run", "run(): void");
+    }
+
+    @AfterEach
+    void clearTrace() {
+        MethodTrace.getResult();
+        MethodTraceAsyncTasks.clear();
+        Assertions.assertEquals(0, MethodTraceAsyncTasks.getRunningCount());
+    }
+
+    @Test
+    void propagate() throws Exception {
+        ThreadPoolExecutor executor = newExecutor(1, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        executor.execute(() -> {
+            MethodTrace.enterMethod("com.demo.DemoService", "DemoService", "child", "child(): void");
+            MethodTrace.exit();
+        });
+        Assertions.assertNotNull(afterExecuted.poll(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        MethodTreeNode async = exitAndGetAsyncNode();
+        Assertions.assertEquals("trace-test", async.getThreadName());
+        Assertions.assertNotNull(async.getDuration());
+        Assertions.assertEquals(1, async.getChildren().size());
+        Assertions.assertEquals("child", async.getChildren().get(0).getMethodName());
+    }
+
+    @Test
+    void propagateCompletableFuture() throws Exception {
+        ThreadPoolExecutor executor = newExecutor(1, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        CompletableFuture.runAsync(() -> {
+        }, executor).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(afterExecuted.poll(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assertions.assertEquals("trace-test", exitAndGetAsyncNode().getThreadName());
+    }
+
+    @Test
+    void submitKeepsFutureTask() throws Exception {
+        ThreadPoolExecutor executor = newExecutor(1, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        Future<?> future = executor.submit(() -> {
+        });
+        Runnable task = afterExecuted.poll(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        Assertions.assertSame(future, task);
+        Assertions.assertTrue(task instanceof Future);
+    }
+
+    @Test
+    void removeAndShutdownNowReturnOriginalTask() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = newExecutor(1, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        Runnable removed = () -> {
+        };
+        Runnable queued = () -> {
+        };
+        executor.execute(removed);
+        Future<?> future = executor.submit(() -> {
+        });
+        executor.execute(queued);
+        Assertions.assertTrue(executor.remove(removed));
+        List<Runnable> notExecuted = executor.shutdownNow();
+        release.countDown();
+        Assertions.assertEquals(2, notExecuted.size());
+        Assertions.assertSame(future, notExecuted.get(0));
+        Assertions.assertSame(queued, notExecuted.get(1));
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectedHandlerReceivesOriginalTask() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Runnable> rejected = new AtomicReference<>();
+        ThreadPoolExecutor executor = newExecutor(1, new SynchronousQueue<>(), (r, e) -> rejected.set(r));
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<?> future = executor.submit(() -> {
+        });
+        release.countDown();
+        executor.shutdown();
+        Assertions.assertSame(future, rejected.get());
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void notPropagateWhenDisabled() throws Exception {
+        TraceExecutorHook.enabled = false;
+        try {
+            ThreadPoolExecutor executor = newExecutor(1, new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+            executor.execute(() -> {
+            });
+            Assertions.assertNotNull(afterExecuted.poll(5, TimeUnit.SECONDS));
+            executor.shutdown();
+            MethodTrace.exit();
+            Assertions.assertTrue(MethodTrace.getResult().get(0).getChildren().isEmpty());
+        } finally {
+            TraceExecutorHook.enabled = true;
+        }
+    }
+
+    private ThreadPoolExecutor newExecutor(int poolSize, BlockingQueue<Runnable> workQueue, RejectedExecutionHandler handler) throws Exception {
+        return executorClass
+                .getConstructor(int.class, BlockingQueue.class, RejectedExecutionHandler.class, BlockingQueue.class)
+                .newInstance(poolSize, workQueue, handler, afterExecuted);
+    }
+
+    private static MethodTreeNode exitAndGetAsyncNode() {
+        MethodTrace.exit();
+        List<MethodTreeNode> result = MethodTrace.getResult();
+        Assertions.assertEquals(1, result.size());
+        List<MethodTreeNode> children = result.get(0).getChildren();
+        Assertions.assertEquals(1, children.size());
+        Assertions.assertEquals(MethodTraceType.ASYNC, children.get(0).getTraceType());
+        return children.get(0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 与JDK线程池子类的常见写法相同，覆盖的方法都调用父类方法
+     */
+    public static class TestExecutor extends ThreadPoolExecutor {
+
+        private final BlockingQueue<Runnable> afterExecuted;
+
+        public TestExecutor(int poolSize, BlockingQueue<Runnable> workQueue, RejectedExecutionHandler handler, BlockingQueue<Runnable> afterExecuted) {
+            super(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, workQueue, r -> new Thread(r, "trace-test"), handler);
+            this.afterExecuted = afterExecuted;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            super.execute(command);
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            super.beforeExecute(t, r);
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            super.afterExecute(r, t);
+            afterExecuted.add(r);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.server.trace;
+
+import io.github.future0923.debug.tools.common.dto.TraceMethodDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author future0923
+ */
+class TraceMethodConfigTest {
+
+    @Test
+    void isIgnoredMethod() {
+        TraceMethodDTO traceMethodDTO = new TraceMethodDTO();
+        traceMethodDTO.setTraceIgnorePackageRegexp("com\\\\.demo\\\\.ignore\\\\..*");
+        TraceMethodConfig config = TraceMethodConfig.of(traceMethodDTO);
+        Assertions.assertTrue(config.isIgnoredMethod("com.demo.ignore.UserService#get(J)Ljava/lang/Object;"));
+        Assertions.assertFalse(config.isIgnoredMethod("com.demo.user.UserService#get(J)Ljava/lang/Object;"));
+        // 没有方法部分的签名不报错
+        Assertions.assertFalse(config.isIgnoredMethod("com.demo.ignore.UserService"));
+        Assertions.assertFalse(config.isIgnoredMethod(""));
+    }
+
+    @Test
+    void isIgnoredMethodWithoutIgnorePackage() {
+        TraceMethodConfig config = TraceMethodConfig.of(new TraceMethodDTO());
+        Assertions.assertFalse(config.isIgnoredMethod("com.demo.ignore.UserService#get(J)Ljava/lang/Object;"));
+    }
+}
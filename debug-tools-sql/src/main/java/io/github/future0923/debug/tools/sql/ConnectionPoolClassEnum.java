@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.hutool.core.util.ReflectUtil;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolSample;
+
+import java.util.function.Function;
+
+/**
+ * 支持统计获取连接耗时的连接池
+ *
+ * @author future0923
+ */
+public enum ConnectionPoolClassEnum {
+
+    /**
+     * HikariCP，增强 {@code HikariDataSource#getConnection()}
+     */
+    HIKARI(
+            "HikariCP",
+            "com.zaxxer.hikari.HikariDataSource",
+            new String[0],
+            dataSource -> ReflectUtil.invoke(dataSource, "getPoolName"),
+            dataSource -> {
+                // 连接池在第一次获取连接时才会初始化
+                Object pool = ReflectUtil.invoke(dataSource, "getHikariPoolMXBean");
+                if (pool == null) {
+                    return null;
+                }
+                return new int[]{
+                        intValue(ReflectUtil.invoke(pool, "getActiveConnections")),
+                        intValue(ReflectUtil.invoke(pool, "getIdleConnections")),
+                        intValue(ReflectUtil.invoke(pool, "getThreadsAwaitingConnection")),
+                };
+            }
+    ),
+
+    /**
+     * Druid，增强 {@code DruidDataSource#getConnection(long)}，无参的方法和过滤器链最终都会调用它
+     */
+    DRUID(
+            "Druid",
+            "com.alibaba.druid.pool.DruidDataSource",
+            new String[]{"long"},
+            dataSource -> ReflectUtil.invoke(dataSource, "getName"),
+            dataSource -> new int[]{
+                    intValue(ReflectUtil.invoke(dataSource, "getActiveCount")),
+                    intValue(ReflectUtil.invoke(dataSource, "getPoolingCount")),
+                    intValue(ReflectUtil.invoke(dataSource, "getWaitThreadCount")),
+            }
+    ),
+    ;
+
+    private final String type;
+
+    private final String dataSourceClassName;
+
+    /**
+     * 获取连接方法的参数类型
+     */
+    private final String[] acquireMethodParameterTypes;
+
+    private final Function<Object, String> poolNameReader;
+
+    /**
+     * 读取使用中、空闲、等待中的数量
+     */
+    private final Function<Object, int[]> stateReader;
+
+    ConnectionPoolClassEnum(String type, String dataSourceClassName, String[] acquireMethodParameterTypes, Function<Object, String> poolNameReader, Function<Object, int[]> stateReader) {
+        this.type = type;
+        this.dataSourceClassName = dataSourceClassName;
+        this.acquireMethodParameterTypes = acquireMethodParameterTypes;
+        this.poolNameReader = poolNameReader;
+        this.stateReader = stateReader;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String[] getAcquireMethodParameterTypes() {
+        return acquireMethodParameterTypes;
+    }
+
+    public String getPoolName(Object dataSource) {
+        return poolNameReader.apply(dataSource);
+    }
+
+    /**
+     * 采样连接池状态
+     *
+     * @return 连接池未初始化时返回null
+     */
+    public ConnectionPoolSample sample(Object dataSource, long time) {
+        int[] state = stateReader.apply(dataSource);
+        if (state == null) {
+            return null;
+        }
+        return new ConnectionPoolSample(time, state[0], state[1], state[2]);
+    }
+
+    public static ConnectionPoolClassEnum ofDataSourceClassName(String className) {
+        for (ConnectionPoolClassEnum value : values()) {
+            if (value.dataSourceClassName.equals(className)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : -1;
+    }
+}
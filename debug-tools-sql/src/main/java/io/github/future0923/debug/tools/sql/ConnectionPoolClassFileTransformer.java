@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.hotswap.core.util.JavassistUtil;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+
+/**
+ * 转换连接池数据源字节码，统计获取连接的耗时，开启 {@code connectionPoolMetrics} 时生效
+ *
+ * @author future0923
+ */
+public class ConnectionPoolClassFileTransformer implements ClassFileTransformer {
+
+    private static final Logger logger = Logger.getLogger(ConnectionPoolClassFileTransformer.class);
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws IllegalClassFormatException {
+        try {
+            if (className == null) {
+                return null;
+            }
+            String dotClassName = className.replace('/', '.');
+            ConnectionPoolClassEnum poolClass = ConnectionPoolClassEnum.ofDataSourceClassName(dotClassName);
+            if (poolClass == null) {
+                return null;
+            }
+            ClassPool classPool = JavassistUtil.getClassPool(loader);
+            CtClass ctClass = classPool.get(dotClassName);
+            CtMethod acquireMethod = ctClass.getDeclaredMethod("getConnection", classPool.get(poolClass.getAcquireMethodParameterTypes()));
+            acquireMethod.insertBefore(ConnectionPoolInterceptor.class.getName() + ".onAcquireStart();");
+            // 获取连接超时等异常时也记录等待的耗时。finally块中不能读取insertBefore中赋值的局部变量，开始时间由拦截器保存
+            acquireMethod.insertAfter(ConnectionPoolInterceptor.class.getName() + ".onAcquire(\"" + poolClass.name() + "\", $0);", true);
+            logger.info("{} connection pool bytecode enhancement successful", poolClass.getType());
+            byte[] bytecode = ctClass.toBytecode();
+            ctClass.detach();
+            return bytecode;
+        } catch (Throwable t) {
+            logger.error("Failed to enhance connection pool bytecode", t);
+        }
+        return null;
+    }
+}
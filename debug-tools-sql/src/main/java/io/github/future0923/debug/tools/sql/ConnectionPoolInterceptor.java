@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolMetrics;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolStatistics;
+import io.github.future0923.debug.tools.base.trace.MethodTrace;
+
+/**
+ * 连接池获取连接拦截器
+ *
+ * @author future0923
+ */
+public class ConnectionPoolInterceptor {
+
+    private static final Logger logger = Logger.getLogger(ConnectionPoolInterceptor.class);
+
+    /**
+     * 当前线程最近一次获取连接的耗时(μs)，只在追踪SQL时记录，由下一条SQL取走
+     */
+    private static final ThreadLocal<Long> ACQUIRE_WAIT_MICROS = new ThreadLocal<>();
+
+    /**
+     * 当前线程开始获取连接的时间，数据源嵌套调用时从最外层开始计时，只记录一次
+     */
+    private static final ThreadLocal<Long> ACQUIRE_START_NANOS = new ThreadLocal<>();
+
+    /**
+     * 开始获取连接时调用
+     */
+    public static void onAcquireStart() {
+        if (ACQUIRE_START_NANOS.get() == null) {
+            ACQUIRE_START_NANOS.set(System.nanoTime());
+        }
+    }
+
+    /**
+     * 获取连接结束后调用（包括超时等异常），记录耗时，每个采样间隔读取一次连接池状态
+     *
+     * @param poolName   {@link ConnectionPoolClassEnum} 名称
+     * @param dataSource 数据源
+     */
+    public static void onAcquire(String poolName, Object dataSource) {
+        Long startNanos = ACQUIRE_START_NANOS.get();
+        if (startNanos == null) {
+            return;
+        }
+        ACQUIRE_START_NANOS.remove();
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        try {
+            ConnectionPoolClassEnum poolClass = ConnectionPoolClassEnum.valueOf(poolName);
+            ConnectionPoolStatistics.record(dataSource, ds -> new ConnectionPoolMetrics(poolClass.getType(), poolClass.getPoolName(ds)), micros, poolClass::sample);
+            if (BooleanUtil.isTrue(MethodTrace.getTraceSqlStatus())) {
+                ACQUIRE_WAIT_MICROS.set(micros);
+            }
+        } catch (Throwable e) {
+            logger.debug("Failed to record connection pool metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取走当前线程最近一次获取连接的耗时
+     *
+     * @return 没有时返回null
+     */
+    static Long pollAcquireWaitMicros() {
+        Long micros = ACQUIRE_WAIT_MICROS.get();
+        if (micros != null) {
+            ACQUIRE_WAIT_MICROS.remove();
+        }
+        return micros;
+    }
+}
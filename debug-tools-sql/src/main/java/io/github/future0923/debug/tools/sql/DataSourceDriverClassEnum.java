@@ -106,6 +106,16 @@ public enum DataSourceDriverClassEnum {
                 return formatStringSql(statementQuery, parameters);
             }
     ),
+
+    /**
+     * h2
+     */
+    H2(
+            "h2",
+            "org.h2",
+            Collections.singletonList("org.h2.Driver"),
+            (sta, parameters) -> sta.toString()
+    ),
     ;
 
     DataSourceDriverClassEnum(String type, String packagePrefix, List<String> driverClassName, SqlFormat format) {
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.enums.PrintSqlType;
+import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 执行时只保存SQL模板和参数，在打印、写入文件或追踪时才生成SQL，生成结果会缓存
+ *
+ * @author future0923
+ */
+public class LazySql implements Supplier<String> {
+
+    private final SqlTemplate template;
+
+    private final Object[] parameters;
+
+    /**
+     * 批量执行时的多条SQL
+     */
+    private final List<LazySql> batchList;
+
+    private final PrintSqlType printSqlType;
+
+    private String fingerprint;
+
+    private String rawSql;
+
+    private String printSql;
+
+    private LazySql(SqlTemplate template, Object[] parameters, List<LazySql> batchList) {
+        this.template = template;
+        this.parameters = parameters;
+        this.batchList = batchList;
+        this.printSqlType = SqlPrintInterceptor.getPrintSqlType();
+    }
+
+    /**
+     * PreparedStatement 执行的SQL
+     *
+     * @param sql        带占位符的SQL
+     * @param parameters 参数快照
+     */
+    public static LazySql of(String sql, Object[] parameters) {
+        return new LazySql(SqlTemplate.of(sql), parameters, null);
+    }
+
+    /**
+     * Statement 直接执行的SQL，重复执行的相同SQL复用模板缓存的指纹和格式化结果
+     */
+    public static LazySql of(String sql) {
+        return new LazySql(SqlTemplate.of(sql), null, null);
+    }
+
+    /**
+     * 批量执行的多条SQL合并为一条
+     */
+    public static LazySql batch(List<LazySql> batchList) {
+        return new LazySql(null, null, batchList);
+    }
+
+    /**
+     * SQL指纹，批量中的SQL指纹都相同（如只有字面量不同的 Statement 批量）时使用该指纹
+     */
+    public String getFingerprint() {
+        String fingerprint = this.fingerprint;
+        if (fingerprint == null) {
+            if (template != null) {
+                fingerprint = template.getFingerprint();
+            } else if (isSameFingerprint()) {
+                fingerprint = batchList.get(0).getFingerprint();
+            } else {
+                fingerprint = SqlCompressor.fingerprint(getRawSql());
+            }
+            this.fingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 带占位符的SQL模板，批量时为第一条的模板
+     */
+    public String getTemplate() {
+        if (template != null) {
+            return template.getSql();
+        }
+        return batchList.isEmpty() ? null : batchList.get(0).getTemplate();
+    }
+
+    /**
+     * 替换参数后未格式化的SQL
+     */
+    public String getRawSql() {
+        String rawSql = this.rawSql;
+        if (rawSql == null) {
+            rawSql = render(PrintSqlType.NO);
+            this.rawSql = rawSql;
+        }
+        return rawSql;
+    }
+
+    /**
+     * 按打印方式格式化后的SQL
+     */
+    @Override
+    public String get() {
+        String printSql = this.printSql;
+        if (printSql == null) {
+            printSql = render(printSqlType);
+            this.printSql = printSql;
+        }
+        return printSql;
+    }
+
+    private String render(PrintSqlType type) {
+        if (template != null) {
+            return template.render(parameters, type);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (LazySql lazySql : batchList) {
+            if (sb.length() > 0) {
+                sb.append(";\n");
+            }
+            sb.append(type == PrintSqlType.NO ? lazySql.getRawSql() : lazySql.get());
+        }
+        return sb.toString();
+    }
+
+    private boolean isSameFingerprint() {
+        if (batchList.isEmpty()) {
+            return false;
+        }
+        String first = batchList.get(0).getFingerprint();
+        for (LazySql lazySql : batchList) {
+            if (!first.equals(lazySql.getFingerprint())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return get();
+    }
+}
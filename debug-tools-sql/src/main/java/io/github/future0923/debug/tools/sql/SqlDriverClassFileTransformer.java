@@ -51,7 +51,9 @@ public class SqlDriverClassFileTransformer implements ClassFileTransformer {
                     "   return " + SqlPrintInterceptor.class.getName() + ".proxyConnection((java.sql.Connection)$_); " +
                     "}");
             logger.info("Print {} log bytecode enhancement successful", DataSourceDriverClassEnum.getSqlDriverType(dotClassName));
-            return ctClass.toBytecode();
+            byte[] bytecode = ctClass.toBytecode();
+            ctClass.detach();
+            return bytecode;
         } catch (Throwable t) {
             logger.error("Failed to print SQL log bytecode enhancement", t);
         }
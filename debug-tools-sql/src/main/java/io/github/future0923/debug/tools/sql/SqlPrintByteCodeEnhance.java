@@ -18,6 +18,8 @@ package io.github.future0923.debug.tools.sql;
 
 import io.github.future0923.debug.tools.base.config.AgentArgs;
 import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
+import io.github.future0923.debug.tools.base.sql.SqlPrintSampler;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
 
 import java.lang.instrument.Instrumentation;
 
@@ -37,6 +39,14 @@ public class SqlPrintByteCodeEnhance {
         SqlPrintInterceptor.setPrintSqlType(agentArgs.getPrintSql());
         SqlPrintInterceptor.setAutoSaveSql(BooleanUtil.toBoolean(agentArgs.getAutoSaveSql()));
         SqlPrintInterceptor.setSqlRetentionDays(agentArgs.getSqlRetentionDays());
+        if (agentArgs.getSqlSlowThreshold() != null) {
+            SqlPrintSampler.setSlowThresholdMillis(agentArgs.getSqlSlowThreshold().longValue());
+        }
+        SqlPrintSampler.setSampleRate(agentArgs.getSqlSampleRate());
+        MethodTreeNode.setRepeatedSqlThreshold(agentArgs.getSqlRepeatedThreshold());
         inst.addTransformer(new SqlDriverClassFileTransformer(), true);
+        if (BooleanUtil.toBoolean(agentArgs.getConnectionPoolMetrics())) {
+            inst.addTransformer(new ConnectionPoolClassFileTransformer(), true);
+        }
     }
 }
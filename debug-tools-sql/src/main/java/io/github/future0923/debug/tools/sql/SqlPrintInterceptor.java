@@ -18,17 +18,23 @@ package io.github.future0923.debug.tools.sql;
 
 import io.github.future0923.debug.tools.base.enums.PrintSqlType;
 import io.github.future0923.debug.tools.base.hutool.core.util.BooleanUtil;
-import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
-import io.github.future0923.debug.tools.base.hutool.sql.SqlFormatter;
 import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.sql.SqlPrintSampler;
+import io.github.future0923.debug.tools.base.sql.SqlStatistics;
 import io.github.future0923.debug.tools.base.trace.MethodTrace;
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
 import io.github.future0923.debug.tools.utils.SqlFileWriter;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,9 +49,25 @@ public class SqlPrintInterceptor {
 
     private static final Logger logger = Logger.getLogger(SqlPrintInterceptor.class);
 
-    private static final String CONNECTION_AGENT_METHODS = "prepareStatement";
+    /**
+     * 动态代理中执行单条SQL的方法，addBatch 只记录，在 executeBatch 时合并打印
+     */
+    private static final List<String> EXECUTE_METHODS = Arrays.asList("execute", "executeUpdate", "executeQuery", "executeLargeUpdate");
+
+    private static final List<String> BATCH_METHODS = Arrays.asList("executeBatch", "executeLargeBatch");
+
+    /**
+     * 包装类是否完整实现了运行时的JDBC接口，不完整时回退到动态代理
+     */
+    private static final boolean WRAPPER_SUPPORTED = isWrapperSupported(ConnectionWrapper.class, Connection.class)
+            && isWrapperSupported(StatementWrapper.class, Statement.class)
+            && isWrapperSupported(PreparedStatementWrapper.class, PreparedStatement.class)
+            && isWrapperSupported(CallableStatementWrapper.class, CallableStatement.class);
 
-    private static final List<String> PREPARED_STATEMENT_METHODS = Arrays.asList("execute", "executeUpdate", "executeQuery", "addBatch");
+    /**
+     * 结果集包装类是否完整实现了运行时的JDBC接口，不完整时不统计读取的行数
+     */
+    private static final boolean RESULT_SET_WRAPPER_SUPPORTED = isWrapperSupported(ResultSetWrapper.class, ResultSet.class);
 
     private static PrintSqlType printSqlType;
     private static Boolean autoSaveSql = false;
@@ -66,6 +88,16 @@ public class SqlPrintInterceptor {
     }
 
     public static Connection proxyConnection(final Connection connection) {
+        if (WRAPPER_SUPPORTED) {
+            return new ConnectionWrapper(connection);
+        }
+        return proxyConnectionByHandler(connection);
+    }
+
+    /**
+     * 包装类不完整时使用动态代理
+     */
+    static Connection proxyConnectionByHandler(final Connection connection) {
         Object c = Proxy.newProxyInstance(
                 SqlPrintByteCodeEnhance.class.getClassLoader(),
                 new Class[]{Connection.class},
@@ -75,13 +107,80 @@ public class SqlPrintInterceptor {
     }
 
 
-    private static PreparedStatement proxyPreparedStatement(final PreparedStatement statement) {
+    static boolean isResultSetWrapperSupported() {
+        return RESULT_SET_WRAPPER_SUPPORTED;
+    }
+
+    /**
+     * 代理 Statement、PreparedStatement 和 CallableStatement
+     *
+     * @param jdbcInterface 代理的接口
+     * @param sql           预编译的SQL，Statement 为null
+     */
+    private static Statement proxyStatement(final Statement statement, Class<? extends Statement> jdbcInterface, String sql) {
         Object c = Proxy.newProxyInstance(
                 SqlPrintByteCodeEnhance.class.getClassLoader(),
-                new Class[]{PreparedStatement.class},
-                new PreparedStatementHandler(statement)
+                new Class[]{jdbcInterface},
+                new StatementHandler(statement, sql)
         );
-        return (PreparedStatement) c;
+        return (Statement) c;
+    }
+
+    /**
+     * 累加批量执行中每条SQL影响的行数，忽略 {@link Statement#SUCCESS_NO_INFO} 和 {@link Statement#EXECUTE_FAILED}
+     */
+    static long sumUpdateCounts(int[] updateCounts) {
+        long affectedRows = 0;
+        if (updateCounts != null) {
+            for (int count : updateCounts) {
+                if (count > 0) {
+                    affectedRows += count;
+                }
+            }
+        }
+        return affectedRows;
+    }
+
+    static long sumUpdateCounts(long[] updateCounts) {
+        long affectedRows = 0;
+        if (updateCounts != null) {
+            for (long count : updateCounts) {
+                if (count > 0) {
+                    affectedRows += count;
+                }
+            }
+        }
+        return affectedRows;
+    }
+
+    /**
+     * 运行时的JDBC版本可能新增包装类中没有实现的抽象方法，调用时会抛出 AbstractMethodError
+     */
+    private static boolean isWrapperSupported(Class<?> wrapperClass, Class<?> jdbcInterface) {
+        for (Method method : jdbcInterface.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            try {
+                if (Modifier.isAbstract(wrapperClass.getMethod(method.getName(), method.getParameterTypes()).getModifiers())) {
+                    return false;
+                }
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 调用被代理的对象，抛出原始异常
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
     }
 
     /**
@@ -97,83 +196,261 @@ public class SqlPrintInterceptor {
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            Object result = method.invoke(connection, args);
-            if (CONNECTION_AGENT_METHODS.equals(method.getName())) {
-                return proxyPreparedStatement((PreparedStatement) result);
+            Object result = SqlPrintInterceptor.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxyStatement((Statement) result, Statement.class, null);
+                case "prepareStatement":
+                    return proxyStatement((Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return proxyStatement((Statement) result, CallableStatement.class, (String) args[0]);
+                default:
+                    return result;
             }
-            return result;
         }
     }
 
     /**
-     * PreparedStatement 代理处理
+     * Statement、PreparedStatement、CallableStatement 代理处理，与包装类相同：
+     * 执行后打印SQL，addBatch 只记录，executeBatch 时合并打印，批量失败时按已知的更新数打印
      */
-    private static class PreparedStatementHandler implements InvocationHandler {
+    private static class StatementHandler implements InvocationHandler {
 
-        private final PreparedStatement statement;
+        private final Statement statement;
+
+        /**
+         * 预编译的SQL，Statement 为null
+         */
+        private final String sql;
 
         private final List<Object> parameters = new ArrayList<>();
 
-        public PreparedStatementHandler(PreparedStatement statement) {
-            this.statement = statement;
+        private final List<LazySql> batchSqlList = new ArrayList<>();
 
+        private int batchSize;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
         }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            long startTime = System.currentTimeMillis();
-            Object result = method.invoke(statement, args);
-            long endTime = System.currentTimeMillis();
-            if (method.getName().startsWith("setNull")) {
-                // 显式记录 NULL 值
-                int index = (Integer) args[0];
-                while (parameters.size() < index) parameters.add(null);
-                parameters.set(index - 1, "NULL"); // 标记为 SQL NULL
-            }else if (method.getName().startsWith("set") && args != null && args.length >= 2) {
-                int index = (Integer) args[0];
-                while (parameters.size() < index) parameters.add(null);
-                parameters.set(index - 1, args[1]);
+            String methodName = method.getName();
+            if (BATCH_METHODS.contains(methodName)) {
+                return executeBatch(method, args);
             }
-            if (PREPARED_STATEMENT_METHODS.stream().anyMatch(s -> s.equals(method.getName()))) {
-                printSql(endTime - startTime, statement, parameters.toArray(new Object[0]));
+            long startTime = System.currentTimeMillis();
+            Object result = SqlPrintInterceptor.invoke(statement, method, args);
+            long consume = System.currentTimeMillis() - startTime;
+            boolean noArgs = args == null || args.length == 0;
+            if (EXECUTE_METHODS.contains(methodName)) {
+                long rows = result instanceof Number ? ((Number) result).longValue() : -1;
+                if (noArgs) {
+                    printSql(consume, statement, sql, parameters.toArray(), rows);
+                } else {
+                    printSql(consume, statement, (String) args[0], rows);
+                }
+            } else if ("addBatch".equals(methodName)) {
+                if (batchSize < StatementWrapper.BATCH_PRINT_LIMIT) {
+                    batchSqlList.add(noArgs ? LazySql.of(sql, parameters.toArray()) : LazySql.of((String) args[0]));
+                }
+                batchSize++;
+            } else if ("clearBatch".equals(methodName)) {
+                resetBatch();
+            } else if ("clearParameters".equals(methodName)) {
                 parameters.clear();
+            } else if (sql != null && methodName.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                // 参数在 clearParameters 之前一直有效，执行后不清空
+                int index = (Integer) args[0];
+                while (parameters.size() < index) {
+                    parameters.add(null);
+                }
+                // 显式记录 NULL 值
+                parameters.set(index - 1, methodName.startsWith("setNull") ? "NULL" : args[1]);
             }
             return result;
         }
+
+        private Object executeBatch(Method method, Object[] args) throws Throwable {
+            long startTime = System.currentTimeMillis();
+            try {
+                Object result = SqlPrintInterceptor.invoke(statement, method, args);
+                long affectedRows = result instanceof long[] ? sumUpdateCounts((long[]) result) : sumUpdateCounts((int[]) result);
+                printBatchSql(System.currentTimeMillis() - startTime, statement, batchSqlList, batchSize, affectedRows, false);
+                return result;
+            } catch (BatchUpdateException e) {
+                printBatchSql(System.currentTimeMillis() - startTime, statement, batchSqlList, batchSize, sumUpdateCounts(e.getLargeUpdateCounts()), true);
+                throw e;
+            } finally {
+                resetBatch();
+            }
+        }
+
+        private void resetBatch() {
+            batchSqlList.clear();
+            batchSize = 0;
+        }
     }
 
-    private static void printSql(long consume, Statement sta, Object[] parameters) {
-        String className = sta.getClass().getName();
-        DataSourceDriverClassEnum dbType = DataSourceDriverClassEnum.of(className);
+    /**
+     * 打印 PreparedStatement 执行的SQL，只保存模板和参数，需要时才生成SQL
+     *
+     * @param sql        带占位符的SQL
+     * @param parameters 参数快照
+     * @param rows       影响的行数，小于0表示未知
+     */
+    static void printSql(long consume, Statement sta, String sql, Object[] parameters, long rows) {
+        DataSourceDriverClassEnum dbType = getDbType(sta);
+        if (dbType != null && sql != null) {
+            printSql(consume, dbType, LazySql.of(sql, parameters), rows, "Execute SQL", SqlPrintSampler.shouldPrint(consume));
+        }
+    }
+
+    /**
+     * 打印 Statement 直接执行的SQL
+     *
+     * @param rows 影响的行数，小于0表示未知
+     */
+    static void printSql(long consume, Statement sta, String sql, long rows) {
+        DataSourceDriverClassEnum dbType = getDbType(sta);
+        if (dbType != null && sql != null) {
+            printSql(consume, dbType, LazySql.of(sql), rows, "Execute SQL", SqlPrintSampler.shouldPrint(consume));
+        }
+    }
+
+    /**
+     * 打印返回结果集的SQL，执行时就打印、统计和追踪，结果集未关闭的SQL也不会丢失
+     *
+     * @param consume 执行耗时
+     * @return 执行记录，用于读取完结果集后补充读取信息，不支持的驱动返回null
+     */
+    static SqlQueryRecord printQuerySql(long consume, Statement sta, LazySql sql) {
+        DataSourceDriverClassEnum dbType = getDbType(sta);
         if (dbType == null) {
-            logger.error("The current database driver is not yet supported. Driver class: {}", className);
-            return;
+            return null;
         }
+        boolean print = SqlPrintSampler.shouldPrint(consume);
         try {
-            String resultSql = dbType.getFormat().format(sta, parameters);
-
-            if (BooleanUtil.isTrue(MethodTrace.getTraceSqlStatus())) {
-                MethodTrace.enterSql(resultSql);
-                MethodTrace.exit(consume);
+            String fingerprint = SqlStatistics.record(dbType.getType(), sql.getFingerprint(), sql.getTemplate(), consume, -1);
+            MethodTreeNode traceNode = traceSql(sql, fingerprint, consume);
+            if (print) {
+                writeSql(consume, dbType, sql, fingerprint, "Execute SQL", null);
             }
-            if (PrintSqlType.PRETTY.equals(printSqlType) || PrintSqlType.YES.equals(printSqlType)) {
-                resultSql = SqlFormatter.format(resultSql);
-            }
-            if (PrintSqlType.COMPRESS.equals(printSqlType)) {
-                resultSql = SqlCompressor.compressSql(resultSql);
+            return new SqlQueryRecord(dbType, sql, fingerprint, consume, traceNode, print);
+        } catch (Exception e) {
+            logger.error("Failed to print SQL", e);
+            return null;
+        }
+    }
+
+    /**
+     * 结果集关闭、读取完或 Statement 再次执行时调用，补充读取的行数和耗时。
+     * <p>
+     * 执行时未达到慢SQL阈值，加上读取的耗时后达到时在这里打印SQL
+     *
+     * @param fetchRows    读取的行数
+     * @param fetchConsume 读取结果集的耗时
+     */
+    static void finishQuerySql(SqlQueryRecord record, long fetchRows, long fetchConsume) {
+        try {
+            SqlStatistics.recordRows(record.getFingerprint(), fetchRows);
+            if (record.getTraceNode() != null) {
+                MethodTrace.finishSqlFetch(record.getTraceNode(), fetchRows, fetchConsume);
             }
-            logger.info("Execute consume Time: {} ms; Execute SQL: \n\u001B[31m{}\u001B[0m", consume, resultSql);
-
-            // 根据配置写入SQL记录到文件
-            if (BooleanUtil.isTrue(autoSaveSql)) {
-                try {
-                    SqlFileWriter.writeSqlRecordWithRetention(resultSql, consume, dbType.getType(), sqlRetentionDays);
-                } catch (Exception e) {
-                    logger.error("Failed to write SQL record to file", e);
+            String title = "Fetch rows: " + fetchRows + "; Fetch consume Time: " + fetchConsume + " ms";
+            if (record.isPrinted()) {
+                if (logger.isLevelEnabled(Logger.Level.INFO)) {
+                    logger.info("{}; Fingerprint: {}", title, record.getFingerprint());
                 }
+            } else if (record.getConsume() < SqlPrintSampler.getSlowThresholdMillis() && SqlPrintSampler.shouldPrint(record.getConsume() + fetchConsume)) {
+                writeSql(record.getConsume(), record.getDbType(), record.getSql(), record.getFingerprint(), title + "; Execute SQL", "fetch " + fetchRows + " rows " + fetchConsume + "ms");
+            }
+        } catch (Exception e) {
+            logger.error("Failed to print SQL", e);
+        }
+    }
+
+    /**
+     * 批量执行的SQL合并为一条记录打印
+     *
+     * @param sqlList      批量中记录的SQL，最多记录前几条
+     * @param batchSize    批量中的SQL条数
+     * @param affectedRows 影响行数，失败时为失败前成功的行数
+     * @param failed       是否抛出了 {@link BatchUpdateException}
+     */
+    static void printBatchSql(long consume, Statement sta, List<LazySql> sqlList, int batchSize, long affectedRows, boolean failed) {
+        DataSourceDriverClassEnum dbType = getDbType(sta);
+        if (dbType == null || sqlList.isEmpty()) {
+            return;
+        }
+        String title = (failed ? "Batch failed; " : "") + "Batch size: " + batchSize + "; Affected rows: " + affectedRows + "; Execute SQL";
+        if (batchSize > sqlList.size()) {
+            title += " (first " + sqlList.size() + ")";
+        }
+        printSql(consume, dbType, LazySql.batch(new ArrayList<>(sqlList)), affectedRows, title, SqlPrintSampler.shouldPrint(consume));
+    }
+
+    static PrintSqlType getPrintSqlType() {
+        return printSqlType;
+    }
+
+    private static DataSourceDriverClassEnum getDbType(Statement sta) {
+        String className = sta.getClass().getName();
+        DataSourceDriverClassEnum dbType = DataSourceDriverClassEnum.of(className);
+        if (dbType == null) {
+            logger.error("The current database driver is not yet supported. Driver class: {}", className);
+        }
+        return dbType;
+    }
+
+    /**
+     * 统计使用模板的指纹，SQL只在追踪、打印日志和写入文件时生成
+     *
+     * @param print 是否满足慢SQL阈值和采样率，不满足时只统计和追踪
+     */
+    private static void printSql(long consume, DataSourceDriverClassEnum dbType, LazySql lazySql, long rows, String title, boolean print) {
+        try {
+            String fingerprint = SqlStatistics.record(dbType.getType(), lazySql.getFingerprint(), lazySql.getTemplate(), consume, rows);
+            traceSql(lazySql, fingerprint, consume);
+            if (print) {
+                writeSql(consume, dbType, lazySql, fingerprint, title, null);
             }
         } catch (Exception e) {
             logger.error("Failed to print SQL",e);
         }
     }
+
+    /**
+     * 开启追踪SQL时将SQL挂载到当前追踪的方法上
+     *
+     * @return 追踪节点，未开启时返回null
+     */
+    private static MethodTreeNode traceSql(LazySql lazySql, String fingerprint, long consume) {
+        if (!BooleanUtil.isTrue(MethodTrace.getTraceSqlStatus())) {
+            return null;
+        }
+        MethodTrace.enterSql(lazySql.getRawSql(), fingerprint, ConnectionPoolInterceptor.pollAcquireWaitMicros());
+        return MethodTrace.exitSql(consume);
+    }
+
+    /**
+     * 打印日志，并根据配置写入文件
+     *
+     * @param remark 追加在文件记录头中的说明，可以为null
+     */
+    private static void writeSql(long consume, DataSourceDriverClassEnum dbType, LazySql lazySql, String fingerprint, String title, String remark) {
+        if (logger.isLevelEnabled(Logger.Level.INFO)) {
+            logger.info("Execute consume Time: {} ms; {}: \n\u001B[31m{}\u001B[0m", consume, title, lazySql);
+        }
+
+        // 根据配置写入SQL记录到文件，由写入线程生成SQL
+        if (BooleanUtil.isTrue(autoSaveSql)) {
+            try {
+                SqlFileWriter.writeSqlRecordWithRetention(lazySql, fingerprint, consume, dbType.getType(), remark, sqlRetentionDays);
+            } catch (Exception e) {
+                logger.error("Failed to write SQL record to file", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.trace.MethodTreeNode;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 返回结果集的SQL执行时的记录，读取完结果集后据此补充读取的行数和耗时
+ *
+ * @author future0923
+ */
+@Getter(AccessLevel.PACKAGE)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+class SqlQueryRecord {
+
+    private final DataSourceDriverClassEnum dbType;
+
+    private final LazySql sql;
+
+    private final String fingerprint;
+
+    /**
+     * 执行耗时，不含读取结果集的时间
+     */
+    private final long consume;
+
+    /**
+     * 追踪节点，未开启追踪时为null
+     */
+    private final MethodTreeNode traceNode;
+
+    /**
+     * 执行时是否已经打印
+     */
+    private final boolean printed;
+}
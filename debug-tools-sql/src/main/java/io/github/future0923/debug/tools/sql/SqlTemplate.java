@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.enums.PrintSqlType;
+import io.github.future0923.debug.tools.base.hutool.core.convert.Convert;
+import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
+import io.github.future0923.debug.tools.base.hutool.sql.SqlFormatter;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带占位符的SQL模板，缓存指纹、格式化和压缩后的模板，打印时只替换参数
+ *
+ * @author future0923
+ */
+public class SqlTemplate {
+
+    /**
+     * 最多缓存的模板数量，超出后不再缓存
+     */
+    private static final int MAX_CACHE_SIZE = 2048;
+
+    private static final Map<String, SqlTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String sql;
+
+    private String fingerprint;
+
+    private Text rawText;
+
+    private Text prettyText;
+
+    private Text compressText;
+
+    private SqlTemplate(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * 获取SQL模板，相同的SQL复用缓存，缓存满后新的SQL不再缓存
+     */
+    public static SqlTemplate of(String sql) {
+        SqlTemplate template = CACHE.get(sql);
+        if (template != null) {
+            return template;
+        }
+        if (CACHE.size() >= MAX_CACHE_SIZE) {
+            return new SqlTemplate(sql);
+        }
+        return CACHE.computeIfAbsent(sql, SqlTemplate::new);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * SQL指纹，首次使用时计算
+     */
+    public String getFingerprint() {
+        String fingerprint = this.fingerprint;
+        if (fingerprint == null) {
+            fingerprint = SqlCompressor.fingerprint(sql);
+            this.fingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 替换参数生成SQL
+     *
+     * @param parameters   参数，第 i 个占位符对应 i - 1 位置
+     * @param printSqlType 打印方式，决定使用原始、格式化还是压缩后的模板
+     * @return SQL
+     */
+    public String render(Object[] parameters, PrintSqlType printSqlType) {
+        Text text = getText(printSqlType);
+        if (parameters == null || parameters.length == 0 || text.placeholders.length == 0) {
+            return text.sql;
+        }
+        StringBuilder sb = new StringBuilder(text.sql.length() + parameters.length * 8);
+        int last = 0;
+        for (int i = 0; i < text.placeholders.length && i < parameters.length; i++) {
+            int position = text.placeholders[i];
+            sb.append(text.sql, last, position);
+            appendParameter(sb, parameters[i]);
+            last = position + 1;
+        }
+        sb.append(text.sql, last, text.sql.length());
+        return sb.toString();
+    }
+
+    /**
+     * 文本都是不可变对象，并发时可能重复计算，不需要加锁
+     */
+    private Text getText(PrintSqlType printSqlType) {
+        if (PrintSqlType.PRETTY.equals(printSqlType) || PrintSqlType.YES.equals(printSqlType)) {
+            Text text = prettyText;
+            if (text == null) {
+                text = new Text(SqlFormatter.format(sql));
+                prettyText = text;
+            }
+            return text;
+        }
+        if (PrintSqlType.COMPRESS.equals(printSqlType)) {
+            Text text = compressText;
+            if (text == null) {
+                text = new Text(SqlCompressor.compressSql(sql));
+                compressText = text;
+            }
+            return text;
+        }
+        Text text = rawText;
+        if (text == null) {
+            text = new Text(sql);
+            rawText = text;
+        }
+        return text;
+    }
+
+    private static void appendParameter(StringBuilder sb, Object value) {
+        if (value == null || "NULL".equals(value) || value instanceof byte[] || value instanceof InputStream || value instanceof Reader) {
+            sb.append("NULL");
+        } else if (value instanceof String) {
+            sb.append('\'');
+            String str = (String) value;
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c == '\'') {
+                    sb.append('\'');
+                }
+                sb.append(c);
+            }
+            sb.append('\'');
+        } else if (value instanceof Date || value instanceof Temporal) {
+            sb.append('\'').append(value).append('\'');
+        } else {
+            sb.append(Convert.toStr(value));
+        }
+    }
+
+    /**
+     * 模板文本及其中占位符的位置
+     */
+    private static class Text {
+
+        private final String sql;
+
+        private final int[] placeholders;
+
+        private Text(String sql) {
+            this.sql = sql;
+            this.placeholders = findPlaceholders(sql);
+        }
+
+        /**
+         * 查找占位符，跳过字符串、引号标识符和注释中的问号
+         */
+        private static int[] findPlaceholders(String sql) {
+            int[] placeholders = new int[8];
+            int count = 0;
+            int length = sql.length();
+            int i = 0;
+            while (i < length) {
+                char c = sql.charAt(i);
+                if (c == '\'' || c == '"' || c == '`') {
+                    int end = sql.indexOf(c, i + 1);
+                    i = end < 0 ? length : end + 1;
+                } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                    int end = sql.indexOf('\n', i + 2);
+                    i = end < 0 ? length : end + 1;
+                } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                    int end = sql.indexOf("*/", i + 2);
+                    i = end < 0 ? length : end + 2;
+                } else {
+                    if (c == '?') {
+                        if (count == placeholders.length) {
+                            placeholders = Arrays.copyOf(placeholders, count << 1);
+                        }
+                        placeholders[count++] = i;
+                    }
+                    i++;
+                }
+            }
+            return Arrays.copyOf(placeholders, count);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement 包装类，方法直接委托给驱动的 Statement，执行后打印SQL，批量执行时合并为一条记录打印
+ *
+ * @author future0923
+ */
+public class StatementWrapper implements Statement {
+
+    /**
+     * 批量执行时打印的SQL条数上限，超出的部分只计数
+     */
+    static final int BATCH_PRINT_LIMIT = 10;
+
+    private final ConnectionWrapper connection;
+
+    private final Statement statement;
+
+    /**
+     * 批量中待打印的SQL
+     */
+    private final List<LazySql> batchSqlList = new ArrayList<>();
+
+    /**
+     * 批量中的SQL条数
+     */
+    private int batchSize;
+
+    /**
+     * 返回结果集的SQL的执行记录，在结果集关闭、读取完或 Statement 再次执行时补充读取信息
+     */
+    private SqlQueryRecord queryRecord;
+
+    /**
+     * 执行结束的时间，即开始读取结果集的时间
+     */
+    private long queryExecuteEndTime;
+
+    private ResultSetWrapper queryResultSet;
+
+    public StatementWrapper(ConnectionWrapper connection, Statement statement) {
+        this.connection = connection;
+        this.statement = statement;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        ResultSet result = statement.executeQuery(sql);
+        beginQuery(startTime, LazySql.of(sql));
+        return wrapResultSet(result);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        int result = statement.executeUpdate(sql);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            statement.close();
+        } finally {
+            finishQuery();
+        }
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return statement.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        statement.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return statement.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        statement.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        statement.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return statement.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        statement.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        statement.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return statement.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        statement.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        statement.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        boolean result = statement.execute(sql);
+        printExecuteSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return wrapResultSet(statement.getResultSet());
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return statement.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        finishQuery();
+        return statement.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        statement.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return statement.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        statement.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return statement.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return statement.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return statement.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        statement.addBatch(sql);
+        addBatchSql(isBatchSqlRequired() ? LazySql.of(sql) : null);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        statement.clearBatch();
+        resetBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long startTime = System.currentTimeMillis();
+        try {
+            int[] result = statement.executeBatch();
+            printBatchSql(startTime, SqlPrintInterceptor.sumUpdateCounts(result), false);
+            return result;
+        } catch (BatchUpdateException e) {
+            printBatchSql(startTime, SqlPrintInterceptor.sumUpdateCounts(e.getUpdateCounts()), true);
+            throw e;
+        } finally {
+            resetBatch();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        finishQuery();
+        return statement.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return statement.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        int result = statement.executeUpdate(sql, autoGeneratedKeys);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        int result = statement.executeUpdate(sql, columnIndexes);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        int result = statement.executeUpdate(sql, columnNames);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        boolean result = statement.execute(sql, autoGeneratedKeys);
+        printExecuteSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        boolean result = statement.execute(sql, columnIndexes);
+        printExecuteSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        boolean result = statement.execute(sql, columnNames);
+        printExecuteSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return statement.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return statement.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        statement.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return statement.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        statement.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return statement.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return statement.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        statement.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return statement.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long startTime = System.currentTimeMillis();
+        try {
+            long[] result = statement.executeLargeBatch();
+            printBatchSql(startTime, SqlPrintInterceptor.sumUpdateCounts(result), false);
+            return result;
+        } catch (BatchUpdateException e) {
+            printBatchSql(startTime, SqlPrintInterceptor.sumUpdateCounts(e.getLargeUpdateCounts()), true);
+            throw e;
+        } finally {
+            resetBatch();
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        long result = statement.executeLargeUpdate(sql);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        long result = statement.executeLargeUpdate(sql, autoGeneratedKeys);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        long result = statement.executeLargeUpdate(sql, columnIndexes);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        long result = statement.executeLargeUpdate(sql, columnNames);
+        printSql(startTime, sql, result);
+        return result;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return statement.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return statement.isWrapperFor(iface);
+    }
+
+    /**
+     * 是否需要记录批量中的SQL，超出打印上限后不再记录参数
+     */
+    protected boolean isBatchSqlRequired() {
+        return batchSize < BATCH_PRINT_LIMIT;
+    }
+
+    protected void addBatchSql(LazySql sql) {
+        if (isBatchSqlRequired() && sql != null) {
+            batchSqlList.add(sql);
+        }
+        batchSize++;
+    }
+
+    /**
+     * 开始一次返回结果集的执行，打印SQL，上一次未结束的查询先补充读取信息
+     */
+    protected void beginQuery(long startTime, LazySql sql) {
+        long endTime = System.currentTimeMillis();
+        finishQuery();
+        queryRecord = SqlPrintInterceptor.printQuerySql(endTime - startTime, statement, sql);
+        queryExecuteEndTime = endTime;
+    }
+
+    /**
+     * 包装当前查询的结果集，同一个结果集多次获取时返回同一个包装类
+     */
+    protected ResultSet wrapResultSet(ResultSet resultSet) {
+        if (resultSet == null || queryRecord == null) {
+            return resultSet;
+        }
+        if (queryResultSet != null) {
+            return queryResultSet.getDelegate() == resultSet ? queryResultSet : resultSet;
+        }
+        if (!SqlPrintInterceptor.isResultSetWrapperSupported()) {
+            finishQuery();
+            return resultSet;
+        }
+        queryResultSet = new ResultSetWrapper(this, resultSet);
+        return queryResultSet;
+    }
+
+    /**
+     * 结果集关闭或读取完
+     */
+    void finishQuery(ResultSetWrapper resultSet) {
+        if (resultSet == queryResultSet) {
+            finishQuery();
+        }
+    }
+
+    /**
+     * 结束当前查询，补充读取的行数和耗时，没有获取过结果集时不记录读取信息
+     */
+    protected void finishQuery() {
+        SqlQueryRecord record = queryRecord;
+        if (record == null) {
+            return;
+        }
+        ResultSetWrapper resultSet = queryResultSet;
+        queryRecord = null;
+        queryResultSet = null;
+        if (resultSet != null) {
+            SqlPrintInterceptor.finishQuerySql(record, resultSet.getRowCount(), System.currentTimeMillis() - queryExecuteEndTime);
+        }
+    }
+
+    private void resetBatch() {
+        batchSqlList.clear();
+        batchSize = 0;
+    }
+
+    private void printSql(long startTime, String sql, long rows) {
+        long consume = System.currentTimeMillis() - startTime;
+        finishQuery();
+        SqlPrintInterceptor.printSql(consume, statement, sql, rows);
+    }
+
+    private void printExecuteSql(long startTime, String sql, boolean hasResultSet) {
+        if (hasResultSet) {
+            beginQuery(startTime, LazySql.of(sql));
+        } else {
+            printSql(startTime, sql, -1);
+        }
+    }
+
+    private void printBatchSql(long startTime, long affectedRows, boolean failed) {
+        finishQuery();
+        SqlPrintInterceptor.printBatchSql(System.currentTimeMillis() - startTime, statement, batchSqlList, batchSize, affectedRows, failed);
+    }
+}
@@ -18,98 +18,666 @@ package io.github.future0923.debug.tools.utils;
 
 import io.github.future0923.debug.tools.base.constants.ProjectConstants;
 import io.github.future0923.debug.tools.base.logging.Logger;
+import io.github.future0923.debug.tools.base.sql.SqlArchive;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * SQL文件写入工具类
+ * <p>
+ * JDBC线程只负责将记录放入有界队列，由后台线程批量格式化并追加到当天的分段中，同时写入索引。
+ * 分段跨天或超过大小上限时关闭，由压缩线程按块压缩，格式见 {@link SqlArchive}
  */
 public class SqlFileWriter {
 
     private static final Logger logger = Logger.getLogger(SqlFileWriter.class);
 
     private static final String SQL_DIR = String.format(".idea/%s/sql", ProjectConstants.NAME);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    private static final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 队列容量
+     */
+    private static final int QUEUE_CAPACITY = 8192;
+
+    /**
+     * 每批最多写入的记录数
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * 队列满时阻塞等待的最长时间
+     */
+    private static final long BLOCK_TIMEOUT_MILLIS = 50;
+
+    /**
+     * 定时清理过期文件的间隔
+     */
+    private static final long RETENTION_SWEEP_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 默认的分段大小上限
+     */
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * 压缩块的大小，查询时最多解压一个块
+     */
+    private static final int COMPRESS_BLOCK_BYTES = 64 * 1024;
+
+    private static final BlockingQueue<SqlRecord> QUEUE = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+
+    private static final LongAdder WRITTEN_COUNT = new LongAdder();
+
+    private static final LongAdder DROPPED_COUNT = new LongAdder();
+
+    private static final LongAdder BATCH_COUNT = new LongAdder();
+
+    private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    /**
+     * 分段大小上限，超过后关闭并压缩
+     */
+    private static volatile long maxSegmentBytes = DEFAULT_MAX_SEGMENT_BYTES;
+
+    /**
+     * 保留天数，0表示只保留最新一条，为null或负数时不清理
+     */
+    private static volatile Integer retentionDays;
+
+    private static volatile WriterThread writerThread;
 
     /**
      * 写入SQL记录到文件，支持保留天数和0天清空逻辑
      */
     public static void writeSqlRecordWithRetention(String sql, long consumeTime, String dbType, Integer days) {
-        lock.lock();
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            String dateStr = now.format(DATE_FORMATTER);
-            String timeStr = now.format(TIME_FORMATTER);
-
-            String content = String.format(
-                    "-- %s | %s | %dms\n%s;\n\n",
-                    timeStr, dbType, consumeTime, sql
-            );
-
-            String projectPath = System.getProperty("user.dir");
-            Path sqlDir = Paths.get(projectPath, SQL_DIR);
-            if (!Files.exists(sqlDir)) {
+        writeSqlRecordWithRetention(() -> sql, null, consumeTime, dbType, null, days);
+    }
+
+    /**
+     * 写入SQL记录到文件，SQL在写入线程中生成
+     */
+    public static void writeSqlRecordWithRetention(Supplier<String> sql, long consumeTime, String dbType, Integer days) {
+        writeSqlRecordWithRetention(sql, null, consumeTime, dbType, null, days);
+    }
+
+    /**
+     * 写入SQL记录到文件，SQL在写入线程中生成
+     *
+     * @param fingerprint SQL指纹，写入索引用于筛选，可以为null
+     * @param remark      追加在记录头中的说明，如结果集读取信息，可以为null
+     */
+    public static void writeSqlRecordWithRetention(Supplier<String> sql, String fingerprint, long consumeTime, String dbType, String remark, Integer days) {
+        retentionDays = days;
+        ensureStarted();
+        SqlRecord record = new SqlRecord(System.currentTimeMillis(), sql, fingerprint, consumeTime, dbType, remark);
+        boolean offered;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                offered = QUEUE.offer(record, BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                offered = false;
+            }
+        } else {
+            offered = QUEUE.offer(record);
+        }
+        if (!offered) {
+            DROPPED_COUNT.increment();
+        }
+    }
+
+    /**
+     * 设置队列满时的处理策略
+     */
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        if (policy != null) {
+            overflowPolicy = policy;
+        }
+    }
+
+    /**
+     * 设置分段大小上限，小于等于0时不修改，索引中的偏移为int，超过 {@link Integer#MAX_VALUE} 时取该值
+     */
+    public static void setMaxSegmentBytes(long bytes) {
+        if (bytes > 0) {
+            maxSegmentBytes = Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 已写入文件的记录数
+     */
+    public static long getWrittenCount() {
+        return WRITTEN_COUNT.sum();
+    }
+
+    /**
+     * 因队列满被丢弃的记录数
+     */
+    public static long getDroppedCount() {
+        return DROPPED_COUNT.sum();
+    }
+
+    /**
+     * 已写入的批次数
+     */
+    public static long getBatchCount() {
+        return BATCH_COUNT.sum();
+    }
+
+    /**
+     * 等待写入的记录数
+     */
+    public static int getPendingCount() {
+        return QUEUE.size();
+    }
+
+    private static void ensureStarted() {
+        if (writerThread != null) {
+            return;
+        }
+        synchronized (SqlFileWriter.class) {
+            if (writerThread == null) {
+                WriterThread thread = new WriterThread();
+                thread.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(thread::shutdown, "DebugTools-SqlFileWriter-Shutdown"));
+                writerThread = thread;
+            }
+        }
+    }
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 直接丢弃，不阻塞JDBC线程
+         */
+        DROP,
+
+        /**
+         * 短暂阻塞等待队列空闲，超时后丢弃
+         */
+        BLOCK,
+    }
+
+    private static class SqlRecord {
+
+        private final long time;
+
+        private final Supplier<String> sql;
+
+        private final String fingerprint;
+
+        private final long consumeTime;
+
+        private final String dbType;
+
+        private final String remark;
+
+        private SqlRecord(long time, Supplier<String> sql, String fingerprint, long consumeTime, String dbType, String remark) {
+            this.time = time;
+            this.sql = sql;
+            this.fingerprint = fingerprint;
+            this.consumeTime = consumeTime;
+            this.dbType = dbType;
+            this.remark = remark;
+        }
+    }
+
+    private static class WriterThread extends Thread {
+
+        private final List<SqlRecord> batch = new ArrayList<>(BATCH_SIZE);
+
+        private final StringBuilder buffer = new StringBuilder(1024);
+
+        private final ByteArrayOutputStream dataBuffer = new ByteArrayOutputStream(64 * 1024);
+
+        private final ByteBuffer indexBuffer = ByteBuffer.allocate(BATCH_SIZE * SqlArchive.INDEX_RECORD_BYTES);
+
+        /**
+         * 压缩已关闭的分段，不阻塞写入
+         */
+        private final ExecutorService compressor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "DebugTools-SqlFileCompressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private volatile boolean running = true;
+
+        private Path sqlDir;
+
+        private FileChannel channel;
+
+        private FileChannel indexChannel;
+
+        private LocalDate channelDate;
+
+        /**
+         * 当前分段已写入的大小
+         */
+        private long segmentSize;
+
+        private long nextSweepTime;
+
+        private long loggedDroppedCount;
+
+        private WriterThread() {
+            setName("DebugTools-SqlFileWriter");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running || !QUEUE.isEmpty()) {
+                try {
+                    SqlRecord first = QUEUE.poll(1, TimeUnit.SECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        QUEUE.drainTo(batch, BATCH_SIZE - 1);
+                        writeBatch();
+                    }
+                    long now = System.currentTimeMillis();
+                    if (channelDate != null && now >= nextSweepTime) {
+                        sweepRetention();
+                    }
+                    logDropped();
+                } catch (InterruptedException e) {
+                    running = false;
+                } catch (Throwable e) {
+                    logger.error("Failed to write SQL record to file", e);
+                    closeChannel();
+                } finally {
+                    batch.clear();
+                    dataBuffer.reset();
+                    ((Buffer) indexBuffer).clear();
+                }
+            }
+            closeChannel();
+            compressor.shutdown();
+        }
+
+        private void shutdown() {
+            running = false;
+            try {
+                join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException ignore) {
+            }
+        }
+
+        private void writeBatch() throws IOException {
+            Integer days = retentionDays;
+            boolean overwrite = days != null && days == 0;
+            for (SqlRecord record : batch) {
+                LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.time), ZoneId.systemDefault());
+                LocalDate date = time.toLocalDate();
+                if (!date.equals(channelDate)) {
+                    flush(false);
+                    rollover(date, channelDate != null);
+                } else if (!overwrite && segmentSize + dataBuffer.size() >= maxSegmentBytes) {
+                    flush(false);
+                    rollover(date, true);
+                }
+                if (overwrite) {
+                    // 0天：只保留最新的一条
+                    dataBuffer.reset();
+                    ((Buffer) indexBuffer).clear();
+                }
+                buffer.setLength(0);
+                buffer.append("-- ").append(time.format(TIME_FORMATTER))
+                        .append(" | ").append(record.dbType)
+                        .append(" | ").append(record.consumeTime).append("ms");
+                if (record.remark != null) {
+                    buffer.append(" | ").append(record.remark);
+                }
+                buffer.append('\n').append(generateSql(record)).append(";\n\n");
+                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                long offset = (overwrite ? 0 : segmentSize) + dataBuffer.size();
+                dataBuffer.write(bytes, 0, bytes.length);
+                SqlArchive.putIndexRecord(indexBuffer, record.time, record.consumeTime, SqlArchive.fingerprintHash(record.fingerprint), 0, (int) offset, bytes.length);
+            }
+            flush(overwrite);
+            WRITTEN_COUNT.add(batch.size());
+            BATCH_COUNT.increment();
+        }
+
+        /**
+         * 生成SQL失败时写入说明，不影响同一批的其他记录
+         */
+        private String generateSql(SqlRecord record) {
+            try {
+                return record.sql.get();
+            } catch (Throwable e) {
+                logger.warning("Failed to generate SQL record: {}", e.toString());
+                return "/* Failed to generate SQL: " + e + " */";
+            }
+        }
+
+        /**
+         * 先写数据再写索引，索引中的记录总能在数据文件中找到
+         */
+        private void flush(boolean truncate) throws IOException {
+            if (dataBuffer.size() == 0 || channel == null) {
+                return;
+            }
+            if (truncate) {
+                channel.truncate(0);
+                indexChannel.truncate(SqlArchive.INDEX_HEADER_BYTES);
+                segmentSize = 0;
+            }
+            writeFully(channel, ByteBuffer.wrap(dataBuffer.toByteArray()));
+            ((Buffer) indexBuffer).flip();
+            writeFully(indexChannel, indexBuffer);
+            segmentSize += dataBuffer.size();
+            dataBuffer.reset();
+            ((Buffer) indexBuffer).clear();
+        }
+
+        /**
+         * 打开新的分段
+         *
+         * @param closeCurrent 是否关闭并压缩当前分段
+         */
+        private void rollover(LocalDate date, boolean closeCurrent) throws IOException {
+            LocalDate closedDate = channelDate;
+            closeChannel();
+            if (sqlDir == null) {
+                sqlDir = Paths.get(System.getProperty("user.dir"), SQL_DIR);
                 Files.createDirectories(sqlDir);
+                // 上次运行遗留的其他日期的分段
+                compressStaleSegments(date);
+            }
+            if (closeCurrent && closedDate != null) {
+                closeSegment(closedDate);
+            }
+            Files.createDirectories(sqlDir);
+            Path sqlFile = sqlDir.resolve(date + SqlArchive.SEGMENT_SUFFIX);
+            Path indexFile = sqlDir.resolve(date + SqlArchive.SEGMENT_SUFFIX + SqlArchive.INDEX_SUFFIX);
+            channel = FileChannel.open(sqlFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentSize = channel.size();
+            indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (indexChannel.size() < SqlArchive.INDEX_HEADER_BYTES) {
+                // 没有索引的旧文件，从头开始记录，旧的内容不在索引中
+                indexChannel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(SqlArchive.INDEX_HEADER_BYTES);
+                SqlArchive.putIndexHeader(header, false);
+                ((Buffer) header).flip();
+                writeFully(indexChannel, header);
+            }
+            channelDate = date;
+            logger.debug("SQL record file opened: {}", sqlFile);
+            sweepRetention();
+        }
+
+        /**
+         * 将写入中的分段改名为带序号的分段，交给压缩线程
+         */
+        private void closeSegment(LocalDate date) {
+            Path sqlFile = sqlDir.resolve(date + SqlArchive.SEGMENT_SUFFIX);
+            Path indexFile = sqlDir.resolve(date + SqlArchive.SEGMENT_SUFFIX + SqlArchive.INDEX_SUFFIX);
+            if (!Files.exists(sqlFile)) {
+                return;
+            }
+            try {
+                String segment = String.format("%s-%03d", date, nextSequence(date));
+                Path closedIndexFile = sqlDir.resolve(segment + SqlArchive.SEGMENT_SUFFIX + SqlArchive.INDEX_SUFFIX);
+                if (Files.exists(indexFile)) {
+                    Files.move(indexFile, closedIndexFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Path closedSqlFile = sqlDir.resolve(segment + SqlArchive.SEGMENT_SUFFIX);
+                Files.move(sqlFile, closedSqlFile, StandardCopyOption.REPLACE_EXISTING);
+                compressor.execute(() -> compressSegment(closedSqlFile, closedIndexFile));
+            } catch (IOException e) {
+                logger.warning("Failed to close SQL record file {}: {}", sqlFile, e.getMessage());
+            }
+        }
+
+        private int nextSequence(LocalDate date) throws IOException {
+            String prefix = date + "-";
+            int max = 0;
+            try (Stream<Path> stream = Files.list(sqlDir)) {
+                for (Path p : (Iterable<Path>) stream::iterator) {
+                    String name = p.getFileName().toString();
+                    if (name.startsWith(prefix) && name.length() >= prefix.length() + 3) {
+                        try {
+                            max = Math.max(max, Integer.parseInt(name.substring(prefix.length(), prefix.length() + 3)));
+                        } catch (NumberFormatException ignore) {
+                        }
+                    }
+                }
+            }
+            return max + 1;
+        }
+
+        /**
+         * 关闭其他日期写入中的分段，压缩上次运行中未压缩完的分段
+         */
+        private void compressStaleSegments(LocalDate today) {
+            try (Stream<Path> stream = Files.list(sqlDir)) {
+                List<Path> stalePlainList = new ArrayList<>();
+                List<LocalDate> staleActiveList = new ArrayList<>();
+                stream.forEach(p -> {
+                    String name = p.getFileName().toString();
+                    if (!name.endsWith(SqlArchive.SEGMENT_SUFFIX)) {
+                        return;
+                    }
+                    String segment = name.substring(0, name.length() - SqlArchive.SEGMENT_SUFFIX.length());
+                    if (segment.length() == 10) {
+                        try {
+                            LocalDate date = LocalDate.parse(segment);
+                            if (!date.equals(today)) {
+                                staleActiveList.add(date);
+                            }
+                        } catch (Exception ignore) {
+                        }
+                    } else {
+                        stalePlainList.add(p);
+                    }
+                });
+                for (Path sqlFile : stalePlainList) {
+                    Path indexFile = sqlFile.resolveSibling(sqlFile.getFileName() + SqlArchive.INDEX_SUFFIX);
+                    compressor.execute(() -> compressSegment(sqlFile, indexFile));
+                }
+                for (LocalDate date : staleActiveList) {
+                    closeSegment(date);
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to compress SQL record file: {}", e.getMessage());
+            }
+        }
+
+        /**
+         * 按索引中的记录边界分块压缩，每块是一个独立的gzip成员，并重写索引中的位置。
+         * 先写临时文件，替换索引后再删除未压缩的分段
+         */
+        private void compressSegment(Path sqlFile, Path indexFile) {
+            Path gzipFile = sqlFile.resolveSibling(sqlFile.getFileName() + SqlArchive.GZIP_SUFFIX);
+            Path gzipTempFile = gzipFile.resolveSibling(gzipFile.getFileName() + ".tmp");
+            Path indexTempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try {
+                List<long[]> entryList = readIndex(indexFile);
+                try (FileChannel in = FileChannel.open(sqlFile, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(gzipTempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     FileChannel indexOut = FileChannel.open(indexTempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer indexBuffer = ByteBuffer.allocate(64 * 1024);
+                    SqlArchive.putIndexHeader(indexBuffer, true);
+                    long fileSize = in.size();
+                    long blockStart = 0;
+                    int entryIndex = 0;
+                    while (blockStart < fileSize) {
+                        // 块在记录边界结束，没有索引的内容按固定大小分块
+                        long blockEnd = Math.min(fileSize, blockStart + COMPRESS_BLOCK_BYTES);
+                        int firstEntry = entryIndex;
+                        while (entryIndex < entryList.size() && entryList.get(entryIndex)[4] < blockStart + COMPRESS_BLOCK_BYTES) {
+                            long[] entry = entryList.get(entryIndex);
+                            blockEnd = Math.max(blockEnd, Math.min(fileSize, entry[4] + entry[5]));
+                            entryIndex++;
+                        }
+                        long blockOffset = out.position();
+                        writeBlock(in, blockStart, blockEnd, out);
+                        for (int i = firstEntry; i < entryIndex; i++) {
+                            long[] entry = entryList.get(i);
+                            if (indexBuffer.remaining() < SqlArchive.INDEX_RECORD_BYTES) {
+                                ((Buffer) indexBuffer).flip();
+                                writeFully(indexOut, indexBuffer);
+                                ((Buffer) indexBuffer).clear();
+                            }
+                            SqlArchive.putIndexRecord(indexBuffer, entry[0], entry[1], entry[2], blockOffset, (int) (entry[4] - blockStart), (int) entry[5]);
+                        }
+                        blockStart = blockEnd;
+                    }
+                    ((Buffer) indexBuffer).flip();
+                    writeFully(indexOut, indexBuffer);
+                }
+                Files.move(gzipTempFile, gzipFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(indexTempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.deleteIfExists(sqlFile);
+                logger.debug("SQL record file compressed: {}", gzipFile);
+            } catch (Throwable e) {
+                logger.warning("Failed to compress SQL record file {}: {}", sqlFile, e.getMessage());
+                try {
+                    Files.deleteIfExists(gzipTempFile);
+                    Files.deleteIfExists(indexTempFile);
+                } catch (IOException ignore) {
+                }
             }
+        }
 
-            // 删除超出天数的文件或全部删除
-            if (days == 0) {
-                // 删除所有sql文件
-                Files.list(sqlDir)
-                        .filter(p -> p.getFileName().toString().endsWith(".sql"))
-                        .forEach(p -> {
-                            try { Files.deleteIfExists(p); } catch (IOException ignore) {}
-                        });
-            } else if (days > 0) {
-                LocalDateTime threshold = now.minusDays(days - 1); // 保留N天，含今天
-                Files.list(sqlDir)
-                        .filter(p -> p.getFileName().toString().endsWith(".sql"))
-                        .forEach(p -> {
-                            String name = p.getFileName().toString();
-                            String date = name.replace(".sql", "");
-                            try {
-                                LocalDateTime fileDate = LocalDateTime.parse(date + "T00:00:00");
-                                if (fileDate.isBefore(threshold.withHour(0).withMinute(0).withSecond(0).withNano(0))) {
-                                    Files.deleteIfExists(p);
-                                }
-                            } catch (Exception ignore) {}
-                        });
-            }
-
-            Path sqlFile = sqlDir.resolve(dateStr + ".sql");
-            if (days == 0) {
-                // 0天：每次都覆盖写入（清空）
-                Files.write(
-                        sqlFile,
-                        content.getBytes(StandardCharsets.UTF_8),
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.TRUNCATE_EXISTING
-                );
-            } else {
-                // 正常追加
-                Files.write(
-                        sqlFile,
-                        content.getBytes(StandardCharsets.UTF_8),
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND
-                );
-            }
-            logger.debug("SQL record written to file: {}", sqlFile);
-        } catch (IOException e) {
-            logger.error("Failed to write SQL record to file", e);
-        } finally {
-            lock.unlock();
+        /**
+         * 读取未压缩分段的索引，每条为 时间、耗时、指纹哈希、块位置、偏移、长度
+         */
+        private static List<long[]> readIndex(Path indexFile) throws IOException {
+            List<long[]> entryList = new ArrayList<>();
+            if (!Files.exists(indexFile)) {
+                return entryList;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 64 * 1024))) {
+                if (in.readInt() != SqlArchive.INDEX_MAGIC || (in.readInt() & SqlArchive.FLAG_COMPRESSED) != 0) {
+                    return entryList;
+                }
+                while (true) {
+                    entryList.add(new long[]{in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readInt()});
+                }
+            } catch (EOFException ignore) {
+                // 最后一条索引可能不完整
+            }
+            return entryList;
+        }
+
+        private static void writeBlock(FileChannel in, long start, long end, FileChannel out) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            while (buffer.hasRemaining() && in.read(buffer, start + buffer.position()) > 0) {
+            }
+            OutputStream channelOut = Channels.newOutputStream(out);
+            // 关闭gzip只结束当前成员，包装后不会关闭输出通道
+            GZIPOutputStream gzip = new GZIPOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    channelOut.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    channelOut.write(b, off, len);
+                }
+            }, 8192);
+            gzip.write(buffer.array(), 0, buffer.position());
+            gzip.close();
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /**
+         * 删除超出天数的分段和索引，0天时删除写入中的分段以外的所有文件
+         */
+        private void sweepRetention() {
+            nextSweepTime = System.currentTimeMillis() + RETENTION_SWEEP_INTERVAL_MILLIS;
+            Integer days = retentionDays;
+            if (days == null || days < 0 || sqlDir == null || !Files.isDirectory(sqlDir)) {
+                return;
+            }
+            String currentFileName = channelDate + SqlArchive.SEGMENT_SUFFIX;
+            // 保留N天，含今天
+            LocalDate threshold = channelDate.minusDays(Math.max(days - 1, 0));
+            try (Stream<Path> stream = Files.list(sqlDir)) {
+                stream.forEach(p -> {
+                    String name = p.getFileName().toString();
+                    if (!name.contains(SqlArchive.SEGMENT_SUFFIX) || name.equals(currentFileName) || name.equals(currentFileName + SqlArchive.INDEX_SUFFIX)) {
+                        return;
+                    }
+                    try {
+                        if (days == 0 || LocalDate.parse(name.substring(0, 10)).isBefore(threshold)) {
+                            Files.deleteIfExists(p);
+                        }
+                    } catch (Exception ignore) {
+                    }
+                });
+            } catch (IOException e) {
+                logger.warning("Failed to clean expired SQL record file: {}", e.getMessage());
+            }
+        }
+
+        private void logDropped() {
+            long dropped = DROPPED_COUNT.sum();
+            if (dropped != loggedDroppedCount) {
+                logger.warning("SQL record queue is full, {} records dropped", dropped - loggedDroppedCount);
+                loggedDroppedCount = dropped;
+            }
+        }
+
+        private void closeChannel() {
+            closeQuietly(channel);
+            closeQuietly(indexChannel);
+            channel = null;
+            indexChannel = null;
+            channelDate = null;
+        }
+
+        private static void closeQuietly(FileChannel channel) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignore) {
+                }
+            }
         }
     }
 }
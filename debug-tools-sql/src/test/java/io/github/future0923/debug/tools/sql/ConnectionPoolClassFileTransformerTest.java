@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.hutool.core.util.ReflectUtil;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolMetrics;
+import io.github.future0923.debug.tools.base.sql.ConnectionPoolStatistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 在H2内存库上使用真实的 HikariCP 和 Druid 验证获取连接的统计
+ *
+ * @author future0923
+ */
+class ConnectionPoolClassFileTransformerTest {
+
+    private static final String HIKARI_DATA_SOURCE = "com.zaxxer.hikari.HikariDataSource";
+
+    private static final String DRUID_DATA_SOURCE = "com.alibaba.druid.pool.DruidDataSource";
+
+    @Test
+    void hikariRecordAcquire() throws Exception {
+        Object dataSource = newHikariDataSource("hikari-acquire", 30000);
+        try {
+            getConnection(dataSource).close();
+            getConnection(dataSource).close();
+            ConnectionPoolMetrics metrics = getMetrics("hikari-acquire");
+            Assertions.assertEquals(2, metrics.getCount().sum());
+            Assertions.assertEquals("HikariCP", metrics.getPoolType());
+            Assertions.assertEquals(1, metrics.getSampleList().size());
+        } finally {
+            ReflectUtil.invoke(dataSource, "close");
+        }
+    }
+
+    /**
+     * 获取连接超时也要记录等待的耗时
+     */
+    @Test
+    void hikariRecordFailedAcquire() throws Exception {
+        Object dataSource = newHikariDataSource("hikari-timeout", 250);
+        try (Connection ignored = getConnection(dataSource)) {
+            Assertions.assertThrows(SQLException.class, () -> getConnection(dataSource));
+            ConnectionPoolMetrics metrics = getMetrics("hikari-timeout");
+            Assertions.assertEquals(2, metrics.getCount().sum());
+            Assertions.assertTrue(metrics.getMaxMicros().get() >= 250_000);
+        } finally {
+            ReflectUtil.invoke(dataSource, "close");
+        }
+    }
+
+    @Test
+    void druidRecordAcquire() throws Exception {
+        Object dataSource = newDruidDataSource("druid-acquire", 60000);
+        try {
+            getConnection(dataSource).close();
+            getConnection(dataSource).close();
+            ConnectionPoolMetrics metrics = getMetrics("druid-acquire");
+            Assertions.assertEquals(2, metrics.getCount().sum());
+            Assertions.assertEquals("Druid", metrics.getPoolType());
+            Assertions.assertEquals(1, metrics.getSampleList().size());
+        } finally {
+            ReflectUtil.invoke(dataSource, "close");
+        }
+    }
+
+    @Test
+    void druidRecordFailedAcquire() throws Exception {
+        Object dataSource = newDruidDataSource("druid-timeout", 100);
+        try (Connection ignored = getConnection(dataSource)) {
+            Assertions.assertThrows(SQLException.class, () -> getConnection(dataSource));
+            ConnectionPoolMetrics metrics = getMetrics("druid-timeout");
+            Assertions.assertEquals(2, metrics.getCount().sum());
+            Assertions.assertTrue(metrics.getMaxMicros().get() >= 100_000);
+        } finally {
+            ReflectUtil.invoke(dataSource, "close");
+        }
+    }
+
+    /**
+     * 清空时返回被换下的统计，之后获取连接重新开始统计
+     */
+    @Test
+    void snapshotAndReset() throws Exception {
+        Object dataSource = newHikariDataSource("hikari-reset", 30000);
+        try {
+            getConnection(dataSource).close();
+            ConnectionPoolMetrics swapped = findMetrics(ConnectionPoolStatistics.snapshot(true), "hikari-reset");
+            Assertions.assertNotNull(swapped);
+            Assertions.assertEquals(1, swapped.getCount().sum());
+            Assertions.assertNull(findMetrics(ConnectionPoolStatistics.snapshot(false), "hikari-reset"));
+            getConnection(dataSource).close();
+            Assertions.assertEquals(1, getMetrics("hikari-reset").getCount().sum());
+        } finally {
+            ReflectUtil.invoke(dataSource, "close");
+        }
+    }
+
+    private static Object newHikariDataSource(String poolName, long connectionTimeout) throws Exception {
+        Object dataSource = newDataSource(HIKARI_DATA_SOURCE, "com.zaxxer.hikari.");
+        ReflectUtil.invoke(dataSource, "setJdbcUrl", "jdbc:h2:mem:" + poolName);
+        ReflectUtil.invoke(dataSource, "setPoolName", poolName);
+        ReflectUtil.invoke(dataSource, "setMaximumPoolSize", 1);
+        ReflectUtil.invoke(dataSource, "setConnectionTimeout", connectionTimeout);
+        return dataSource;
+    }
+
+    private static Object newDruidDataSource(String name, long maxWait) throws Exception {
+        Object dataSource = newDataSource(DRUID_DATA_SOURCE, "com.alibaba.druid.");
+        ReflectUtil.invoke(dataSource, "setUrl", "jdbc:h2:mem:" + name);
+        ReflectUtil.invoke(dataSource, "setName", name);
+        ReflectUtil.invoke(dataSource, "setMaxActive", 1);
+        ReflectUtil.invoke(dataSource, "setMaxWait", maxWait);
+        return dataSource;
+    }
+
+    private static Connection getConnection(Object dataSource) throws SQLException {
+        return ((javax.sql.DataSource) dataSource).getConnection();
+    }
+
+    /**
+     * 连接池的类都在新的类加载器中定义，只有数据源使用增强后的字节码，保证包内访问权限不变
+     */
+    private static Object newDataSource(String dataSourceClassName, String packagePrefix) throws Exception {
+        ClassLoader parent = ConnectionPoolClassFileTransformerTest.class.getClassLoader();
+        ClassLoader classLoader = new ClassLoader(parent) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.startsWith(packagePrefix)) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> clazz = findLoadedClass(name);
+                    if (clazz != null) {
+                        return clazz;
+                    }
+                    String internalName = name.replace('.', '/');
+                    byte[] bytes = readClass(parent, internalName);
+                    if (name.equals(dataSourceClassName)) {
+                        try {
+                            bytes = new ConnectionPoolClassFileTransformer().transform(parent, internalName, null, null, bytes);
+                        } catch (Exception e) {
+                            throw new ClassNotFoundException(name, e);
+                        }
+                        Assertions.assertNotNull(bytes);
+                    }
+                    return defineClass(name, bytes, 0, bytes.length);
+                }
+            }
+        };
+        return classLoader.loadClass(dataSourceClassName).getConstructor().newInstance();
+    }
+
+    private static byte[] readClass(ClassLoader classLoader, String internalName) throws ClassNotFoundException {
+        try (InputStream inputStream = classLoader.getResourceAsStream(internalName + ".class")) {
+            if (inputStream == null) {
+                throw new ClassNotFoundException(internalName);
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        } catch (java.io.IOException e) {
+            throw new ClassNotFoundException(internalName, e);
+        }
+    }
+
+    private static ConnectionPoolMetrics getMetrics(String poolName) {
+        ConnectionPoolMetrics metrics = findMetrics(ConnectionPoolStatistics.snapshot(false), poolName);
+        return metrics != null ? metrics : Assertions.fail("no metrics for " + poolName);
+    }
+
+    private static ConnectionPoolMetrics findMetrics(Iterable<ConnectionPoolMetrics> metricsList, String poolName) {
+        for (ConnectionPoolMetrics metrics : metricsList) {
+            if (poolName.equals(metrics.getPoolName())) {
+                return metrics;
+            }
+        }
+        return null;
+    }
+}
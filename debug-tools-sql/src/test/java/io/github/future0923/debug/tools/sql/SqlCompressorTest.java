@@ -18,6 +18,7 @@ package io.github.future0923.debug.tools.sql;
 
 import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
 import io.github.future0923.debug.tools.base.hutool.sql.SqlFormatter;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
@@ -204,4 +205,50 @@ class SqlCompressorTest {
         sqlTestCases.forEach(item -> System.out.println("============\n" + SqlFormatter.format(item)));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void fingerprintString() {
+        Assertions.assertEquals("select * from t where name=? and b=?",
+                SqlCompressor.fingerprint("select * from t where name = 'it''s' and b = 'a\\'b'"));
+        Assertions.assertEquals(SqlCompressor.fingerprint("select * from t where a = 'x -- y'"),
+                SqlCompressor.fingerprint("select * from t where a = 'z'"));
+    }
+
+    @Test
+    void fingerprintComment() {
+        Assertions.assertEquals("select a from t where id=?",
+                SqlCompressor.fingerprint("SELECT a -- 注释\nFROM t /* 块注释 */ WHERE id = 1;"));
+    }
+
+    @Test
+    void fingerprintInList() {
+        Assertions.assertEquals("select * from t where id in(?+)", SqlCompressor.fingerprint("select * from t where id in (1, 2, 3)"));
+        Assertions.assertEquals(SqlCompressor.fingerprint("select * from t where id in (?)"),
+                SqlCompressor.fingerprint("select * from t where id in (-1, 'a', 2.5)"));
+        Assertions.assertEquals("insert into t(a,b) values(?+)",
+                SqlCompressor.fingerprint("insert into t(a,b) values (1,'x'),(2,'y'), (-3, 'z')"));
+        Assertions.assertEquals(SqlCompressor.fingerprint("insert into t(a) values (1)"),
+                SqlCompressor.fingerprint("insert into t(a) values (1), (2)"));
+    }
+
+    @Test
+    void fingerprintNumber() {
+        Assertions.assertEquals("select * from t where a=? and b=? and c=? and d=? and e between ? and ?",
+                SqlCompressor.fingerprint("select * from t where a = -1 and b = 1e-5 and c = 2.5E+3 and d = .5 and e between -1 and +2"));
+        // 减号是运算符时保留，运算符两侧的空白统一移除，单个值的括号不按列表合并
+        Assertions.assertEquals("update t set a=a-?,b=b-?,c=? where x=(?)",
+                SqlCompressor.fingerprint("update t set a = a - 1, b = b-2, c = -3 where x = (-4)"));
+        Assertions.assertEquals(SqlCompressor.fingerprint("select a * 2 from t where b >= 1 and c <> 2"),
+                SqlCompressor.fingerprint("select a*3 from t where b>=4 and c<>5"));
+        Assertions.assertEquals("select *,t.*,count(*),a*? from t", SqlCompressor.fingerprint("select *, t.*, count(*), a * 2 from t"));
+        // 标识符中的数字不是字面量
+        Assertions.assertEquals("select t1.c2,col_3 from t1 where c4=? limit ?",
+                SqlCompressor.fingerprint("select t1.c2, col_3 from t1 where c4 = 5 limit 10"));
+    }
+
+    @Test
+    void fingerprintHex() {
+        Assertions.assertEquals("select * from t where h=? and x=? and n=? and m=?-?",
+                SqlCompressor.fingerprint("select * from t where h = 0x1F and x = X'0F' and n = N'abc' and m = 0x1e-5"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
+import io.github.future0923.debug.tools.base.sql.SqlStatistics;
+import io.github.future0923.debug.tools.base.sql.SqlStatisticsItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 包装类不完整时回退的动态代理，在H2内存库上验证执行和批量的记录
+ *
+ * @author future0923
+ */
+class SqlPrintInterceptorTest {
+
+    private Connection rawConnection;
+
+    private Connection connection;
+
+    @BeforeEach
+    void before() throws SQLException {
+        rawConnection = DriverManager.getConnection("jdbc:h2:mem:proxy;DB_CLOSE_DELAY=-1");
+        connection = SqlPrintInterceptor.proxyConnectionByHandler(rawConnection);
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        rawConnection.close();
+    }
+
+    @Test
+    void preparedStatementBatch() throws SQLException {
+        execute("create table t_prepared_batch(id int primary key, name varchar(20))");
+        String sql = "insert into t_prepared_batch(id, name) values (?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= 3; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, "name" + i);
+                statement.addBatch();
+            }
+            // addBatch 只记录不执行
+            Assertions.assertNull(findItem(sql));
+            Assertions.assertArrayEquals(new int[]{1, 1, 1}, statement.executeBatch());
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(1, item.getCount().sum());
+        Assertions.assertEquals(3, item.getRows().sum());
+    }
+
+    @Test
+    void statementBatch() throws SQLException {
+        execute("create table t_statement_batch(id int primary key)");
+        String sql = "insert into t_statement_batch(id) values (1)";
+        try (Statement statement = connection.createStatement()) {
+            statement.addBatch(sql);
+            statement.addBatch("insert into t_statement_batch(id) values (2)");
+            statement.executeBatch();
+        }
+        // 批量中的SQL只有字面量不同时使用相同的指纹，示例为第一条SQL
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(sql, item.getSampleSql());
+        Assertions.assertEquals(1, item.getCount().sum());
+        Assertions.assertEquals(2, item.getRows().sum());
+    }
+
+    /**
+     * 批量失败时也要记录，影响行数为驱动返回的成功条数
+     */
+    @Test
+    void failedBatch() throws SQLException {
+        execute("create table t_failed_batch(id int primary key)");
+        String sql = "insert into t_failed_batch(id) values (?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int id : new int[]{1, 1, 2}) {
+                statement.setInt(1, id);
+                statement.addBatch();
+            }
+            BatchUpdateException e = Assertions.assertThrows(BatchUpdateException.class, statement::executeBatch);
+            Assertions.assertEquals(Statement.EXECUTE_FAILED, e.getUpdateCounts()[1]);
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(1, item.getCount().sum());
+        Assertions.assertEquals(2, item.getRows().sum());
+    }
+
+    @Test
+    void failedBatchWithWrapper() throws SQLException {
+        execute("create table t_failed_wrapper(id int primary key)");
+        String sql = "insert into t_failed_wrapper(id) values (?)";
+        try (PreparedStatement statement = new ConnectionWrapper(rawConnection).prepareStatement(sql)) {
+            for (int id : new int[]{1, 1}) {
+                statement.setInt(1, id);
+                statement.addBatch();
+            }
+            Assertions.assertThrows(BatchUpdateException.class, statement::executeBatch);
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(1, item.getRows().sum());
+    }
+
+    @Test
+    void prepareCall() throws SQLException {
+        execute("create table t_prepare_call(id int primary key)");
+        String sql = "insert into t_prepare_call(id) values (?)";
+        try (CallableStatement statement = connection.prepareCall(sql)) {
+            statement.setInt(1, 1);
+            Assertions.assertEquals(1, statement.executeUpdate());
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(1, item.getRows().sum());
+    }
+
+    /**
+     * 读取结果集后补充读取的行数
+     */
+    @Test
+    void fetchRows() throws SQLException {
+        execute("create table t_fetch_rows(id int primary key)");
+        execute("insert into t_fetch_rows(id) values (1), (2), (3)");
+        String sql = "select id from t_fetch_rows where id > 1";
+        try (Statement statement = new ConnectionWrapper(rawConnection).createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                Assertions.assertTrue(resultSet.getInt(1) > 1);
+            }
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(2, item.getRows().sum());
+    }
+
+    /**
+     * 滚动游标时读取的行数为到达过的最大行号，重复读取的行不重复统计
+     */
+    @Test
+    void fetchRowsScrollable() throws SQLException {
+        execute("create table t_fetch_scroll(id int primary key)");
+        execute("insert into t_fetch_scroll(id) values (1), (2), (3), (4)");
+        String sql = "select id from t_fetch_scroll";
+        try (Statement statement = new ConnectionWrapper(rawConnection).createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            Assertions.assertTrue(resultSet.absolute(3));
+            Assertions.assertTrue(resultSet.previous());
+            Assertions.assertTrue(resultSet.first());
+            resultSet.beforeFirst();
+            while (resultSet.next()) {
+                resultSet.getInt(1);
+            }
+            // 滚动过的游标 next 返回false后还可以继续滚动，关闭时才统计
+            Assertions.assertTrue(resultSet.last());
+            Assertions.assertEquals(0, findItem(sql).getRows().sum());
+        }
+        SqlStatisticsItem item = findItem(sql);
+        Assertions.assertNotNull(item);
+        Assertions.assertEquals(4, item.getRows().sum());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = rawConnection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static SqlStatisticsItem findItem(String sql) {
+        String fingerprint = SqlCompressor.fingerprint(sql);
+        for (SqlStatisticsItem item : SqlStatistics.snapshot(0, false)) {
+            if (fingerprint.equals(item.getFingerprint())) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
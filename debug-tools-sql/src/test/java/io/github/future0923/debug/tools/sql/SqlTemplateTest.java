@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.sql;
+
+import io.github.future0923.debug.tools.base.enums.PrintSqlType;
+import io.github.future0923.debug.tools.base.hutool.sql.SqlCompressor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author future0923
+ */
+class SqlTemplateTest {
+
+    @Test
+    void render() {
+        SqlTemplate template = SqlTemplate.of("select * from t where a = ? and b = ? and c = ?");
+        Assertions.assertEquals("select * from t where a = 1 and b = 'x' and c = NULL",
+                template.render(new Object[]{1, "x", null}, PrintSqlType.NO));
+        // 参数不足时保留多余的占位符
+        Assertions.assertEquals("select * from t where a = 1 and b = ? and c = ?",
+                template.render(new Object[]{1}, PrintSqlType.NO));
+    }
+
+    /**
+     * 字符串中的问号不是占位符
+     */
+    @Test
+    void placeholderInString() {
+        SqlTemplate template = SqlTemplate.of("select '?' as q, \"a?\" from t where a = ? and b = 'it''s ?' and c = ?");
+        Assertions.assertEquals("select '?' as q, \"a?\" from t where a = 1 and b = 'it''s ?' and c = 2",
+                template.render(new Object[]{1, 2}, PrintSqlType.NO));
+    }
+
+    /**
+     * 引号标识符中的问号不是占位符
+     */
+    @Test
+    void placeholderInQuotedIdentifier() {
+        SqlTemplate template = SqlTemplate.of("select `a?b`, \"c?\" from `t?` where id = ?");
+        Assertions.assertEquals("select `a?b`, \"c?\" from `t?` where id = 7",
+                template.render(new Object[]{7}, PrintSqlType.NO));
+    }
+
+    /**
+     * 注释中的问号不是占位符
+     */
+    @Test
+    void placeholderInComment() {
+        SqlTemplate template = SqlTemplate.of("select a -- why?\nfrom t /* where b = ? */ where c = ?");
+        Assertions.assertEquals("select a -- why?\nfrom t /* where b = ? */ where c = 3",
+                template.render(new Object[]{3}, PrintSqlType.NO));
+    }
+
+    /**
+     * 字符串参数中的单引号转义为两个单引号，参数中的问号不会再被替换
+     */
+    @Test
+    void escapeQuote() {
+        SqlTemplate template = SqlTemplate.of("insert into t(a, b) values (?, ?)");
+        Assertions.assertEquals("insert into t(a, b) values ('it''s', '?')",
+                template.render(new Object[]{"it's", "?"}, PrintSqlType.NO));
+    }
+
+    /**
+     * 压缩后的模板重新定位占位符
+     */
+    @Test
+    void renderCompress() {
+        String sql = "select *\n  from t\n where a = ?\n   and b = '?'";
+        Assertions.assertEquals(SqlCompressor.compressSql("select *\n  from t\n where a = 1\n   and b = '?'"),
+                SqlTemplate.of(sql).render(new Object[]{1}, PrintSqlType.COMPRESS));
+    }
+
+    /**
+     * 相同的SQL复用模板，Statement 直接执行的SQL也使用缓存
+     */
+    @Test
+    void cache() {
+        String sql = "select * from t_cache where id = 1";
+        Assertions.assertSame(SqlTemplate.of(sql), SqlTemplate.of(sql));
+        Assertions.assertEquals(LazySql.of(sql).getFingerprint(), SqlTemplate.of(sql).getFingerprint());
+    }
+
+    /**
+     * 批量中的多条SQL以分号换行拼接
+     */
+    @Test
+    void renderBatch() {
+        String sql = "insert into t(a, b) values (?, ?)";
+        LazySql batch = LazySql.batch(Arrays.asList(
+                LazySql.of(sql, new Object[]{1, "a"}),
+                LazySql.of(sql, new Object[]{2, "b'c"})));
+        Assertions.assertEquals("insert into t(a, b) values (1, 'a');\ninsert into t(a, b) values (2, 'b''c')", batch.getRawSql());
+        Assertions.assertEquals(sql, batch.getTemplate());
+        Assertions.assertEquals(SqlTemplate.of(sql).getFingerprint(), batch.getFingerprint());
+    }
+
+    /**
+     * 只有字面量不同的 Statement 批量使用相同的指纹，结构不同时使用拼接后SQL的指纹
+     */
+    @Test
+    void batchFingerprint() {
+        LazySql sameBatch = LazySql.batch(Arrays.asList(
+                LazySql.of("insert into t(a) values (1)"),
+                LazySql.of("insert into t(a) values ('x')")));
+        Assertions.assertEquals(SqlCompressor.fingerprint("insert into t(a) values (?)"), sameBatch.getFingerprint());
+        LazySql mixedBatch = LazySql.batch(Arrays.asList(
+                LazySql.of("insert into t(a) values (1)"),
+                LazySql.of("delete from t where a = 1")));
+        Assertions.assertEquals(SqlCompressor.fingerprint(mixedBatch.getRawSql()), mixedBatch.getFingerprint());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024-2025 the original author or authors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.github.future0923.debug.tools.utils;
+
+import io.github.future0923.debug.tools.base.constants.ProjectConstants;
+import io.github.future0923.debug.tools.base.sql.SqlArchive;
+import io.github.future0923.debug.tools.base.sql.SqlArchiveRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 写入、分段、压缩后通过 {@link SqlArchive} 查询
+ *
+ * @author future0923
+ */
+class SqlFileWriterTest {
+
+    private static final int RECORD_COUNT = 500;
+
+    private static final int FAILED_INDEX = 250;
+
+    @Test
+    void writeRotateCompressQuery() throws Exception {
+        Path workDir = Files.createTempDirectory("sql-archive-test");
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", workDir.toString());
+        try {
+            SqlFileWriter.setMaxSegmentBytes(16 * 1024);
+            SqlFileWriter.setOverflowPolicy(SqlFileWriter.OverflowPolicy.BLOCK);
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < RECORD_COUNT; i++) {
+                String sql = "SELECT * FROM t_archive WHERE id = " + i;
+                if (i == FAILED_INDEX) {
+                    // 生成SQL失败时只影响这一条记录
+                    SqlFileWriter.writeSqlRecordWithRetention(() -> {
+                        throw new IllegalStateException("broken parameter");
+                    }, "fp" + (i % 5), i % 10, "mysql", null, null);
+                } else {
+                    SqlFileWriter.writeSqlRecordWithRetention(() -> sql, "fp" + (i % 5), i % 10, "mysql", null, null);
+                }
+            }
+            Path sqlDir = workDir.resolve(".idea/" + ProjectConstants.NAME + "/sql");
+            awaitWritten(sqlDir);
+
+            List<String> gzipList = listFiles(sqlDir, SqlArchive.SEGMENT_SUFFIX + SqlArchive.GZIP_SUFFIX);
+            Assertions.assertTrue(gzipList.size() > 1, "segments should be rotated and compressed: " + gzipList);
+            // 写入中的分段未压缩，查询时按纯文本读取
+            Assertions.assertTrue(Files.exists(sqlDir.resolve(LocalDate.now() + SqlArchive.SEGMENT_SUFFIX)));
+
+            List<SqlArchiveRecord> recordList = SqlArchive.query(sqlDir, 0, 0, 0, null, 0);
+            Assertions.assertEquals(RECORD_COUNT, recordList.size());
+            for (int i = 0; i < RECORD_COUNT; i++) {
+                SqlArchiveRecord record = recordList.get(i);
+                Assertions.assertTrue(record.getText().startsWith("-- "), record.getText());
+                if (i == FAILED_INDEX) {
+                    Assertions.assertTrue(record.getText().endsWith("/* Failed to generate SQL: java.lang.IllegalStateException: broken parameter */;\n\n"), record.getText());
+                } else {
+                    Assertions.assertTrue(record.getText().endsWith("SELECT * FROM t_archive WHERE id = " + i + ";\n\n"), record.getText());
+                }
+                Assertions.assertEquals(i % 10, record.getConsume());
+                Assertions.assertEquals(SqlArchive.fingerprintHash("fp" + (i % 5)), record.getFingerprintHash());
+            }
+
+            Assertions.assertEquals(RECORD_COUNT / 10, SqlArchive.query(sqlDir, 0, 0, 9, null, 0).size());
+            List<SqlArchiveRecord> fingerprintList = SqlArchive.query(sqlDir, 0, 0, 0, "fp3", 0);
+            Assertions.assertEquals(RECORD_COUNT / 5, fingerprintList.size());
+            Assertions.assertTrue(fingerprintList.get(1).getText().endsWith("id = 8;\n\n"));
+            List<SqlArchiveRecord> limitList = SqlArchive.query(sqlDir, start, 0, 0, null, 10);
+            Assertions.assertEquals(10, limitList.size());
+            Assertions.assertTrue(limitList.get(9).getText().endsWith("id = 9;\n\n"));
+            Assertions.assertTrue(SqlArchive.query(sqlDir, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1), 0, 0, null, 0).isEmpty());
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    /**
+     * 等待写入线程写完，压缩线程压缩完已关闭的分段
+     */
+    private static void awaitWritten(Path sqlDir) throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline) {
+            if (SqlFileWriter.getWrittenCount() >= RECORD_COUNT && Files.isDirectory(sqlDir)
+                    && listFiles(sqlDir, SqlArchive.SEGMENT_SUFFIX).stream().allMatch(name -> name.length() == 14)
+                    && listFiles(sqlDir, ".tmp").isEmpty()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        Assertions.fail("SQL records are not written in time");
+    }
+
+    private static List<String> listFiles(Path dir, String suffix) throws Exception {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.map(p -> p.getFileName().toString()).filter(name -> name.endsWith(suffix)).sorted().collect(Collectors.toList());
+        }
+    }
+}